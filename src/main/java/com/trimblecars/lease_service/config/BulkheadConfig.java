@@ -0,0 +1,42 @@
+package com.trimblecars.lease_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.filter.BulkheadFilter;
+import com.trimblecars.lease_service.service.BulkheadService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Route-class bulkheads (trimble.bulkhead.enabled): the request filter plus the connection pool
+ * partition that charges JDBC connections to the request's compartment.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trimble.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePartition() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return (bean instanceof DataSource dataSource) ? new PartitionedDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(BulkheadService bulkheadService,
+                                                                ObjectMapper objectMapper) {
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(bulkheadService, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        // Inside the rate limiter, so shed requests never occupy a compartment
+        registration.setOrder(2);
+        return registration;
+    }
+}
@@ -0,0 +1,47 @@
+package com.trimblecars.lease_service.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.dto.UserResponseDTO;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    /** Filter id the response DTOs are bound to; see {@link SparseFieldsetResponseAdvice}. */
+    public static final String FIELDS_FILTER = "fields";
+
+    /**
+     * Binds the response DTOs to the "fields" filter through mix-ins, so the DTOs themselves stay
+     * plain and serialize in full wherever no fieldset is requested.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> builder
+                .mixIn(CarResponseDTO.class, SparseFieldsetMixin.class)
+                .mixIn(LeaseResponseDTO.class, SparseFieldsetMixin.class)
+                .mixIn(UserResponseDTO.class, SparseFieldsetMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * CBOR converter built from the application's customized builder (mix-ins, Java time),
+     * selected by {@code Accept: application/cbor}.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @JsonFilter(FIELDS_FILTER)
+    abstract static class SparseFieldsetMixin {
+    }
+}
@@ -0,0 +1,80 @@
+package com.trimblecars.lease_service.config;
+
+import com.trimblecars.lease_service.service.SqlDiagnosticsService;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * JDK proxies around DataSource → Connection → Statement → ResultSet that time statement
+ * execution and count rows read, reporting to {@link SqlDiagnosticsService}.
+ */
+final class JdbcTimingProxy implements InvocationHandler {
+
+    private final Object target;
+
+    private JdbcTimingProxy(Object target) {
+        this.target = target;
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        boolean timed = target instanceof Statement && name.startsWith("execute");
+        long start = timed ? System.nanoTime() : 0;
+
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        } finally {
+            if (timed) {
+                SqlDiagnosticsService.recordExecution(System.nanoTime() - start);
+            }
+        }
+
+        if (target instanceof ResultSet && "next".equals(name) && Boolean.TRUE.equals(result)) {
+            SqlDiagnosticsService.recordRow();
+        }
+        return wrapResult(result);
+    }
+
+    private static Object wrapResult(Object result) {
+        if (result instanceof Proxy) {
+            return result;
+        }
+        if (result instanceof Connection connection) {
+            return proxy(Connection.class, connection);
+        }
+        if (result instanceof CallableStatement statement) {
+            return proxy(CallableStatement.class, statement);
+        }
+        if (result instanceof PreparedStatement statement) {
+            return proxy(PreparedStatement.class, statement);
+        }
+        if (result instanceof Statement statement) {
+            return proxy(Statement.class, statement);
+        }
+        if (result instanceof ResultSet resultSet) {
+            return proxy(ResultSet.class, resultSet);
+        }
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new JdbcTimingProxy(target)));
+    }
+}
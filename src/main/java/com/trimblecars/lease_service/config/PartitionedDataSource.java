@@ -0,0 +1,72 @@
+package com.trimblecars.lease_service.config;
+
+import com.trimblecars.lease_service.service.BulkheadService;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Charges every connection borrowed on a request thread to that request's bulkhead partition and
+ * gives the partition slot back when the connection is closed (returned to the pool).
+ */
+final class PartitionedDataSource extends DelegatingDataSource {
+
+    PartitionedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        BulkheadService.Compartment compartment = BulkheadService.current();
+        if (compartment == null) {
+            return super.getConnection();
+        }
+        compartment.acquireConnection();
+        try {
+            return release(super.getConnection(), compartment);
+        } catch (SQLException | RuntimeException ex) {
+            compartment.releaseConnection();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        BulkheadService.Compartment compartment = BulkheadService.current();
+        if (compartment == null) {
+            return super.getConnection(username, password);
+        }
+        compartment.acquireConnection();
+        try {
+            return release(super.getConnection(username, password), compartment);
+        } catch (SQLException | RuntimeException ex) {
+            compartment.releaseConnection();
+            throw ex;
+        }
+    }
+
+    private static Connection release(Connection connection, BulkheadService.Compartment compartment) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            compartment.releaseConnection();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+}
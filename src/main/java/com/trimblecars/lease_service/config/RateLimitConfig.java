@@ -0,0 +1,24 @@
+package com.trimblecars.lease_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.filter.RateLimitFilter;
+import com.trimblecars.lease_service.service.RateLimiterService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "trimble.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiterService rateLimiterService,
+                                                                   ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimiterService, objectMapper));
+        registration.addUrlPatterns("/api/customers/*", "/api/owners/*", "/api/admin/leases/export");
+        registration.setOrder(1);
+        return registration;
+    }
+}
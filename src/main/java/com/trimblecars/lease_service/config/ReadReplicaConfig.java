@@ -0,0 +1,55 @@
+package com.trimblecars.lease_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica routing (trimble.replica.enabled, see the "replica" profile). The application
+ * DataSource fetches its physical connection lazily, after the transaction has declared itself
+ * read-only or not: {@code @Transactional(readOnly = true)} work goes to
+ * {@link ReplicaRouting#readOnlyDataSource()}; everything else, and every connection used outside a
+ * transaction, goes to the primary. The car, lease and lease history repositories are read-only at
+ * interface level, so their query methods open a read-only transaction when called outside one;
+ * their updates are marked {@code @Transactional} and inside a service transaction they all join it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trimble.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRouting replicaRouting(DataSourceProperties properties,
+                                         @Value("${trimble.replica.url}") String url,
+                                         @Value("${trimble.replica.username:sa}") String username,
+                                         @Value("${trimble.replica.password:}") String password,
+                                         @Value("${trimble.replica.max-pool-size:10}") int maxPoolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(maxPoolSize);
+        return new ReplicaRouting(primary, replica);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouting replicaRouting) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRouting.primary());
+        dataSource.setReadOnlyDataSource(replicaRouting.readOnlyDataSource());
+        return dataSource;
+    }
+}
@@ -0,0 +1,110 @@
+package com.trimblecars.lease_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The primary and replica pools behind the application DataSource. Neither pool is a bean, so the
+ * bulkhead and SQL timing wrappers apply once, to the routing DataSource built on top of them.
+ * <p>
+ * Read-only transactions take their connection from {@link #readOnlyDataSource()}: the replica while
+ * the gate set by the health monitor allows it, the primary otherwise. Until a gate is set, and
+ * whenever the replica refuses a connection, reads stay on the primary.
+ */
+@Slf4j
+public class ReplicaRouting implements AutoCloseable {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final DataSource readOnly = new FallbackDataSource();
+
+    private volatile BooleanSupplier replicaReadable = () -> false;
+
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaFailures = new LongAdder();
+
+    public ReplicaRouting(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public DataSource replica() {
+        return replica;
+    }
+
+    public DataSource readOnlyDataSource() {
+        return readOnly;
+    }
+
+    /**
+     * Decides, per read-only connection, whether the replica may serve it
+     */
+    public void useReplicaWhen(BooleanSupplier replicaReadable) {
+        this.replicaReadable = replicaReadable;
+    }
+
+    public long replicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    /**
+     * Read-only connections served by the primary instead
+     */
+    public long primaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public long replicaFailures() {
+        return replicaFailures.sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            closeIfPossible(replica);
+        } finally {
+            closeIfPossible(primary);
+        }
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private final class FallbackDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (replicaReadable.getAsBoolean()) {
+                try {
+                    Connection connection = replica.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException ex) {
+                    replicaFailures.increment();
+                    log.warn("Replica refused a connection, reading from the primary: {}", ex.getMessage());
+                }
+            }
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.trimblecars.lease_service.config;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@code ?fields=id,model} to the response DTOs in any JSON or CBOR response.
+ * The filter for each distinct field set is built once and reused; Jackson keeps its own
+ * serializer cache, so a filtered request costs no more reflection than a full one.
+ * <p>
+ * Since one URL now has several representations, ETag'd endpoints pass their version tag through
+ * {@link #representationTag} so each representation gets its own strong validator.
+ */
+@ControllerAdvice
+public class SparseFieldsetResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FIELDS_PARAM = "fields";
+
+    // Field sets come from clients, so only a bounded number are cached
+    private static final int MAX_CACHED_FIELD_SETS = 256;
+
+    private final ConcurrentHashMap<String, FilterProvider> filtersByFieldSet = new ConcurrentHashMap<>();
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAM);
+        if (fields != null && !fields.isBlank()) {
+            bodyContainer.setFilters(filtersFor(fields));
+        }
+    }
+
+    /**
+     * The version tag of a list, narrowed to the representation this request gets: the format
+     * negotiated from {@code Accept} and the requested field set. A 304 for the CBOR or field-filtered
+     * response then never validates a cached full JSON copy, or the other way round.
+     */
+    public static String representationTag(String versionTag, WebRequest request) {
+        StringBuilder tag = new StringBuilder(versionTag)
+                .append('-')
+                .append(negotiatedFormat(request.getHeader(HttpHeaders.ACCEPT)));
+        String fields = request.getParameter(FIELDS_PARAM);
+        if (fields != null && !fields.isBlank()) {
+            tag.append("-f").append(Integer.toHexString(String.join(",", fieldNames(fields)).hashCode()));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * "json" or "cbor": the first acceptable type, by specificity and quality, that either converter
+     * writes. JSON is the default, as it is for content negotiation.
+     */
+    static String negotiatedFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        try {
+            List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(accepted);
+            for (MediaType type : accepted) {
+                if (type.getQualityValue() == 0) {
+                    continue;
+                }
+                if (type.includes(MediaType.APPLICATION_JSON)) {
+                    return "json";
+                }
+                if (type.includes(MediaType.APPLICATION_CBOR)) {
+                    return "cbor";
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            // The request is rejected by content negotiation anyway
+        }
+        return "json";
+    }
+
+    FilterProvider filtersFor(String fields) {
+        FilterProvider cached = filtersByFieldSet.get(fields);
+        if (cached != null) {
+            return cached;
+        }
+
+        Set<String> names = fieldNames(fields);
+
+        FilterProvider provider = new SimpleFilterProvider()
+                .addFilter(JacksonConfig.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names))
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
+        if (filtersByFieldSet.size() < MAX_CACHED_FIELD_SETS) {
+            filtersByFieldSet.putIfAbsent(fields, provider);
+        }
+        return provider;
+    }
+
+    private static Set<String> fieldNames(String fields) {
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
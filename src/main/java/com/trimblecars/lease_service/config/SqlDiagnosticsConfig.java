@@ -0,0 +1,52 @@
+package com.trimblecars.lease_service.config;
+
+import com.trimblecars.lease_service.filter.SqlDiagnosticsFilter;
+import com.trimblecars.lease_service.service.SqlDiagnosticsService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Opt-in SQL diagnostics (trimble.diagnostics.sql.enabled=true). When the property is off none of
+ * these beans exist, so the JDBC path and request filter chain are untouched.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trimble.diagnostics.sql.enabled", havingValue = "true")
+public class SqlDiagnosticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlDiagnosticsStatementInspector() {
+        StatementInspector inspector = sql -> {
+            SqlDiagnosticsService.recordStatement(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlDiagnosticsDataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return (bean instanceof DataSource dataSource) ? JdbcTimingProxy.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlDiagnosticsFilter> sqlDiagnosticsFilter(SqlDiagnosticsService sqlDiagnosticsService) {
+        FilterRegistrationBean<SqlDiagnosticsFilter> registration =
+                new FilterRegistrationBean<>(new SqlDiagnosticsFilter(sqlDiagnosticsService));
+        registration.addUrlPatterns("/api/*");
+        // Runs inside the rate limiter and bulkheads, so shed requests are not measured
+        registration.setOrder(3);
+        return registration;
+    }
+}
@@ -1,20 +1,31 @@
 package com.trimblecars.lease_service.controller;
 
+import com.trimblecars.lease_service.config.SparseFieldsetResponseAdvice;
 import com.trimblecars.lease_service.dto.*;
-import com.trimblecars.lease_service.entity.Lease;
 import com.trimblecars.lease_service.entity.User;
 import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.ExportFormat;
 import com.trimblecars.lease_service.enums.UserRole;
 import com.trimblecars.lease_service.model.ResponseModel;
 import com.trimblecars.lease_service.service.AdminService;
+import com.trimblecars.lease_service.service.BatchLookupService;
+import com.trimblecars.lease_service.service.BulkheadService;
+import com.trimblecars.lease_service.service.CarMaintenanceService;
 import com.trimblecars.lease_service.service.CarService;
+import com.trimblecars.lease_service.service.CollectionVersionService;
+import com.trimblecars.lease_service.service.CustomerLeaseHistoryCache;
+import com.trimblecars.lease_service.service.IdempotencyService;
+import com.trimblecars.lease_service.service.LeaseHistoryService;
 import com.trimblecars.lease_service.service.LeaseService;
+import com.trimblecars.lease_service.service.OverdueLeaseService;
+import com.trimblecars.lease_service.service.ReadCoalescer;
 import com.trimblecars.lease_service.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
 import java.util.List;
@@ -34,11 +45,31 @@ public class AdminController {
 
     private final CarService carService;
 
+    private final IdempotencyService idempotencyService;
+
+    private final CollectionVersionService collectionVersionService;
+
+    private final BatchLookupService batchLookupService;
+
+    private final LeaseHistoryService leaseHistoryService;
+
+    private final CustomerLeaseHistoryCache customerLeaseHistoryCache;
+
+    private final BulkheadService bulkheadService;
+
+    private final OverdueLeaseService overdueLeaseService;
+
+    private final CarMaintenanceService carMaintenanceService;
+
+    private final ReadCoalescer readCoalescer;
+
     // --- USERS ---
 
     @PostMapping("/users")
-    public ResponseEntity<ResponseModel<UserResponseDTO>> registerUser(@RequestBody UserRequestDTO dto) {
-        return adminService.registerUser(dto);
+    public ResponseEntity<ResponseModel<UserResponseDTO>> registerUser(@RequestBody UserRequestDTO dto,
+                                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("user-register", idempotencyKey, dto, UserResponseDTO.class,
+                () -> adminService.registerUser(dto));
     }
 
 
@@ -46,59 +77,155 @@ public class AdminController {
 
     @PostMapping("/owners/{ownerId}/cars")
     public ResponseEntity<ResponseModel<CarResponseDTO>> registerCar(@PathVariable Long ownerId,
-                                                                     @RequestBody CarRequestDTO dto) {
-        log.info("[Admin] Registering car for owner: {}", ownerId);
-        return ResponseEntity.ok(carService.registerCar(ownerId, dto));
+                                                                     @RequestBody CarRequestDTO dto,
+                                                                     @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("[Admin] Registering car for owner: {}", ownerId);
+        return idempotencyService.execute("car-register:" + ownerId, idempotencyKey, dto, CarResponseDTO.class,
+                () -> ResponseEntity.ok(carService.registerCar(ownerId, dto)));
     }
 
     @GetMapping("/cars")
     public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getAllCars(
-            @RequestParam(required = false) CarStatus status) {
+            @RequestParam(required = false) CarStatus status, WebRequest webRequest) {
+
+        String versionTag = (status != null)
+                ? collectionVersionService.carsByStatusTag(status)
+                : collectionVersionService.allCarsTag();
+        String etag = SparseFieldsetResponseAdvice.representationTag(versionTag, webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
 
         ResponseModel<List<CarResponseDTO>> response = carService.getAllCarsResponse(status);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).body(response);
     }
 
     // --- LEASES ---
 
     @PostMapping("/customers/{customerId}/lease")
-    public ResponseEntity<ResponseModel<LeaseResponseDTO>> startLease(@PathVariable Long customerId, @RequestBody LeaseRequestDTO dto) {
-        log.info("[Admin] Starting lease for customer {} on car {}", customerId, dto.getCarId());
+    public ResponseEntity<ResponseModel<LeaseResponseDTO>> startLease(@PathVariable Long customerId, @RequestBody LeaseRequestDTO dto,
+                                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("[Admin] Starting lease for customer {} on car {}", customerId, dto.getCarId());
 
-        return ResponseEntity.ok(leaseService.startLease(customerId, dto.getCarId()));
+        return idempotencyService.execute("lease-start:" + customerId, idempotencyKey, dto, LeaseResponseDTO.class,
+                () -> ResponseEntity.ok(leaseService.startLease(customerId, dto.getCarId(), dto.getPlannedEndDate())));
     }
 
     @PostMapping("/leases/{leaseId}/end")
-    public ResponseEntity<ResponseModel<LeaseResponseDTO>> endLease(@PathVariable Long leaseId) {
-        log.info("[Admin] Ending lease: {}", leaseId);
+    public ResponseEntity<ResponseModel<LeaseResponseDTO>> endLease(@PathVariable Long leaseId,
+                                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("[Admin] Ending lease: {}", leaseId);
 
-        return ResponseEntity.ok(leaseService.endLease(leaseId));
+        return idempotencyService.execute("lease-end-admin:" + leaseId, idempotencyKey, null, LeaseResponseDTO.class,
+                () -> ResponseEntity.ok(leaseService.endLease(leaseId)));
     }
 
     @GetMapping("/leases/by-customer/{customerId}")
     public ResponseEntity<ResponseModel<List<LeaseResponseDTO>>> getLeasesByCustomer(@PathVariable Long customerId) {
-        log.info("[Admin] Fetching leases by customer ID: {}", customerId);
+        log.debug("[Admin] Fetching leases by customer ID: {}", customerId);
         return ResponseEntity.ok(leaseService.getLeasesByCustomer(customerId));
     }
 
     @GetMapping("/leases/by-car/{carId}")
     public ResponseEntity<ResponseModel<List<LeaseResponseDTO>>> getLeasesByCar(@PathVariable Long carId) {
-        log.info("[Admin] Fetching leases by car ID: {}", carId);
+        log.debug("[Admin] Fetching leases by car ID: {}", carId);
         return ResponseEntity.ok(leaseService.getLeasesByCar(carId));
     }
 
-    @GetMapping("/leases/export")
-    public void exportLeases(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
-        List<Lease> leases = leaseService.getAllLeases();
+    /**
+     * Pending lease deadlines and what has fired so far
+     */
+    @GetMapping("/leases/deadlines")
+    public ResponseEntity<ResponseModel<LeaseDeadlineStatsDTO>> getLeaseDeadlineStats() {
+        return ResponseEntity.ok(ResponseModel.success("Lease deadline stats fetched successfully.",
+                overdueLeaseService.getStats()));
+    }
 
+    /**
+     * Lease history as csv (default), ndjson or pdf; csv and ndjson can be gzipped
+     */
+    @GetMapping("/leases/export")
+    public void exportLeases(@RequestParam(defaultValue = "csv") String format,
+                             @RequestParam(defaultValue = "false") boolean gzip,
+                             HttpServletResponse response) throws IOException {
         if (format.equalsIgnoreCase("pdf")) {
-            adminService.exportAsPdf(leases, response);
+            adminService.exportAsPdf(leaseService.getAllLeaseHistory(), response);
+        } else if (format.equalsIgnoreCase("ndjson")) {
+            adminService.exportLeases(ExportFormat.NDJSON, gzip, response);
         } else {
-            adminService.exportAsCsv(response);
+            adminService.exportLeases(ExportFormat.CSV, gzip, response);
         }
     }
 
+    @PostMapping("/lease-history/rebuild")
+    public ResponseEntity<ResponseModel<Integer>> rebuildLeaseHistory() {
+        log.info("[Admin] Rebuilding lease history view");
+        ResponseModel<Integer> result = leaseHistoryService.rebuild();
+        customerLeaseHistoryCache.clear();
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/lease-history/cache-stats")
+    public ResponseEntity<ResponseModel<CacheStatsDTO>> getLeaseHistoryCacheStats() {
+        return ResponseEntity.ok(ResponseModel.success("Lease history cache stats fetched successfully.",
+                customerLeaseHistoryCache.getStats()));
+    }
+
+    /**
+     * Per-compartment concurrency, queue and connection saturation
+     */
+    @GetMapping("/bulkheads")
+    public ResponseEntity<ResponseModel<List<BulkheadStatsDTO>>> getBulkheadStats() {
+        return ResponseEntity.ok(ResponseModel.success("Bulkhead stats fetched successfully.",
+                bulkheadService.getStats()));
+    }
+
+    /**
+     * Per read operation: calls, loader executions (queries issued), calls that joined an in-flight read
+     */
+    @GetMapping("/single-flight")
+    public ResponseEntity<ResponseModel<List<SingleFlightStatsDTO>>> getSingleFlightStats() {
+        return ResponseEntity.ok(ResponseModel.success("Single-flight stats fetched successfully.",
+                readCoalescer.getStats()));
+    }
+
+    // --- SERVICE (MAINTENANCE) ---
+
+    /**
+     * Puts IDLE cars ON_SERVICE by ids or by owner/model filter (e.g. a fleet-wide recall of a model)
+     */
+    @PostMapping("/cars:startService")
+    public ResponseEntity<ResponseModel<CarServiceResultDTO>> startService(@RequestBody CarServiceRequestDTO dto) {
+        log.debug("[Admin] Moving cars to service: ids={}, owner={}, model={}",
+                dto.getCarIds() != null ? dto.getCarIds().size() : 0, dto.getOwnerId(), dto.getModel());
+        return ResponseEntity.ok(carMaintenanceService.startService(null, dto));
+    }
+
+    @PostMapping("/cars:endService")
+    public ResponseEntity<ResponseModel<CarServiceResultDTO>> endService(@RequestBody CarServiceRequestDTO dto) {
+        log.debug("[Admin] Returning cars from service: ids={}, owner={}, model={}",
+                dto.getCarIds() != null ? dto.getCarIds().size() : 0, dto.getOwnerId(), dto.getModel());
+        return ResponseEntity.ok(carMaintenanceService.endService(null, dto));
+    }
+
+    // --- BATCH LOOKUPS ---
+
+    @PostMapping("/cars:batchGet")
+    public ResponseEntity<ResponseModel<BatchGetResponseDTO<CarResponseDTO>>> batchGetCars(@RequestBody BatchGetRequestDTO dto) {
+        return ResponseEntity.ok(batchLookupService.getCars(dto.getIds()));
+    }
+
+    @PostMapping("/users:batchGet")
+    public ResponseEntity<ResponseModel<BatchGetResponseDTO<UserResponseDTO>>> batchGetUsers(@RequestBody BatchGetRequestDTO dto) {
+        return ResponseEntity.ok(batchLookupService.getUsers(dto.getIds()));
+    }
+
+    @PostMapping("/leases:batchGet")
+    public ResponseEntity<ResponseModel<BatchGetResponseDTO<LeaseResponseDTO>>> batchGetLeases(@RequestBody BatchGetRequestDTO dto) {
+        return ResponseEntity.ok(batchLookupService.getLeases(dto.getIds()));
+    }
+
     @PostMapping("/bootstrap-users")
     public ResponseEntity<String> bootstrapTestUsersAndCars() {
         List<User> testUsers = List.of(
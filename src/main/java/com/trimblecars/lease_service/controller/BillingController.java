@@ -0,0 +1,46 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.dto.BillingRunDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.BillingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/billing")
+@RequiredArgsConstructor
+public class BillingController {
+
+    private final BillingService billingService;
+
+    /**
+     * Start (or resume) a billing run for the month containing runDate (default today)
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<ResponseModel<BillingRunDTO>> startRun(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate runDate,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        log.info("[Admin] Starting billing run for {} (dry run: {})", runDate, dryRun);
+        return ResponseEntity.ok(billingService.startRun(runDate != null ? runDate : LocalDate.now(), dryRun));
+    }
+
+    /**
+     * Progress of the run in progress, if any
+     */
+    @GetMapping("/runs/current")
+    public ResponseEntity<ResponseModel<BillingRunDTO>> getCurrentRun() {
+        return ResponseEntity.ok(billingService.getCurrentRun());
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<ResponseModel<List<BillingRunDTO>>> getRecentRuns() {
+        return ResponseEntity.ok(billingService.getRecentRuns());
+    }
+}
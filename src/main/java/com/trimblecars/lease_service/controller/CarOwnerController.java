@@ -1,14 +1,23 @@
 package com.trimblecars.lease_service.controller;
 
+import com.trimblecars.lease_service.config.SparseFieldsetResponseAdvice;
 import com.trimblecars.lease_service.dto.CarRequestDTO;
 import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.CarServiceRequestDTO;
+import com.trimblecars.lease_service.dto.CarServiceResultDTO;
+import com.trimblecars.lease_service.dto.OwnerDashboardDTO;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.CarMaintenanceService;
 import com.trimblecars.lease_service.service.CarService;
+import com.trimblecars.lease_service.service.CollectionVersionService;
+import com.trimblecars.lease_service.service.IdempotencyService;
+import com.trimblecars.lease_service.service.OwnerDashboardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +29,10 @@ import java.util.stream.Collectors;
 public class CarOwnerController {
 
     private final CarService carService;
+    private final IdempotencyService idempotencyService;
+    private final CollectionVersionService collectionVersionService;
+    private final OwnerDashboardService ownerDashboardService;
+    private final CarMaintenanceService carMaintenanceService;
 
     /**
      * Register a new car under a given owner
@@ -27,13 +40,13 @@ public class CarOwnerController {
     @PostMapping("/{ownerId}/cars")
     public ResponseEntity<ResponseModel<CarResponseDTO>> registerCar(
             @PathVariable Long ownerId,
-            @RequestBody CarRequestDTO carDTO) {
+            @RequestBody CarRequestDTO carDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
-        log.info("[Owner] Registering car for owner ID: {}", ownerId);
+        log.debug("[Owner] Registering car for owner ID: {}", ownerId);
 
-        ResponseModel<CarResponseDTO> response = carService.registerCar(ownerId, carDTO);
-
-        return ResponseEntity.ok(response);
+        return idempotencyService.execute("car-register:" + ownerId, idempotencyKey, carDTO, CarResponseDTO.class,
+                () -> ResponseEntity.ok(carService.registerCar(ownerId, carDTO)));
     }
 
 
@@ -41,9 +54,45 @@ public class CarOwnerController {
      * View all cars owned by a specific owner
      */
     @GetMapping("/{ownerId}/cars")
-    public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getCarsByOwner(@PathVariable Long ownerId) {
-        log.info("[Owner] Fetching all cars for owner ID: {}", ownerId);
-        return ResponseEntity.ok(carService.getCarsByOwner(ownerId));
+    public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getCarsByOwner(@PathVariable Long ownerId,
+                                                                                WebRequest webRequest) {
+        log.debug("[Owner] Fetching all cars for owner ID: {}", ownerId);
+
+        String etag = SparseFieldsetResponseAdvice.representationTag(
+                collectionVersionService.ownerCarsTag(ownerId), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(carService.getCarsByOwner(ownerId));
+    }
+
+    /**
+     * Fleet overview: counts per status, current lease and leased days of each car
+     */
+    @GetMapping("/{ownerId}/dashboard")
+    public ResponseEntity<ResponseModel<OwnerDashboardDTO>> getDashboard(@PathVariable Long ownerId) {
+        log.debug("[Owner] Fetching dashboard for owner ID: {}", ownerId);
+        return ResponseEntity.ok(ownerDashboardService.getDashboard(ownerId));
+    }
+
+    /**
+     * Put the owner's IDLE cars ON_SERVICE, by ids or model (all of the owner's cars if neither is given)
+     */
+    @PostMapping("/{ownerId}/cars:startService")
+    public ResponseEntity<ResponseModel<CarServiceResultDTO>> startService(@PathVariable Long ownerId,
+                                                                           @RequestBody CarServiceRequestDTO dto) {
+        log.debug("[Owner] Moving cars to service for owner ID: {}", ownerId);
+        return ResponseEntity.ok(carMaintenanceService.startService(ownerId, dto));
+    }
+
+    /**
+     * Return the owner's ON_SERVICE cars to IDLE
+     */
+    @PostMapping("/{ownerId}/cars:endService")
+    public ResponseEntity<ResponseModel<CarServiceResultDTO>> endService(@PathVariable Long ownerId,
+                                                                         @RequestBody CarServiceRequestDTO dto) {
+        log.debug("[Owner] Returning cars from service for owner ID: {}", ownerId);
+        return ResponseEntity.ok(carMaintenanceService.endService(ownerId, dto));
     }
 
 }
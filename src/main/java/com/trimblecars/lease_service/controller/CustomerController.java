@@ -1,18 +1,25 @@
 package com.trimblecars.lease_service.controller;
 
+import com.trimblecars.lease_service.config.SparseFieldsetResponseAdvice;
 import com.trimblecars.lease_service.dto.CarResponseDTO;
 import com.trimblecars.lease_service.dto.LeaseRequestDTO;
 import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.dto.WaitlistEntryDTO;
+import com.trimblecars.lease_service.dto.WaitlistRequestDTO;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.entity.Lease;
 import com.trimblecars.lease_service.enums.CarStatus;
 import com.trimblecars.lease_service.model.ResponseModel;
 import com.trimblecars.lease_service.service.CarService;
+import com.trimblecars.lease_service.service.CollectionVersionService;
+import com.trimblecars.lease_service.service.IdempotencyService;
 import com.trimblecars.lease_service.service.LeaseService;
+import com.trimblecars.lease_service.service.WaitlistService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,15 +32,35 @@ public class CustomerController {
 
     private final CarService carService;
     private final LeaseService leaseService;
+    private final IdempotencyService idempotencyService;
+    private final CollectionVersionService collectionVersionService;
+    private final WaitlistService waitlistService;
 
     /**
      * View available cars for leasing (only IDLE ones)
      */
     @GetMapping("/cars")
-    public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getAvailableCars() {
-        log.info("[Customer] Fetching all IDLE cars available for leasing.");
+    public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getAvailableCars(WebRequest webRequest) {
+        log.debug("[Customer] Fetching all IDLE cars available for leasing.");
 
-        return ResponseEntity.ok(carService.getCarsByStatus(CarStatus.IDLE));
+        String etag = SparseFieldsetResponseAdvice.representationTag(
+                collectionVersionService.carsByStatusTag(CarStatus.IDLE), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(carService.getCarsByStatus(CarStatus.IDLE));
+    }
+
+    /**
+     * Nearest available cars to a point, closest first (radius in km)
+     */
+    @GetMapping("/cars/nearby")
+    public ResponseEntity<ResponseModel<List<CarResponseDTO>>> getNearbyCars(@RequestParam double lat,
+                                                                             @RequestParam double lon,
+                                                                             @RequestParam(defaultValue = "5") double radius,
+                                                                             @RequestParam(defaultValue = "10") int limit) {
+        log.debug("[Customer] Fetching up to {} cars within {} km of ({}, {})", limit, radius, lat, lon);
+        return ResponseEntity.ok(carService.findNearbyCars(lat, lon, radius, limit));
     }
 
     /**
@@ -41,10 +68,12 @@ public class CustomerController {
      */
     @PostMapping("/{customerId}/lease")
     public ResponseEntity<ResponseModel<LeaseResponseDTO>> startLease(@PathVariable Long customerId,
-                                                                      @RequestBody LeaseRequestDTO dto) {
-        log.info("[Customer] Starting lease for customer {} and car {}", customerId, dto.getCarId());
+                                                                      @RequestBody LeaseRequestDTO dto,
+                                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("[Customer] Starting lease for customer {} and car {}", customerId, dto.getCarId());
 
-        return ResponseEntity.ok(leaseService.startLease(customerId, dto.getCarId()));
+        return idempotencyService.execute("lease-start:" + customerId, idempotencyKey, dto, LeaseResponseDTO.class,
+                () -> ResponseEntity.ok(leaseService.startLease(customerId, dto.getCarId(), dto.getPlannedEndDate())));
     }
 
     /**
@@ -52,9 +81,12 @@ public class CustomerController {
      */
     @PostMapping("/{customerId}/lease/{leaseId}/end")
     public ResponseEntity<ResponseModel<LeaseResponseDTO>> endLease(@PathVariable Long customerId,
-                                                                    @PathVariable Long leaseId) {
-        log.info("[Customer] Ending lease ID {} for customer {}", leaseId, customerId);
-        return ResponseEntity.ok(leaseService.endLease(customerId, leaseId));
+                                                                    @PathVariable Long leaseId,
+                                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        log.debug("[Customer] Ending lease ID {} for customer {}", leaseId, customerId);
+        return idempotencyService.execute("lease-end:" + customerId + ":" + leaseId, idempotencyKey, null,
+                LeaseResponseDTO.class,
+                () -> ResponseEntity.ok(leaseService.endLease(customerId, leaseId)));
     }
 
 
@@ -63,9 +95,44 @@ public class CustomerController {
      * View customer's lease history
      */
     @GetMapping("/{customerId}/leases")
-    public ResponseEntity<ResponseModel<List<LeaseResponseDTO>>> getLeaseHistory(@PathVariable Long customerId) {
-        log.info("[Customer] Fetching lease history for customer ID: {}", customerId);
-        return ResponseEntity.ok(leaseService.getLeasesByCustomer(customerId));
+    public ResponseEntity<ResponseModel<List<LeaseResponseDTO>>> getLeaseHistory(@PathVariable Long customerId,
+                                                                                  WebRequest webRequest) {
+        log.debug("[Customer] Fetching lease history for customer ID: {}", customerId);
+
+        String etag = SparseFieldsetResponseAdvice.representationTag(
+                collectionVersionService.customerLeasesTag(customerId), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(leaseService.getLeasesByCustomer(customerId));
+    }
+
+    /**
+     * Join the waitlist for a car model; the next released car of that model is leased automatically
+     */
+    @PostMapping("/{customerId}/waitlist")
+    public ResponseEntity<ResponseModel<WaitlistEntryDTO>> joinWaitlist(@PathVariable Long customerId,
+                                                                        @RequestBody WaitlistRequestDTO dto) {
+        log.debug("[Customer] Customer {} joining waitlist for model {}", customerId, dto.getModel());
+        return ResponseEntity.ok(waitlistService.join(customerId, dto.getModel()));
+    }
+
+    /**
+     * View customer's waitlist entries, newest first
+     */
+    @GetMapping("/{customerId}/waitlist")
+    public ResponseEntity<ResponseModel<List<WaitlistEntryDTO>>> getWaitlist(@PathVariable Long customerId) {
+        log.debug("[Customer] Fetching waitlist entries for customer {}", customerId);
+        return ResponseEntity.ok(waitlistService.getEntries(customerId));
     }
 
+    /**
+     * Leave the waitlist
+     */
+    @DeleteMapping("/{customerId}/waitlist/{entryId}")
+    public ResponseEntity<ResponseModel<WaitlistEntryDTO>> leaveWaitlist(@PathVariable Long customerId,
+                                                                         @PathVariable Long entryId) {
+        log.debug("[Customer] Customer {} leaving waitlist entry {}", customerId, entryId);
+        return ResponseEntity.ok(waitlistService.leave(customerId, entryId));
+    }
 }
@@ -0,0 +1,35 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.dto.RequestSqlStatsDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.SqlDiagnosticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics/sql")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "trimble.diagnostics.sql.enabled", havingValue = "true")
+public class DiagnosticsController {
+
+    private final SqlDiagnosticsService sqlDiagnosticsService;
+
+    /**
+     * Slowest recorded requests with the SQL they issued, slowest first
+     */
+    @GetMapping("/slowest")
+    public ResponseEntity<ResponseModel<List<RequestSqlStatsDTO>>> getSlowestRequests() {
+        return ResponseEntity.ok(ResponseModel.success("Slowest requests fetched successfully.",
+                sqlDiagnosticsService.getSlowestRequests()));
+    }
+
+    @DeleteMapping("/slowest")
+    public ResponseEntity<ResponseModel<Void>> clearSlowestRequests() {
+        sqlDiagnosticsService.clearSlowestRequests();
+        return ResponseEntity.ok(ResponseModel.success("Slow request log cleared.", null));
+    }
+}
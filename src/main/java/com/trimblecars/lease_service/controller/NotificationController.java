@@ -0,0 +1,35 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.dto.DeadLetterNotificationDTO;
+import com.trimblecars.lease_service.dto.NotificationStatsDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ResponseModel<NotificationStatsDTO>> getStats() {
+        return ResponseEntity.ok(ResponseModel.success("Notification stats fetched successfully.",
+                notificationService.getStats()));
+    }
+
+    /**
+     * Most recent notifications that exhausted their retries
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<ResponseModel<List<DeadLetterNotificationDTO>>> getDeadLetters() {
+        return ResponseEntity.ok(notificationService.getDeadLetters());
+    }
+}
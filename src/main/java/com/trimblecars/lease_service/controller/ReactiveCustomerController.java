@@ -0,0 +1,91 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.config.SparseFieldsetResponseAdvice;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.CollectionVersionService;
+import com.trimblecars.lease_service.service.ReactiveBrowseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variants of the customer browsing reads, served next to the MVC endpoints.
+ * With {@code Accept: application/x-ndjson} each row is written as one line as soon as it is read,
+ * and the next row is only requested once the previous one is written. With JSON the rows are
+ * collected into the usual envelope without holding a servlet thread while the query runs.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "trimble.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveCustomerController {
+
+    private final ReactiveBrowseService reactiveBrowseService;
+    private final CollectionVersionService collectionVersionService;
+
+    /**
+     * Available cars as NDJSON
+     */
+    @GetMapping(value = "/cars/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CarResponseDTO> streamAvailableCars() {
+        log.debug("[Customer] Streaming IDLE cars.");
+        return reactiveBrowseService.availableCars();
+    }
+
+    @GetMapping(value = "/cars/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ResponseModel<List<CarResponseDTO>>>> getAvailableCars(WebRequest webRequest) {
+        log.debug("[Customer] Fetching IDLE cars (reactive).");
+
+        String etag = SparseFieldsetResponseAdvice.representationTag(
+                collectionVersionService.carsByStatusTag(CarStatus.IDLE), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return reactiveBrowseService.availableCars()
+                .collectList()
+                .map(dtos -> ResponseEntity.ok().eTag(etag).body(ResponseModel.success(dtos.isEmpty()
+                        ? "No cars found with status: " + CarStatus.IDLE
+                        : "Cars fetched successfully", dtos)));
+    }
+
+    /**
+     * A customer's lease history as NDJSON
+     */
+    @GetMapping(value = "/{customerId}/leases/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LeaseResponseDTO> streamLeaseHistory(@PathVariable Long customerId) {
+        log.debug("[Customer] Streaming lease history for customer ID: {}", customerId);
+        return reactiveBrowseService.customerLeases(customerId);
+    }
+
+    @GetMapping(value = "/{customerId}/leases/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ResponseModel<List<LeaseResponseDTO>>>> getLeaseHistory(@PathVariable Long customerId,
+                                                                                        WebRequest webRequest) {
+        log.debug("[Customer] Fetching lease history for customer ID: {} (reactive)", customerId);
+
+        String etag = SparseFieldsetResponseAdvice.representationTag(
+                collectionVersionService.customerLeasesTag(customerId), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return reactiveBrowseService.customerLeases(customerId)
+                .collectList()
+                .map(dtos -> ResponseEntity.ok().eTag(etag).body(ResponseModel.success(dtos.isEmpty()
+                        ? "No lease history found for the customer."
+                        : "Lease history fetched successfully.", dtos)));
+    }
+}
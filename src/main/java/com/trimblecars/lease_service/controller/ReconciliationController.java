@@ -0,0 +1,35 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.dto.ReconciliationReportDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.CarStatusReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final CarStatusReconciliationService reconciliationService;
+
+    /**
+     * Check car status against active leases; repair defaults to trimble.reconciliation.repair
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<ResponseModel<ReconciliationReportDTO>> startRun(@RequestParam(required = false) Boolean repair) {
+        log.info("[Admin] Starting car status reconciliation (repair: {})", repair);
+        return ResponseEntity.ok(reconciliationService.startRun(repair));
+    }
+
+    /**
+     * Progress of the running pass, or the result of the last one
+     */
+    @GetMapping("/runs/latest")
+    public ResponseEntity<ResponseModel<ReconciliationReportDTO>> getLatestRun() {
+        return ResponseEntity.ok(reconciliationService.getLatestRun());
+    }
+}
@@ -0,0 +1,29 @@
+package com.trimblecars.lease_service.controller;
+
+import com.trimblecars.lease_service.dto.ReplicaStatusDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.ReplicaHealthMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/replica")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "trimble.replica.enabled", havingValue = "true")
+public class ReplicaController {
+
+    private final ReplicaHealthMonitor replicaHealthMonitor;
+
+    /**
+     * Replica health, lag and where read-only connections went
+     */
+    @GetMapping
+    public ResponseEntity<ResponseModel<ReplicaStatusDTO>> getStatus() {
+        return ResponseEntity.ok(ResponseModel.success("Replica status fetched successfully.",
+                replicaHealthMonitor.getStatus()));
+    }
+}
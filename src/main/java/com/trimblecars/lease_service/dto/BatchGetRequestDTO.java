@@ -0,0 +1,10 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchGetRequestDTO {
+    private List<Long> ids;
+}
@@ -0,0 +1,15 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponseDTO<T> {
+    private List<T> items;        // In request order
+    private List<Long> missingIds;
+}
@@ -0,0 +1,27 @@
+package com.trimblecars.lease_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BillingRunDTO {
+    private Long id;
+    private String period;
+    private LocalDate runDate;
+    private boolean dryRun;
+    private String status;
+    private long lastLeaseId;
+    private long leasesProcessed;
+    private long invoicesWritten;
+    private long totalAmountCents;
+    // Only while the run is in progress
+    private Long estimatedLeases;
+    private Double leasesPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
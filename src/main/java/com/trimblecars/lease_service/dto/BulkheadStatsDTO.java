@@ -0,0 +1,20 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkheadStatsDTO {
+    private String bulkhead;
+    private int maxConcurrent;
+    private int active;
+    private int peakActive;
+    private double saturation;
+    private int maxQueue;
+    private int waiting;
+    private long accepted;
+    private long rejectedQueueFull;
+    private long rejectedTimeout;
+    private int maxConnections;
+    private int connectionsInUse;
+    private long connectionTimeouts;
+}
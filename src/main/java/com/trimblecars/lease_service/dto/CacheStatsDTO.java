@@ -0,0 +1,16 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDTO {
+    private int entries;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private double avgHitMicros;
+    private double avgMissMicros;
+}
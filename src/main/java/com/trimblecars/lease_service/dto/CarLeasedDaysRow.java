@@ -0,0 +1,7 @@
+package com.trimblecars.lease_service.dto;
+
+/**
+ * Total leased days of one car (projection row).
+ */
+public record CarLeasedDaysRow(Long carId, Long leasedDays) {
+}
@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.dto;
+
+import com.trimblecars.lease_service.enums.CarStatus;
+
+/**
+ * Status and coordinates of a car modified since a snapshot (projection row).
+ */
+public record CarLocationChangeRow(Long id, CarStatus status, Double latitude, Double longitude) {
+}
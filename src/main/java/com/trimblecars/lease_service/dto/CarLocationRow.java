@@ -0,0 +1,7 @@
+package com.trimblecars.lease_service.dto;
+
+/**
+ * Car id and coordinates only, used to build the in-memory location index (projection row).
+ */
+public record CarLocationRow(Long id, Double latitude, Double longitude) {
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 @Data
 public class CarRequestDTO {
     private String model;
+    private Double latitude;
+    private Double longitude;
 
     public CarRequestDTO(String model){
         this.model = model;
@@ -1,5 +1,6 @@
 package com.trimblecars.lease_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -8,4 +9,10 @@ public class CarResponseDTO {
     private String model;
     private String status;
     private String ownerEmail;
+    private Double latitude;
+    private Double longitude;
+
+    // Only set by the nearby search
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
 }
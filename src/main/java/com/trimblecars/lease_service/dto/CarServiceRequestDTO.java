@@ -0,0 +1,16 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Selects cars for a bulk service transition, either by explicit ids or by owner/model filter.
+ * On the owner endpoints the owner always comes from the path.
+ */
+@Data
+public class CarServiceRequestDTO {
+    private List<Long> carIds;
+    private Long ownerId;
+    private String model;
+}
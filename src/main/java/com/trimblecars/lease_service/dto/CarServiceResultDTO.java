@@ -0,0 +1,21 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CarServiceResultDTO {
+    private String targetStatus;
+    // Cars the selection matched
+    private int matched;
+    private List<Long> transitioned = new ArrayList<>();
+    // Cars on an active lease; they keep their status
+    private List<Long> skippedLeased = new ArrayList<>();
+    // Cars already in the target status
+    private List<Long> unchanged = new ArrayList<>();
+    // Requested ids that do not exist (or belong to another owner)
+    private List<Long> notFound = new ArrayList<>();
+    private long elapsedMs;
+}
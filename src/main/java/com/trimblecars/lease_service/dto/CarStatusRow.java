@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.dto;
+
+import com.trimblecars.lease_service.enums.CarStatus;
+
+/**
+ * Car id and status only (projection row).
+ */
+public record CarStatusRow(Long id, CarStatus status) {
+}
@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.dto;
+
+import com.trimblecars.lease_service.enums.CarStatus;
+
+/**
+ * Car with its owner's email, read without loading the owner entity (projection row).
+ */
+public record CarSummaryRow(Long id, String model, CarStatus status, String ownerEmail) {
+}
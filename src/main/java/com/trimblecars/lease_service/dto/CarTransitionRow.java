@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.dto;
+
+import com.trimblecars.lease_service.enums.CarStatus;
+
+/**
+ * Status, owner and coordinates of a car selected for a bulk status transition (projection row).
+ */
+public record CarTransitionRow(Long id, CarStatus status, Long ownerId, Double latitude, Double longitude) {
+}
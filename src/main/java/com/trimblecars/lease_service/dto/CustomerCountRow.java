@@ -0,0 +1,7 @@
+package com.trimblecars.lease_service.dto;
+
+/**
+ * Number of rows per customer (projection row).
+ */
+public record CustomerCountRow(Long customerId, Long count) {
+}
@@ -0,0 +1,16 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DeadLetterNotificationDTO {
+    private Long id;
+    private String recipient;
+    private String subject;
+    private String body;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Open lease id and its planned end date, used to load the deadline wheel (projection row).
+ */
+public record LeaseDeadlineRow(Long id, LocalDate plannedEndDate) {
+}
@@ -0,0 +1,15 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class LeaseDeadlineStatsDTO {
+    private String action;
+    private int pending;
+    private long fired;
+    private long alerted;
+    private long autoEnded;
+    // Fired for leases that had already ended
+    private long skipped;
+    private long failed;
+}
@@ -2,7 +2,11 @@ package com.trimblecars.lease_service.dto;
 
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 public class LeaseRequestDTO {
     private Long carId;
+    // Optional; the lease is flagged (or auto-ended) once this date has passed
+    private LocalDate plannedEndDate;
 }
@@ -1,14 +1,26 @@
 package com.trimblecars.lease_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class LeaseResponseDTO {
     private Long leaseId;
     private String carModel;
     private String customerEmail;
     private LocalDate startDate;
     private LocalDate endDate;
+    // Only set on lease start responses; the history view does not carry it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate plannedEndDate;
+
+    public LeaseResponseDTO(Long leaseId, String carModel, String customerEmail, LocalDate startDate, LocalDate endDate) {
+        this(leaseId, carModel, customerEmail, startDate, endDate, null);
+    }
 }
@@ -0,0 +1,16 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class NotificationStatsDTO {
+    private boolean enabled;
+    private int pendingEvents;
+    private int pendingRetries;
+    private long enqueued;
+    private long dropped;
+    private long delivered;
+    private long batches;
+    private long retried;
+    private long deadLettered;
+}
@@ -0,0 +1,12 @@
+package com.trimblecars.lease_service.dto;
+
+import com.trimblecars.lease_service.enums.CarStatus;
+
+import java.time.LocalDate;
+
+/**
+ * One owner car joined with its open lease, if any (projection row).
+ */
+public record OwnerCarLeaseRow(Long carId, String model, CarStatus status,
+                               Long leaseId, String customerEmail, LocalDate leaseStartDate) {
+}
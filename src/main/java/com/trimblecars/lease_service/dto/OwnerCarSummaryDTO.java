@@ -0,0 +1,16 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class OwnerCarSummaryDTO {
+    private Long carId;
+    private String model;
+    private String status;
+    private Long currentLeaseId;
+    private String currentCustomerEmail;
+    private LocalDate currentLeaseStartDate;
+    private long totalLeasedDays;
+}
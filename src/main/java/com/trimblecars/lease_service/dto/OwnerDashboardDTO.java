@@ -0,0 +1,15 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class OwnerDashboardDTO {
+    private Long ownerId;
+    private Map<String, Long> statusCounts;
+    private List<OwnerCarSummaryDTO> cars;
+    private LocalDateTime generatedAt;
+}
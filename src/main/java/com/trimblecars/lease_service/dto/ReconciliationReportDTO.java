@@ -0,0 +1,27 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ReconciliationReportDTO {
+    private boolean repair;
+    private String status;
+    private long chunks;
+    private long carsScanned;
+    // ON_LEASE cars without an ACTIVE lease (repaired to IDLE)
+    private long onLeaseWithoutActiveLease;
+    // IDLE cars with an ACTIVE lease (repaired to ON_LEASE)
+    private long idleWithActiveLease;
+    // ON_SERVICE cars with an ACTIVE lease (reported only; needs a human decision)
+    private long onServiceWithActiveLease;
+    // Cars with more than one ACTIVE lease (reported only; one of the leases has to be ended)
+    private long multipleActiveLeases;
+    private long repaired;
+    // Repairs since startup, across runs
+    private long totalRepaired;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
@@ -0,0 +1,22 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReplicaStatusDTO {
+    // Reachable and within the lag tolerance; routing only starts once the app accepts traffic
+    private boolean healthy;
+    private boolean routing;
+    // Primary time of the newest heartbeat the replica has; null until one has arrived
+    private Instant replicatedThrough;
+    private Long lagMs;
+    private long maxLagMs;
+    private Instant lastCheckedAt;
+    private String lastError;
+    private long replicaConnections;
+    // Read-only connections that went to the primary (replica unhealthy, behind the last write, or refused)
+    private long primaryConnections;
+    private long replicaFailures;
+}
@@ -0,0 +1,17 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class RequestSqlStatsDTO {
+    private String request;
+    private LocalDateTime completedAt;
+    private long elapsedMs;
+    private int statements;
+    private long rowsFetched;
+    private long dbTimeMs;
+    private List<String> sql;
+}
@@ -0,0 +1,15 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class SingleFlightStatsDTO {
+    private String operation;
+    private long calls;
+    // Loader runs, i.e. queries actually issued
+    private long executions;
+    // Calls that waited on another caller's execution
+    private long joined;
+    private long cacheHits;
+    private long failures;
+}
@@ -0,0 +1,19 @@
+package com.trimblecars.lease_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WaitlistEntryDTO {
+    private Long id;
+    private String model;
+    private String status;
+    // 1-based place in the model's queue, only while waiting
+    private Long position;
+    private LocalDateTime createdAt;
+    private LocalDateTime assignedAt;
+    private Long leaseId;
+}
@@ -0,0 +1,8 @@
+package com.trimblecars.lease_service.dto;
+
+import lombok.Data;
+
+@Data
+public class WaitlistRequestDTO {
+    private String model;
+}
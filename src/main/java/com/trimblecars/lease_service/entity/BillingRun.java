@@ -0,0 +1,60 @@
+package com.trimblecars.lease_service.entity;
+
+import com.trimblecars.lease_service.enums.BillingRunStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One execution of the billing job. {@code lastLeaseId} is the checkpoint: it is committed with
+ * each chunk of invoices, so a failed or interrupted run resumes after the last written chunk.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "billing_run", indexes = @Index(name = "idx_billing_run_date", columnList = "run_date, status"))
+public class BillingRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "billing_period", length = 7)
+    private String period;
+
+    @Column(name = "run_date")
+    private LocalDate runDate;
+
+    @Column(name = "dry_run")
+    private boolean dryRun;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private BillingRunStatus status;
+
+    @Column(name = "last_lease_id")
+    private long lastLeaseId;
+
+    @Column(name = "leases_processed")
+    private long leasesProcessed;
+
+    @Column(name = "invoices_written")
+    private long invoicesWritten;
+
+    @Column(name = "total_amount_cents")
+    private long totalAmountCents;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+}
@@ -4,12 +4,15 @@ import com.trimblecars.lease_service.enums.CarStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
 @Entity
+@Table(name = "car", indexes = @Index(name = "idx_car_last_modified", columnList = "last_modified"))
 public class Car {
 
     @Id
@@ -24,4 +27,27 @@ public class Car {
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
+
+    // WGS84 degrees; cars without a location are not offered by the nearby search
+    private Double latitude;
+
+    private Double longitude;
+
+    // Stamped on every JPA write; bulk JPQL updates must set it themselves. Lets in-memory
+    // structures restored from a snapshot catch up on the cars changed since.
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
+    public Car(Long id, String model, CarStatus status, User owner) {
+        this.id = id;
+        this.model = model;
+        this.status = status;
+        this.owner = owner;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,42 @@
+package com.trimblecars.lease_service.entity;
+
+import com.trimblecars.lease_service.enums.IdempotencyState;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted response for an Idempotency-Key, shared by all instances when
+ * trimble.idempotency.persistent is enabled. The row is inserted IN_PROGRESS before the request
+ * runs, so the primary key decides which instance executes it; the response is filled in after.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String key;
+
+    // SHA-256 of the request body; a key reused for a different request is rejected
+    @Column(length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private IdempotencyState state;
+
+    private int httpStatus;
+
+    @Lob
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.trimblecars.lease_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Charge for one lease in one billing period (calendar month). Rewritten by every run for the
+ * period, so the amount grows until the month closes. Written by the billing job with plain JDBC.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "invoice",
+        uniqueConstraints = @UniqueConstraint(name = "uk_invoice_lease_period", columnNames = {"lease_id", "billing_period"}),
+        indexes = @Index(name = "idx_invoice_customer_period", columnList = "customer_id, billing_period"))
+public class Invoice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lease_id", nullable = false)
+    private Long leaseId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // yyyy-MM
+    @Column(name = "billing_period", length = 7, nullable = false)
+    private String period;
+
+    @Column(name = "billed_through")
+    private LocalDate billedThrough;
+
+    @Column(name = "billed_days")
+    private int billedDays;
+
+    @Column(name = "amount_cents")
+    private long amountCents;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -1,5 +1,6 @@
 package com.trimblecars.lease_service.entity;
 
+import com.trimblecars.lease_service.enums.LeaseStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,6 +12,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @ToString
 @Entity
+@Table(name = "lease", indexes = {
+        // Active-lease checks read only the (few) ACTIVE entries, however long the history is
+        @Index(name = "idx_lease_customer_status", columnList = "customer_id, status"),
+        @Index(name = "idx_lease_car_status", columnList = "car_id, status")
+})
 public class Lease {
 
     @Id
@@ -25,4 +31,16 @@ public class Lease {
 
     private LocalDate startDate;
     private LocalDate endDate;
+
+    // Optional; past it (plus the grace period) the lease is overdue
+    @Column(name = "planned_end_date")
+    private LocalDate plannedEndDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private LeaseStatus status;
+
+    public Lease(Long id, Car car, User customer, LocalDate startDate, LocalDate endDate) {
+        this(id, car, customer, startDate, endDate, null, endDate == null ? LeaseStatus.ACTIVE : LeaseStatus.ENDED);
+    }
 }
@@ -0,0 +1,38 @@
+package com.trimblecars.lease_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Flat copy of each lease with the car model and customer email, so history reads and exports
+ * are single-table index scans. Written in the same transaction as the lease itself.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "lease_history_view", indexes = {
+        @Index(name = "idx_lease_history_customer", columnList = "customer_id, lease_id"),
+        @Index(name = "idx_lease_history_car", columnList = "car_id, lease_id")
+})
+public class LeaseHistoryView {
+
+    @Id
+    @Column(name = "lease_id")
+    private Long leaseId;
+
+    @Column(name = "car_id")
+    private Long carId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    private String carModel;
+    private String customerEmail;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,44 @@
+package com.trimblecars.lease_service.entity;
+
+import com.trimblecars.lease_service.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer's place in the queue for a car model. Queue order is the generated id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "waitlist_entry", indexes = {
+        @Index(name = "idx_waitlist_model_status", columnList = "model, status, id"),
+        @Index(name = "idx_waitlist_customer", columnList = "customer_id")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String model;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
+    @ToString.Exclude
+    private User customer;
+
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime assignedAt;
+
+    // Lease opened for the customer once a car was assigned
+    private Long leaseId;
+}
@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.enums;
+
+public enum AuditAction {
+    LEASE_STARTED,
+    LEASE_ENDED,
+    CAR_REGISTERED,
+    USER_REGISTERED,
+    LEASE_OVERDUE
+}
@@ -0,0 +1,7 @@
+package com.trimblecars.lease_service.enums;
+
+public enum BillingRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.trimblecars.lease_service.enums;
+
+/**
+ * Isolation compartment a request runs in; each has its own concurrency, queue and connection caps.
+ */
+public enum Bulkhead {
+    CUSTOMER,
+    OWNER,
+    ADMIN
+}
@@ -0,0 +1,6 @@
+package com.trimblecars.lease_service.enums;
+
+public enum IdempotencyState {
+    IN_PROGRESS,
+    COMPLETED
+}
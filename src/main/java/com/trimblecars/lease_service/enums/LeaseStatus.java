@@ -0,0 +1,8 @@
+package com.trimblecars.lease_service.enums;
+
+public enum LeaseStatus {
+    // Reserved for holds placed before pickup; not produced yet
+    RESERVED,
+    ACTIVE,
+    ENDED
+}
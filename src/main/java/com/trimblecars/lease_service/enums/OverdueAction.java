@@ -0,0 +1,9 @@
+package com.trimblecars.lease_service.enums;
+
+/**
+ * What happens when a lease passes its planned end date.
+ */
+public enum OverdueAction {
+    ALERT,
+    AUTO_END
+}
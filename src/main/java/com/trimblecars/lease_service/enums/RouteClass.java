@@ -0,0 +1,10 @@
+package com.trimblecars.lease_service.enums;
+
+/**
+ * Admission budget a request is charged against.
+ */
+public enum RouteClass {
+    READ,
+    WRITE,
+    EXPORT
+}
@@ -0,0 +1,20 @@
+package com.trimblecars.lease_service.exception;
+
+/**
+ * Base for exceptions that describe an expected outcome (missing resource, rule violation).
+ * They skip stack-trace capture: the code and message say everything the handler needs,
+ * and filling in a trace is the dominant cost of throwing.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected BusinessException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
@@ -1,7 +1,11 @@
 package com.trimblecars.lease_service.exception;
 
-public class BusinessRuleViolationException extends RuntimeException {
+public class BusinessRuleViolationException extends BusinessException {
     public BusinessRuleViolationException(String message) {
-        super(message);
+        super(ErrorCode.BUSINESS_RULE_VIOLATION, message);
+    }
+
+    public BusinessRuleViolationException(ErrorCode errorCode) {
+        super(errorCode, errorCode.getDefaultMessage());
     }
 }
@@ -0,0 +1,36 @@
+package com.trimblecars.lease_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable error codes returned in {@code ResponseModel.errorCode}, each with its HTTP status.
+ * Codes for expected rejections carry a preallocated message.
+ */
+public enum ErrorCode {
+    RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND, "Resource not found."),
+    RESOURCE_ALREADY_EXISTS(HttpStatus.CONFLICT, "Resource already exists."),
+    BUSINESS_RULE_VIOLATION(HttpStatus.BAD_REQUEST, "Request violates a business rule."),
+    ACTIVE_LEASE_LIMIT_REACHED(HttpStatus.BAD_REQUEST, "Customer already has 2 active leases."),
+    CAR_NOT_AVAILABLE(HttpStatus.BAD_REQUEST, "Car is not available for lease."),
+    LEASE_ALREADY_ENDED(HttpStatus.BAD_REQUEST, "Lease already ended."),
+    NOT_LEASE_OWNER(HttpStatus.FORBIDDEN, "You can only end your own lease."),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request."),
+    IDEMPOTENCY_REQUEST_IN_PROGRESS(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress."),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong!");
+
+    private final HttpStatus httpStatus;
+    private final String defaultMessage;
+
+    ErrorCode(HttpStatus httpStatus, String defaultMessage) {
+        this.httpStatus = httpStatus;
+        this.defaultMessage = defaultMessage;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    public String getDefaultMessage() {
+        return defaultMessage;
+    }
+}
@@ -0,0 +1,35 @@
+package com.trimblecars.lease_service.exception;
+
+import com.trimblecars.lease_service.model.ResponseModel;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Rejections returned as {@link ResponseModel#rejected} go out with their code's HTTP status,
+ * the same one the exception handler would use, without controllers mapping them by hand.
+ */
+@ControllerAdvice
+public class ErrorCodeStatusAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Object value = (body instanceof MappingJacksonValue container) ? container.getValue() : body;
+        if (value instanceof ResponseModel<?> model && model.getErrorCode() != null) {
+            response.setStatusCode(model.getErrorCode().getHttpStatus());
+        }
+        return body;
+    }
+}
@@ -1,38 +1,31 @@
 package com.trimblecars.lease_service.exception;
 
-import org.springframework.http.HttpStatus;
+import com.trimblecars.lease_service.model.ResponseModel;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-
+@Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Object> handleResourceNotFound(ResourceNotFoundException ex) {
-        return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
-    }
-
-    @ExceptionHandler(BusinessRuleViolationException.class)
-    public ResponseEntity<Object> handleBusinessViolation(BusinessRuleViolationException ex) {
-        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    /**
+     * ResourceNotFound (404), ResourceAlreadyExists (409) and BusinessRuleViolation (400 unless the
+     * code says otherwise) all share the ResponseModel envelope used by expected rejections.
+     */
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ResponseModel<Void>> handleBusinessException(BusinessException ex) {
+        return buildResponse(ex.getErrorCode(), ex.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleGeneric(Exception ex) {
-        return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong!");
+    public ResponseEntity<ResponseModel<Void>> handleGeneric(Exception ex) {
+        log.error("Unhandled exception", ex);
+        return buildResponse(ErrorCode.INTERNAL_ERROR, ErrorCode.INTERNAL_ERROR.getDefaultMessage());
     }
 
-    private ResponseEntity<Object> buildResponse(HttpStatus status, String message) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", status.value());
-        body.put("error", status.getReasonPhrase());
-        body.put("message", message);
-        return new ResponseEntity<>(body, status);
+    private ResponseEntity<ResponseModel<Void>> buildResponse(ErrorCode errorCode, String message) {
+        return ResponseEntity.status(errorCode.getHttpStatus()).body(ResponseModel.error(errorCode, message));
     }
 }
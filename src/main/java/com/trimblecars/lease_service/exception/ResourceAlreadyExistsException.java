@@ -1,7 +1,7 @@
 package com.trimblecars.lease_service.exception;
 
-public class ResourceAlreadyExistsException extends RuntimeException {
+public class ResourceAlreadyExistsException extends BusinessException {
     public ResourceAlreadyExistsException(String message) {
-        super(message);
+        super(ErrorCode.RESOURCE_ALREADY_EXISTS, message);
     }
 }
@@ -0,0 +1,93 @@
+package com.trimblecars.lease_service.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.enums.Bulkhead;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.BulkheadService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs each API request inside its route's bulkhead; a full compartment answers 503 with that
+ * compartment's Retry-After instead of taking a servlet thread from the others. An async request
+ * keeps its slot until it completes, not just until its first dispatch returns.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final BulkheadService bulkheadService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = classify(request.getRequestURI());
+        if (!bulkheadService.enter(bulkhead)) {
+            log.debug("Rejecting request: {} bulkhead is full", bulkhead);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkheadService.limits(bulkhead).retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ResponseModel.failure("Server is busy. Please retry later.", null));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkheadService.detach()));
+            } else {
+                bulkheadService.exit();
+            }
+        }
+    }
+
+    static Bulkhead classify(String uri) {
+        if (uri.startsWith("/api/customers/")) {
+            return Bulkhead.CUSTOMER;
+        }
+        if (uri.startsWith("/api/owners/")) {
+            return Bulkhead.OWNER;
+        }
+        return Bulkhead.ADMIN;
+    }
+
+    /**
+     * Gives the slot back when the async request completes; the container completes it after an
+     * error or timeout as well.
+     */
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new async cycle drops the registered listeners
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.trimblecars.lease_service.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.enums.RouteClass;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.service.RateLimiterService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds customer/owner traffic before it reaches the database: first the caller's own
+ * token bucket, then the global in-flight limit. Rejections are 429 with Retry-After.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiterService rateLimiterService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String uri = request.getRequestURI();
+        long waitNanos = rateLimiterService.tryAcquire(classify(request.getMethod(), uri), clientKey(request, uri));
+        if (waitNanos > 0) {
+            reject(response, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1, "Rate limit exceeded. Please retry later.");
+            return;
+        }
+
+        if (!rateLimiterService.tryEnter()) {
+            reject(response, 1, "Server is busy. Please retry later.");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            rateLimiterService.exit();
+        }
+    }
+
+    static RouteClass classify(String method, String uri) {
+        if (uri.contains("/export")) {
+            return RouteClass.EXPORT;
+        }
+        return "GET".equals(method) ? RouteClass.READ : RouteClass.WRITE;
+    }
+
+    /**
+     * Uses the customer/owner id from /api/{customers|owners}/{id}/..., falling back to the remote address.
+     */
+    static String clientKey(HttpServletRequest request, String uri) {
+        // "/api/customers/".length() == 15, "/api/owners/".length() == 12
+        int start = uri.startsWith("/api/customers/") ? 15 : uri.startsWith("/api/owners/") ? 12 : -1;
+        if (start > 0) {
+            int end = start;
+            while (end < uri.length() && Character.isDigit(uri.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                return uri.substring(0, end);
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        log.debug("Rejecting request: {}", message);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ResponseModel.failure(message, null));
+    }
+}
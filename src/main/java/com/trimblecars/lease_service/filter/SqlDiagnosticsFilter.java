@@ -0,0 +1,111 @@
+package com.trimblecars.lease_service.filter;
+
+import com.trimblecars.lease_service.service.SqlDiagnosticsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects SQL statistics for each API request and reports them in X-SQL-* response headers.
+ * The body is buffered so the headers can still be set once the handler has finished. Routes that
+ * stream their body (exports, NDJSON and event streams) are not buffered; their statistics go to
+ * the log and the slow log only.
+ * <p>
+ * An async request is measured from its first dispatch to the dispatch that completes it; the
+ * buffered body is copied out only then, since the async dispatch writes into the same wrapper.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlDiagnosticsFilter extends OncePerRequestFilter {
+
+    // Buffering these would hold a whole export or stream in memory before the first byte is sent
+    private static final List<String> STREAMED_PATHS = List.of(
+            "/api/admin/leases/export", "/api/customers/cars/stream", "/api/customers/*/leases/stream");
+    private static final List<String> STREAMED_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE);
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final String PENDING_ATTRIBUTE = SqlDiagnosticsFilter.class.getName() + ".PENDING";
+
+    private final SqlDiagnosticsService sqlDiagnosticsService;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Pending pending;
+        HttpServletResponse target;
+        if (isAsyncDispatch(request)) {
+            pending = (Pending) request.getAttribute(PENDING_ATTRIBUTE);
+            if (pending == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            request.removeAttribute(PENDING_ATTRIBUTE);
+            sqlDiagnosticsService.resume(pending.stats());
+            // Already the wrapper, or a response wrapping it
+            target = response;
+        } else {
+            ContentCachingResponseWrapper wrapper = isStreamed(request) ? null : new ContentCachingResponseWrapper(response);
+            pending = new Pending(sqlDiagnosticsService.begin(), System.nanoTime(), wrapper);
+            target = wrapper != null ? wrapper : response;
+        }
+
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            if (request.isAsyncStarted()) {
+                sqlDiagnosticsService.suspend();
+                request.setAttribute(PENDING_ATTRIBUTE, pending);
+            } else {
+                complete(request, pending);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, Pending pending) throws IOException {
+        SqlDiagnosticsService.RequestSqlStats stats = pending.stats();
+        long elapsed = System.nanoTime() - pending.startNanos();
+        sqlDiagnosticsService.end(request.getMethod() + " " + request.getRequestURI(), elapsed, stats);
+
+        long dbMs = TimeUnit.NANOSECONDS.toMillis(stats.getDbNanos());
+        ContentCachingResponseWrapper wrapper = pending.wrapper();
+        if (wrapper != null) {
+            wrapper.setHeader("X-SQL-Statements", String.valueOf(stats.getStatements()));
+            wrapper.setHeader("X-SQL-Rows", String.valueOf(stats.getRowsFetched()));
+            wrapper.setHeader("X-SQL-Time-Ms", String.valueOf(dbMs));
+            wrapper.copyBodyToResponse();
+        } else {
+            log.debug("{} {}: {} SQL statements, {} rows, {} ms in the database", request.getMethod(),
+                    request.getRequestURI(), stats.getStatements(), stats.getRowsFetched(), dbMs);
+        }
+    }
+
+    static boolean isStreamed(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && STREAMED_TYPES.stream().anyMatch(accept::contains)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return STREAMED_PATHS.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    private record Pending(SqlDiagnosticsService.RequestSqlStats stats, long startNanos,
+                           ContentCachingResponseWrapper wrapper) {
+    }
+}
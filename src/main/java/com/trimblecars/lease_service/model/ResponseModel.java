@@ -1,5 +1,7 @@
 package com.trimblecars.lease_service.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.trimblecars.lease_service.exception.ErrorCode;
 import lombok.*;
 import java.time.LocalDateTime;
 
@@ -12,6 +14,9 @@ public class ResponseModel<T> {
     private T data;              // Generic payload
     private LocalDateTime timestamp = LocalDateTime.now();
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ErrorCode errorCode; // Set on rejections; also decides the HTTP status
+
     public ResponseModel(String status, String message, T data) {
         this.status = status;
         this.message = message;
@@ -26,4 +31,17 @@ public class ResponseModel<T> {
     public static <T> ResponseModel<T> failure(String message, T data) {
         return new ResponseModel<>("FAILURE", message, data);
     }
+
+    public static <T> ResponseModel<T> error(ErrorCode errorCode, String message) {
+        ResponseModel<T> model = new ResponseModel<>("FAILURE", message, null);
+        model.setErrorCode(errorCode);
+        return model;
+    }
+
+    /**
+     * Expected business rejection returned as a value instead of thrown.
+     */
+    public static <T> ResponseModel<T> rejected(ErrorCode errorCode) {
+        return error(errorCode, errorCode.getDefaultMessage());
+    }
 }
@@ -0,0 +1,18 @@
+package com.trimblecars.lease_service.repository;
+
+import com.trimblecars.lease_service.entity.BillingRun;
+import com.trimblecars.lease_service.enums.BillingRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BillingRunRepository extends JpaRepository<BillingRun, Long> {
+
+    Optional<BillingRun> findFirstByRunDateAndDryRunFalseAndStatusInOrderByIdDesc(LocalDate runDate,
+                                                                                  Collection<BillingRunStatus> statuses);
+
+    List<BillingRun> findTop20ByOrderByIdDesc();
+}
@@ -1,12 +1,109 @@
 package com.trimblecars.lease_service.repository;
 
+import com.trimblecars.lease_service.dto.CarLocationChangeRow;
+import com.trimblecars.lease_service.dto.CarLocationRow;
+import com.trimblecars.lease_service.dto.CarStatusRow;
+import com.trimblecars.lease_service.dto.CarSummaryRow;
+import com.trimblecars.lease_service.dto.CarTransitionRow;
+import com.trimblecars.lease_service.dto.OwnerCarLeaseRow;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.enums.CarStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+@Transactional(readOnly = true)
 public interface CarRepository extends JpaRepository<Car, Long> {
     List<Car> findByStatus(CarStatus status);
     List<Car> findByOwnerId(Long ownerId);
+    boolean existsByModelAndStatus(String model, CarStatus status);
+
+    @Query("select new com.trimblecars.lease_service.dto.OwnerCarLeaseRow(c.id, c.model, c.status, l.id, u.email, l.startDate) " +
+            "from Car c left join Lease l on l.car = c and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE left join l.customer u " +
+            "where c.owner.id = :ownerId order by c.id")
+    List<OwnerCarLeaseRow> findOwnerCarsWithOpenLease(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.trimblecars.lease_service.dto.CarSummaryRow(c.id, c.model, c.status, o.email) " +
+            "from Car c left join c.owner o where c.id in :ids")
+    List<CarSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.trimblecars.lease_service.dto.CarLocationRow(c.id, c.latitude, c.longitude) " +
+            "from Car c where c.status = :status and c.latitude is not null and c.longitude is not null")
+    List<CarLocationRow> findLocationsByStatus(@Param("status") CarStatus status);
+
+    @Query("select new com.trimblecars.lease_service.dto.CarLocationChangeRow(c.id, c.status, c.latitude, c.longitude) " +
+            "from Car c where c.lastModified >= :since")
+    List<CarLocationChangeRow> findLocationChangesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Claims an IDLE car for a new lease; returns 0 when a concurrent start, or a service
+     * transition, took the car first.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Car c set c.status = com.trimblecars.lease_service.enums.CarStatus.ON_LEASE, c.lastModified = :now " +
+            "where c.id = :id and c.status = com.trimblecars.lease_service.enums.CarStatus.IDLE")
+    int claimIfIdle(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // -------- Reconciliation of Car.status against ACTIVE leases --------
+
+    @Query("select c.id from Car c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable page);
+
+    @Query("select c.id from Car c where c.id > :afterId and c.id <= :toId " +
+            "and c.status = com.trimblecars.lease_service.enums.CarStatus.ON_LEASE " +
+            "and not exists (select l.id from Lease l where l.car = c and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE)")
+    List<Long> findOnLeaseWithoutActiveLease(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    @Query("select new com.trimblecars.lease_service.dto.CarStatusRow(c.id, c.status) from Car c " +
+            "where c.id > :afterId and c.id <= :toId " +
+            "and c.status <> com.trimblecars.lease_service.enums.CarStatus.ON_LEASE " +
+            "and exists (select l.id from Lease l where l.car = c and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE)")
+    List<CarStatusRow> findNotOnLeaseWithActiveLease(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    @Query("select l.car.id from Lease l where l.car.id > :afterId and l.car.id <= :toId " +
+            "and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE " +
+            "group by l.car.id having count(l) > 1")
+    List<Long> findWithMultipleActiveLeases(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    // Conditions are re-checked in the update, so a lease started or ended since the scan wins
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Car c set c.status = com.trimblecars.lease_service.enums.CarStatus.IDLE, c.lastModified = :now " +
+            "where c.id in :ids and c.status = com.trimblecars.lease_service.enums.CarStatus.ON_LEASE " +
+            "and not exists (select l.id from Lease l where l.car = c and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE)")
+    int releaseCarsWithoutActiveLease(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Car c set c.status = com.trimblecars.lease_service.enums.CarStatus.ON_LEASE, c.lastModified = :now " +
+            "where c.id in :ids and c.status = com.trimblecars.lease_service.enums.CarStatus.IDLE " +
+            "and exists (select l.id from Lease l where l.car = c and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE)")
+    int markCarsWithActiveLease(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // -------- Bulk service (maintenance) transitions --------
+
+    @Query("select new com.trimblecars.lease_service.dto.CarTransitionRow(c.id, c.status, c.owner.id, c.latitude, c.longitude) " +
+            "from Car c where c.id in :ids and (:ownerId is null or c.owner.id = :ownerId)")
+    List<CarTransitionRow> findTransitionRowsByIdIn(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    @Query("select new com.trimblecars.lease_service.dto.CarTransitionRow(c.id, c.status, c.owner.id, c.latitude, c.longitude) " +
+            "from Car c where (:ownerId is null or c.owner.id = :ownerId) and (:model is null or c.model = :model) order by c.id")
+    List<CarTransitionRow> findTransitionRows(@Param("ownerId") Long ownerId, @Param("model") String model);
+
+    // Only cars still in the expected status move, so a lease started since the scan wins
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Car c set c.status = :to, c.lastModified = :now where c.id in :ids and c.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids,
+                         @Param("from") CarStatus from,
+                         @Param("to") CarStatus to,
+                         @Param("now") LocalDateTime now);
 }
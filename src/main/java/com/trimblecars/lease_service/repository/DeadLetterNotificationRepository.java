@@ -0,0 +1,11 @@
+package com.trimblecars.lease_service.repository;
+
+import com.trimblecars.lease_service.entity.DeadLetterNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface DeadLetterNotificationRepository extends JpaRepository<DeadLetterNotification, Long> {
+
+    List<DeadLetterNotification> findTop100ByOrderByIdDesc();
+}
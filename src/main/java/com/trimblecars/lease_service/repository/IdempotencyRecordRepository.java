@@ -0,0 +1,62 @@
+package com.trimblecars.lease_service.repository;
+
+import com.trimblecars.lease_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Read-write so a replayed key is looked up on the primary, never on a lagging replica
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String key);
+
+    /**
+     * Claims the key for this execution; a duplicate key fails with a constraint violation.
+     */
+    @Modifying
+    @Transactional
+    @Query("insert into IdempotencyRecord (key, requestHash, state, httpStatus, createdAt) " +
+            "values (:key, :requestHash, com.trimblecars.lease_service.enums.IdempotencyState.IN_PROGRESS, 0, :createdAt)")
+    int insertInProgress(@Param("key") String key,
+                         @Param("requestHash") String requestHash,
+                         @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.state = com.trimblecars.lease_service.enums.IdempotencyState.COMPLETED, " +
+            "r.httpStatus = :httpStatus, r.responseBody = :responseBody " +
+            "where r.key = :key and r.state = com.trimblecars.lease_service.enums.IdempotencyState.IN_PROGRESS")
+    int complete(@Param("key") String key,
+                 @Param("httpStatus") int httpStatus,
+                 @Param("responseBody") String responseBody);
+
+    // Failed executions are not remembered, so the key is free for a retry
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.key = :key " +
+            "and r.state = com.trimblecars.lease_service.enums.IdempotencyState.IN_PROGRESS")
+    int release(@Param("key") String key);
+
+    /**
+     * Frees a key whose record has expired, or whose execution was abandoned (its instance died).
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.key = :key and (r.createdAt < :expiredBefore " +
+            "or (r.state = com.trimblecars.lease_service.enums.IdempotencyState.IN_PROGRESS and r.createdAt < :abandonedBefore))")
+    int deleteIfExpired(@Param("key") String key,
+                        @Param("expiredBefore") LocalDateTime expiredBefore,
+                        @Param("abandonedBefore") LocalDateTime abandonedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,60 @@
+package com.trimblecars.lease_service.repository;
+
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.entity.LeaseHistoryView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface LeaseHistoryViewRepository extends JpaRepository<LeaseHistoryView, Long> {
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseResponseDTO(v.leaseId, v.carModel, v.customerEmail, v.startDate, v.endDate) " +
+            "from LeaseHistoryView v where v.customerId = :customerId order by v.leaseId")
+    List<LeaseResponseDTO> findResponsesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseResponseDTO(v.leaseId, v.carModel, v.customerEmail, v.startDate, v.endDate) " +
+            "from LeaseHistoryView v where v.carId = :carId order by v.leaseId")
+    List<LeaseResponseDTO> findResponsesByCarId(@Param("carId") Long carId);
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseResponseDTO(v.leaseId, v.carModel, v.customerEmail, v.startDate, v.endDate) " +
+            "from LeaseHistoryView v order by v.leaseId")
+    List<LeaseResponseDTO> findAllResponses();
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseResponseDTO(v.leaseId, v.carModel, v.customerEmail, v.startDate, v.endDate) " +
+            "from LeaseHistoryView v where v.leaseId between :fromId and :toId order by v.leaseId")
+    List<LeaseResponseDTO> findResponsesInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("select min(v.leaseId) from LeaseHistoryView v")
+    Long findMinLeaseId();
+
+    @Query("select max(v.leaseId) from LeaseHistoryView v")
+    Long findMaxLeaseId();
+
+    @Transactional
+    @Modifying
+    @Query("update LeaseHistoryView v set v.endDate = :endDate where v.leaseId = :leaseId")
+    int updateEndDate(@Param("leaseId") Long leaseId, @Param("endDate") LocalDate endDate);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LeaseHistoryView v where v.leaseId between :fromId and :toId")
+    int deleteRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LeaseHistoryView v where v.leaseId < :minId or v.leaseId > :maxId")
+    int deleteOutside(@Param("minId") Long minId, @Param("maxId") Long maxId);
+
+    @Transactional
+    @Modifying
+    @Query("insert into LeaseHistoryView (leaseId, carId, customerId, carModel, customerEmail, startDate, endDate) " +
+            "select l.id, c.id, u.id, c.model, u.email, l.startDate, l.endDate " +
+            "from Lease l join l.car c join l.customer u where l.id between :fromId and :toId")
+    int insertRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
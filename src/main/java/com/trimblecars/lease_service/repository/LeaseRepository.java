@@ -1,12 +1,80 @@
 package com.trimblecars.lease_service.repository;
 
+import com.trimblecars.lease_service.dto.CarLeasedDaysRow;
+import com.trimblecars.lease_service.dto.CustomerCountRow;
+import com.trimblecars.lease_service.dto.LeaseDeadlineRow;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
 import com.trimblecars.lease_service.entity.Lease;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+@Transactional(readOnly = true)
 public interface LeaseRepository extends JpaRepository<Lease, Long> {
     List<Lease> findByCustomerId(Long customerId);
     List<Lease> findByCarId(Long carId);
-    long countByCustomerIdAndEndDateIsNull(Long customerId);
+
+    @Query("select count(l) from Lease l where l.customer.id = :customerId " +
+            "and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE")
+    long countActiveByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("select new com.trimblecars.lease_service.dto.CustomerCountRow(l.customer.id, count(l)) from Lease l " +
+            "where l.customer.id in :customerIds and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE " +
+            "group by l.customer.id")
+    List<CustomerCountRow> countActiveByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
+
+    /**
+     * Derives status from the end date for leases written before the column existed, one id range at a time.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Lease l set l.status = case when l.endDate is null " +
+            "then com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE " +
+            "else com.trimblecars.lease_service.enums.LeaseStatus.ENDED end " +
+            "where l.status is null and l.id between :fromId and :toId")
+    int backfillStatus(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Ends the lease only while it is still ACTIVE; 0 means a concurrent request ended it first.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Lease l set l.status = com.trimblecars.lease_service.enums.LeaseStatus.ENDED, " +
+            "l.endDate = :endDate " +
+            "where l.id = :id and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE")
+    int endIfActive(@Param("id") Long id, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Leased days per car of an owner; open leases count up to {@code asOf}.
+     */
+    @Query("select new com.trimblecars.lease_service.dto.CarLeasedDaysRow(l.car.id, " +
+            "cast(sum((coalesce(l.endDate, :asOf) - l.startDate) by day) as Long)) " +
+            "from Lease l where l.car.owner.id = :ownerId group by l.car.id")
+    List<CarLeasedDaysRow> sumLeasedDaysByCarForOwner(@Param("ownerId") Long ownerId, @Param("asOf") LocalDate asOf);
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseResponseDTO(l.id, c.model, u.email, l.startDate, l.endDate) " +
+            "from Lease l join l.car c join l.customer u where l.id in :ids")
+    List<LeaseResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.trimblecars.lease_service.dto.LeaseDeadlineRow(l.id, l.plannedEndDate) from Lease l " +
+            "where l.id > :afterId and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE " +
+            "and l.plannedEndDate is not null order by l.id")
+    List<LeaseDeadlineRow> findOpenDeadlinesAfter(@Param("afterId") long afterId, Pageable page);
+
+    @Query("select l from Lease l join fetch l.car c left join fetch c.owner join fetch l.customer " +
+            "where l.id in :ids and l.status = com.trimblecars.lease_service.enums.LeaseStatus.ACTIVE")
+    List<Lease> findActiveByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select min(l.id) from Lease l")
+    Long findMinId();
+
+    @Query("select max(l.id) from Lease l")
+    Long findMaxId();
 }
@@ -0,0 +1,56 @@
+package com.trimblecars.lease_service.repository;
+
+import com.trimblecars.lease_service.entity.WaitlistEntry;
+import com.trimblecars.lease_service.enums.WaitlistStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByCustomerIdOrderByIdDesc(Long customerId);
+
+    boolean existsByCustomerIdAndModelAndStatus(Long customerId, String model, WaitlistStatus status);
+
+    long countByModelAndStatusAndIdLessThan(String model, WaitlistStatus status, Long id);
+
+    /**
+     * Next waiting entries of a model after {@code afterId}, in queue order (keyset page).
+     */
+    @Query("select w from WaitlistEntry w join fetch w.customer " +
+            "where w.model = :model and w.status = com.trimblecars.lease_service.enums.WaitlistStatus.WAITING " +
+            "and w.id > :afterId order by w.id")
+    List<WaitlistEntry> findWaitingAfter(@Param("model") String model, @Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Claims a waiting entry; returns 0 when another transaction claimed or cancelled it first.
+     */
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = com.trimblecars.lease_service.enums.WaitlistStatus.ASSIGNED, " +
+            "w.assignedAt = :now where w.id = :id and w.status = com.trimblecars.lease_service.enums.WaitlistStatus.WAITING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Returns a claimed entry to the queue when the car it was claimed for went elsewhere.
+     */
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = com.trimblecars.lease_service.enums.WaitlistStatus.WAITING, " +
+            "w.assignedAt = null where w.id = :id and w.status = com.trimblecars.lease_service.enums.WaitlistStatus.ASSIGNED " +
+            "and w.leaseId is null")
+    int unclaim(@Param("id") Long id);
+
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = com.trimblecars.lease_service.enums.WaitlistStatus.CANCELLED " +
+            "where w.id = :id and w.customer.id = :customerId " +
+            "and w.status = com.trimblecars.lease_service.enums.WaitlistStatus.WAITING")
+    int cancel(@Param("id") Long id, @Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("update WaitlistEntry w set w.leaseId = :leaseId where w.id = :id")
+    int setLeaseId(@Param("id") Long id, @Param("leaseId") Long leaseId);
+}
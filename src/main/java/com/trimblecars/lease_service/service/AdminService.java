@@ -1,9 +1,10 @@
 package com.trimblecars.lease_service.service;
 
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
 import com.trimblecars.lease_service.dto.UserRequestDTO;
 import com.trimblecars.lease_service.dto.UserResponseDTO;
-import com.trimblecars.lease_service.entity.Lease;
 import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.ExportFormat;
 import com.trimblecars.lease_service.enums.UserRole;
 import com.trimblecars.lease_service.model.ResponseModel;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,7 +23,6 @@ import com.lowagie.text.pdf.PdfWriter;
 
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -35,6 +35,7 @@ public class AdminService {
     private final UserService userService;
     private final CarService carService;
     private final LeaseService leaseService;
+    private final LeaseExportService leaseExportService;
 
     // --- USER MANAGEMENT ---
 
@@ -70,7 +71,7 @@ public class AdminService {
             return ResponseEntity.ok(ResponseModel.failure("User already exists with this email.", responseDTO));
         }
 
-        log.info("[Admin] Registering new user: {}", dto.getEmail());
+        log.debug("[Admin] Registering new user: {}", dto.getEmail());
 
         User user = new User();
         user.setName(dto.getName());
@@ -88,29 +89,17 @@ public class AdminService {
         return ResponseEntity.ok(ResponseModel.success("User registered successfully.", response));
     }
 
-    public void exportAsCsv(HttpServletResponse response) throws IOException {
-        response.setContentType("text/csv");
-        response.setHeader("Content-Disposition", "attachment; filename=lease-history.csv");
+    public void exportLeases(ExportFormat format, boolean gzip, HttpServletResponse response) throws IOException {
+        String filename = "lease-history." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + filename);
 
-        List<Lease> leases = leaseService.getAllLeases();
-
-        try (PrintWriter writer = response.getWriter()) {
-            writer.println("LeaseID,CarModel,CustomerEmail,StartDate,EndDate");
-
-            for (Lease lease : leases) {
-                writer.printf("%d,%s,%s,%s,%s\n",
-                        lease.getId(),
-                        lease.getCar().getModel(),
-                        lease.getCustomer().getEmail(),
-                        lease.getStartDate(),
-                        lease.getEndDate() != null ? lease.getEndDate() : "ONGOING"
-                );
-            }
-        }
+        leaseExportService.export(format, gzip, response.getOutputStream());
     }
 
 
-    public void exportAsPdf(List<Lease> leases, HttpServletResponse response) throws IOException {
+    public void exportAsPdf(List<LeaseResponseDTO> leases, HttpServletResponse response) throws IOException {
         response.setContentType("application/pdf");
         response.setHeader("Content-Disposition", "attachment; filename=lease-history.pdf");
 
@@ -125,11 +114,11 @@ public class AdminService {
         document.add(new Paragraph("Generated: " + LocalDateTime.now()));
         document.add(Chunk.NEWLINE);
 
-        for (Lease lease : leases) {
+        for (LeaseResponseDTO lease : leases) {
             String line = String.format("Lease ID: %d | Car: %s | Customer: %s | Start: %s | End: %s",
-                    lease.getId(),
-                    lease.getCar().getModel(),
-                    lease.getCustomer().getEmail(),
+                    lease.getLeaseId(),
+                    lease.getCarModel(),
+                    lease.getCustomerEmail(),
                     lease.getStartDate(),
                     lease.getEndDate() != null ? lease.getEndDate() : "ONGOING");
             document.add(new Paragraph(line, bodyFont));
@@ -0,0 +1,190 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.enums.AuditAction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail for lease, car and user mutations. Callers publish fixed-layout events into a
+ * {@link AuditRingBuffer}; a single background thread drains them in batches to
+ * {@code <dir>/audit.log}, rolling the file once it reaches the configured size.
+ * <p>
+ * Line format: {@code <epoch-ms>|<ISO instant>|<action>|actor=<id>|entity=<id>|ref=<id>}, where
+ * 0 means "not applicable".
+ */
+@Slf4j
+@Service
+public class AuditLogService {
+
+    static final String FILE_NAME = "audit.log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final int batchSize;
+    private final AuditRingBuffer ring;
+
+    private final StringBuilder line = new StringBuilder(256);
+    private OutputStream out;
+    private long currentFileBytes;
+    private volatile boolean running;
+    private Thread drainer;
+
+    public AuditLogService(@Value("${trimble.audit.enabled:true}") boolean enabled,
+                           @Value("${trimble.audit.directory:logs/audit}") String directory,
+                           @Value("${trimble.audit.buffer-size:8192}") int bufferSize,
+                           @Value("${trimble.audit.batch-size:512}") int batchSize,
+                           @Value("${trimble.audit.max-file-bytes:10485760}") long maxFileBytes,
+                           @Value("${trimble.audit.max-files:10}") int maxFiles) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.batchSize = batchSize;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.ring = new AuditRingBuffer(bufferSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drainLoop, "audit-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Publishes the event once the surrounding transaction commits, or immediately when there is none.
+     */
+    public void record(AuditAction action, Long actorId, Long entityId, Long relatedId) {
+        if (!enabled) {
+            return;
+        }
+        long actor = actorId != null ? actorId : 0;
+        long entity = entityId != null ? entityId : 0;
+        long related = relatedId != null ? relatedId : 0;
+        TransactionHooks.afterCommit(() -> ring.publish(action, actor, entity, related));
+    }
+
+    public long getDroppedEvents() {
+        return ring.getDropped();
+    }
+
+    /**
+     * Writes everything currently in the ring and flushes. Only called from the drain thread, or
+     * directly in tests when the thread is not running.
+     */
+    int drainOnce() throws IOException {
+        int total = 0;
+        int drained;
+        do {
+            drained = ring.drain(batchSize, this::append);
+            total += drained;
+        } while (drained == batchSize);
+        if (total > 0) {
+            out.flush();
+        }
+        return total;
+    }
+
+    private void drainLoop() {
+        try {
+            open();
+            while (running) {
+                if (drainOnce() == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+                }
+            }
+            drainOnce();
+        } catch (IOException | UncheckedIOException ex) {
+            log.error("Audit log writer stopped: {}", ex.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void append(long timestamp, AuditAction action, long actorId, long entityId, long relatedId) {
+        line.setLength(0);
+        line.append(timestamp).append('|')
+                .append(Instant.ofEpochMilli(timestamp)).append('|')
+                .append(action.name())
+                .append("|actor=").append(actorId)
+                .append("|entity=").append(entityId)
+                .append("|ref=").append(relatedId)
+                .append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.US_ASCII);
+        try {
+            if (currentFileBytes + bytes.length > maxFileBytes) {
+                roll();
+            }
+            out.write(bytes);
+            currentFileBytes += bytes.length;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_NAME);
+        currentFileBytes = Files.exists(file) ? Files.size(file) : 0;
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = directory.resolve(FILE_NAME + "." + i);
+            if (Files.exists(source)) {
+                Files.move(source, directory.resolve(FILE_NAME + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(directory.resolve(FILE_NAME), directory.resolve(FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException ex) {
+            log.warn("Could not close audit log: {}", ex.getMessage());
+        }
+        out = null;
+    }
+}
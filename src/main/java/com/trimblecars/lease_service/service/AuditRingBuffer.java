@@ -0,0 +1,98 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.enums.AuditAction;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Preallocated multi-producer / single-consumer ring of fixed-layout audit events.
+ * Producers claim a sequence with one CAS and write primitive fields in place, so publishing an
+ * event allocates nothing; when the consumer falls a full ring behind, new events are dropped
+ * and counted rather than blocking the request.
+ */
+public class AuditRingBuffer {
+
+    private final int mask;
+    private final long[] timestamps;
+    private final AuditAction[] actions;
+    private final long[] actorIds;
+    private final long[] entityIds;
+    private final long[] relatedIds;
+    // Sequence each slot was last published for; the consumer waits until it matches
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.timestamps = new long[size];
+        this.actions = new AuditAction[size];
+        this.actorIds = new long[size];
+        this.entityIds = new long[size];
+        this.relatedIds = new long[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    public boolean publish(AuditAction action, long actorId, long entityId, long relatedId) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.currentTimeMillis();
+        actions[slot] = action;
+        actorIds[slot] = actorId;
+        entityIds[slot] = entityId;
+        relatedIds[slot] = relatedId;
+        published.set(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to the consumer, in sequence order. Single consumer only.
+     *
+     * @return number of events drained
+     */
+    public int drain(int max, AuditEventConsumer consumer) {
+        long next = consumed.get();
+        int count = 0;
+        while (count < max) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break;
+            }
+            consumer.accept(timestamps[slot], actions[slot], actorIds[slot], entityIds[slot], relatedIds[slot]);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumed.set(next);
+        }
+        return count;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @FunctionalInterface
+    public interface AuditEventConsumer {
+        void accept(long timestamp, AuditAction action, long actorId, long entityId, long relatedId);
+    }
+}
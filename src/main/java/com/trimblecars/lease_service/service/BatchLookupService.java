@@ -0,0 +1,121 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.BatchGetResponseDTO;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.CarSummaryRow;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.dto.UserResponseDTO;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import com.trimblecars.lease_service.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Resolves many ids per call with chunked IN queries over projections, keeping request order
+ * and reporting the ids that do not exist.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchLookupService {
+
+    static final int MAX_IDS = 5_000;
+    static final int CHUNK_SIZE = 1_000;
+
+    private final CarRepository carRepository;
+    private final UserRepository userRepository;
+    private final LeaseRepository leaseRepository;
+
+    public ResponseModel<BatchGetResponseDTO<CarResponseDTO>> getCars(List<Long> ids) {
+        log.debug("Batch fetching {} cars", ids != null ? ids.size() : 0);
+        return resolve(ids, chunk -> carRepository.findSummariesByIdIn(chunk).stream()
+                .map(this::mapToCarResponseDTO)
+                .toList(), CarResponseDTO::getId);
+    }
+
+    public ResponseModel<BatchGetResponseDTO<UserResponseDTO>> getUsers(List<Long> ids) {
+        log.debug("Batch fetching {} users", ids != null ? ids.size() : 0);
+        // User has no associations, so the entity query is already a single flat select
+        return resolve(ids, chunk -> userRepository.findAllById(chunk).stream()
+                .map(this::mapToUserResponseDTO)
+                .toList(), UserResponseDTO::getId);
+    }
+
+    public ResponseModel<BatchGetResponseDTO<LeaseResponseDTO>> getLeases(List<Long> ids) {
+        log.debug("Batch fetching {} leases", ids != null ? ids.size() : 0);
+        return resolve(ids, leaseRepository::findResponsesByIdIn, LeaseResponseDTO::getLeaseId);
+    }
+
+    private <T> ResponseModel<BatchGetResponseDTO<T>> resolve(List<Long> ids,
+                                                              Function<List<Long>, List<T>> loader,
+                                                              Function<T, Long> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessRuleViolationException("At least one id must be provided.");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new BusinessRuleViolationException("At most " + MAX_IDS + " ids can be fetched per request.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BusinessRuleViolationException("Ids must not be null.");
+        }
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, T> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()));
+            for (T item : loader.apply(chunk)) {
+                found.put(idOf.apply(item), item);
+            }
+        }
+
+        List<T> items = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            if (!found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        for (Long id : ids) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+
+        String message = missing.isEmpty()
+                ? "All requested records fetched successfully."
+                : missing.size() + " of the requested ids were not found.";
+        return ResponseModel.success(message, new BatchGetResponseDTO<>(items, missing));
+    }
+
+    private CarResponseDTO mapToCarResponseDTO(CarSummaryRow row) {
+        CarResponseDTO dto = new CarResponseDTO();
+        dto.setId(row.id());
+        dto.setModel(row.model());
+        dto.setStatus(row.status() != null ? row.status().name() : null);
+        dto.setOwnerEmail(row.ownerEmail());
+        return dto;
+    }
+
+    private UserResponseDTO mapToUserResponseDTO(User user) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setRole(user.getRole() != null ? user.getRole().name() : null);
+        return dto;
+    }
+}
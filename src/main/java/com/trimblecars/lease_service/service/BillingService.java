@@ -0,0 +1,408 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.BillingRunDTO;
+import com.trimblecars.lease_service.entity.BillingRun;
+import com.trimblecars.lease_service.enums.BillingRunStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.BillingRunRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nightly billing. For the calendar month containing the run date, every lease overlapping the
+ * month is charged {@code trimble.billing.daily-rate-cents} per day: from its start (or the first
+ * of the month) up to its end date, or through the run date while still open. A lease started and
+ * ended on the same day is charged one day.
+ * <p>
+ * Leases are read in id-keyset chunks straight into primitive arrays (no entities), charged on a
+ * fork-join pool, and written to the invoice table as one JDBC batch MERGE per chunk, keyed by
+ * (lease, period), in the same transaction as the run's checkpoint. A failed or interrupted run
+ * for the same date resumes after its last committed chunk. Dry runs compute and report totals
+ * without writing invoices.
+ */
+@Slf4j
+@Service
+public class BillingService {
+
+    static final int OPEN = Integer.MIN_VALUE;
+    private static final int FORK_THRESHOLD = 4_096;
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String READ_CHUNK_SQL =
+            "select id, customer_id, start_date, end_date from lease " +
+            "where id > ? and start_date <= ? and (end_date is null or end_date >= ?) " +
+            "order by id fetch first ? rows only";
+    private static final String COUNT_SQL =
+            "select count(*) from lease where id > ? and start_date <= ? and (end_date is null or end_date >= ?)";
+    private static final String MERGE_INVOICE_SQL =
+            "merge into invoice (lease_id, customer_id, billing_period, billed_through, billed_days, amount_cents, computed_at) " +
+            "key (lease_id, billing_period) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINT_SQL =
+            "update billing_run set last_lease_id = ?, leases_processed = ?, invoices_written = ?, " +
+            "total_amount_cents = ? where id = ?";
+
+    private final BillingRunRepository runRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long dailyRateCents;
+    private final int chunkSize;
+    private final boolean scheduled;
+    private final ForkJoinPool computePool;
+    private final ExecutorService runner;
+
+    private final AtomicReference<RunProgress> current = new AtomicReference<>();
+
+    public BillingService(BillingRunRepository runRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${trimble.billing.daily-rate-cents:5000}") long dailyRateCents,
+                          @Value("${trimble.billing.chunk-size:10000}") int chunkSize,
+                          @Value("${trimble.billing.parallelism:0}") int parallelism,
+                          @Value("${trimble.billing.scheduled:true}") boolean scheduled) {
+        this.runRepository = runRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dailyRateCents = dailyRateCents;
+        this.chunkSize = chunkSize;
+        this.scheduled = scheduled;
+        this.computePool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "billing-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${trimble.billing.cron:0 30 1 * * *}")
+    public void nightlyRun() {
+        if (!scheduled || current.get() != null) {
+            return;
+        }
+        startRun(nightlyRunDate(LocalDate.now()), false);
+    }
+
+    /**
+     * The nightly run bills through yesterday, the last complete day. On the 1st that is the last
+     * day of the previous month, so the month is closed with all its days charged.
+     */
+    static LocalDate nightlyRunDate(LocalDate today) {
+        return today.minusDays(1);
+    }
+
+    /**
+     * Starts (or resumes) a run in the background and returns its initial state.
+     */
+    public ResponseModel<BillingRunDTO> startRun(LocalDate runDate, boolean dryRun) {
+        if (runDate == null) {
+            throw new BusinessRuleViolationException("Run date must be provided.");
+        }
+        RunProgress progress = new RunProgress();
+        if (!current.compareAndSet(null, progress)) {
+            throw new BusinessRuleViolationException("A billing run is already in progress.");
+        }
+        try {
+            progress.start(openRun(runDate, dryRun));
+            progress.estimatedLeases = countRemaining(progress.run);
+            runner.execute(() -> execute(progress));
+        } catch (RuntimeException ex) {
+            current.set(null);
+            throw ex;
+        }
+
+        log.info("Billing run {} started for {} (dry run: {}, resuming after lease {})",
+                progress.run.getId(), runDate, dryRun, progress.run.getLastLeaseId());
+        return ResponseModel.success("Billing run started.", progress.toDTO());
+    }
+
+    public ResponseModel<BillingRunDTO> getCurrentRun() {
+        RunProgress progress = current.get();
+        if (progress == null || progress.run == null) {
+            return ResponseModel.success("No billing run in progress.", null);
+        }
+        return ResponseModel.success("Billing run in progress.", progress.toDTO());
+    }
+
+    public ResponseModel<List<BillingRunDTO>> getRecentRuns() {
+        List<BillingRunDTO> runs = runRepository.findTop20ByOrderByIdDesc().stream()
+                .map(BillingService::mapToDTO)
+                .toList();
+        return ResponseModel.success(runs.isEmpty() ? "No billing runs found." : "Billing runs fetched successfully.", runs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        computePool.shutdownNow();
+    }
+
+    void execute(RunProgress progress) {
+        BillingRun run = progress.run;
+        LocalDate runDate = run.getRunDate();
+        LocalDate periodStart = runDate.withDayOfMonth(1);
+        int periodStartDay = (int) periodStart.toEpochDay();
+        int runDay = (int) runDate.toEpochDay();
+        LeaseChunk chunk = new LeaseChunk(chunkSize);
+
+        try {
+            while (readChunk(chunk, progress.lastLeaseId, runDate, periodStart) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Billing run interrupted");
+                }
+                computePool.invoke(new ChargeTask(chunk, 0, chunk.size, periodStartDay, runDay, dailyRateCents));
+
+                int charged = 0;
+                long amount = 0;
+                for (int i = 0; i < chunk.size; i++) {
+                    if (chunk.billedDays[i] > 0) {
+                        charged++;
+                        amount += chunk.amountCents[i];
+                    }
+                }
+                long lastLeaseId = chunk.leaseIds[chunk.size - 1];
+                if (!run.isDryRun()) {
+                    writeChunk(run, chunk, charged, lastLeaseId, progress.leasesProcessed + chunk.size,
+                            progress.invoicesWritten + charged, progress.totalAmountCents + amount);
+                }
+                progress.advance(lastLeaseId, chunk.size, charged, amount);
+            }
+            finish(progress, BillingRunStatus.COMPLETED, null);
+        } catch (RuntimeException ex) {
+            log.error("Billing run {} failed after lease {}: {}", run.getId(), progress.lastLeaseId, ex.getMessage());
+            finish(progress, BillingRunStatus.FAILED, ex.getMessage());
+        }
+    }
+
+    private BillingRun openRun(LocalDate runDate, boolean dryRun) {
+        BillingRun run = dryRun ? null : runRepository.findFirstByRunDateAndDryRunFalseAndStatusInOrderByIdDesc(
+                runDate, EnumSet.of(BillingRunStatus.RUNNING, BillingRunStatus.FAILED)).orElse(null);
+        if (run == null) {
+            run = new BillingRun();
+            run.setPeriod(runDate.format(PERIOD_FORMAT));
+            run.setRunDate(runDate);
+            run.setDryRun(dryRun);
+            run.setStartedAt(LocalDateTime.now());
+        }
+        run.setStatus(BillingRunStatus.RUNNING);
+        run.setErrorMessage(null);
+        run.setFinishedAt(null);
+        return runRepository.save(run);
+    }
+
+    private long countRemaining(BillingRun run) {
+        LocalDate runDate = run.getRunDate();
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class,
+                run.getLastLeaseId(), Date.valueOf(runDate), Date.valueOf(runDate.withDayOfMonth(1)));
+        return (count != null ? count : 0) + run.getLeasesProcessed();
+    }
+
+    private int readChunk(LeaseChunk chunk, long afterId, LocalDate runDate, LocalDate periodStart) {
+        chunk.size = 0;
+        jdbcTemplate.query(READ_CHUNK_SQL, rs -> {
+            int i = chunk.size++;
+            chunk.leaseIds[i] = rs.getLong(1);
+            chunk.customerIds[i] = rs.getLong(2);
+            chunk.startDays[i] = (int) rs.getDate(3).toLocalDate().toEpochDay();
+            Date endDate = rs.getDate(4);
+            chunk.endDays[i] = endDate != null ? (int) endDate.toLocalDate().toEpochDay() : OPEN;
+        }, afterId, Date.valueOf(runDate), Date.valueOf(periodStart), chunkSize);
+        return chunk.size;
+    }
+
+    private void writeChunk(BillingRun run, LeaseChunk chunk, int charged, long lastLeaseId,
+                            long processed, long invoices, long amount) {
+        int[] rows = new int[charged];
+        for (int i = 0, n = 0; i < chunk.size; i++) {
+            if (chunk.billedDays[i] > 0) {
+                rows[n++] = i;
+            }
+        }
+        String period = run.getPeriod();
+        Date billedThrough = Date.valueOf(run.getRunDate());
+        Timestamp computedAt = Timestamp.valueOf(LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (charged > 0) {
+                jdbcTemplate.batchUpdate(MERGE_INVOICE_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int index) throws SQLException {
+                        int i = rows[index];
+                        ps.setLong(1, chunk.leaseIds[i]);
+                        ps.setLong(2, chunk.customerIds[i]);
+                        ps.setString(3, period);
+                        ps.setDate(4, billedThrough);
+                        ps.setInt(5, chunk.billedDays[i]);
+                        ps.setLong(6, chunk.amountCents[i]);
+                        ps.setTimestamp(7, computedAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.length;
+                    }
+                });
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, lastLeaseId, processed, invoices, amount, run.getId());
+        });
+    }
+
+    private void finish(RunProgress progress, BillingRunStatus status, String error) {
+        try {
+            BillingRun run = progress.run;
+            run.setStatus(status);
+            run.setLastLeaseId(progress.lastLeaseId);
+            run.setLeasesProcessed(progress.leasesProcessed);
+            run.setInvoicesWritten(progress.invoicesWritten);
+            run.setTotalAmountCents(progress.totalAmountCents);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setErrorMessage(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            runRepository.save(run);
+            log.info("Billing run {} {}: {} leases, {} invoices, {} cents",
+                    run.getId(), status, progress.leasesProcessed, progress.invoicesWritten, progress.totalAmountCents);
+        } finally {
+            current.set(null);
+        }
+    }
+
+    private static BillingRunDTO mapToDTO(BillingRun run) {
+        BillingRunDTO dto = new BillingRunDTO();
+        dto.setId(run.getId());
+        dto.setPeriod(run.getPeriod());
+        dto.setRunDate(run.getRunDate());
+        dto.setDryRun(run.isDryRun());
+        dto.setStatus(run.getStatus() != null ? run.getStatus().name() : null);
+        dto.setLastLeaseId(run.getLastLeaseId());
+        dto.setLeasesProcessed(run.getLeasesProcessed());
+        dto.setInvoicesWritten(run.getInvoicesWritten());
+        dto.setTotalAmountCents(run.getTotalAmountCents());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setFinishedAt(run.getFinishedAt());
+        dto.setErrorMessage(run.getErrorMessage());
+        return dto;
+    }
+
+    /**
+     * Reusable column arrays for one chunk of leases; epoch days, with {@link #OPEN} for no end date.
+     */
+    static final class LeaseChunk {
+        final long[] leaseIds;
+        final long[] customerIds;
+        final int[] startDays;
+        final int[] endDays;
+        final int[] billedDays;
+        final long[] amountCents;
+        int size;
+
+        LeaseChunk(int capacity) {
+            leaseIds = new long[capacity];
+            customerIds = new long[capacity];
+            startDays = new int[capacity];
+            endDays = new int[capacity];
+            billedDays = new int[capacity];
+            amountCents = new long[capacity];
+        }
+    }
+
+    static final class ChargeTask extends RecursiveAction {
+        private final LeaseChunk chunk;
+        private final int from;
+        private final int to;
+        private final int periodStartDay;
+        private final int runDay;
+        private final long dailyRateCents;
+
+        ChargeTask(LeaseChunk chunk, int from, int to, int periodStartDay, int runDay, long dailyRateCents) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.periodStartDay = periodStartDay;
+            this.runDay = runDay;
+            this.dailyRateCents = dailyRateCents;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > FORK_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChargeTask(chunk, from, mid, periodStartDay, runDay, dailyRateCents),
+                        new ChargeTask(chunk, mid, to, periodStartDay, runDay, dailyRateCents));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int start = chunk.startDays[i];
+                int end = chunk.endDays[i];
+                // Exclusive end: the return day is not charged, an open lease is charged through the run date
+                int endExclusive = end == OPEN ? runDay + 1 : Math.max(end, start + 1);
+                int days = Math.min(endExclusive, runDay + 1) - Math.max(start, periodStartDay);
+                chunk.billedDays[i] = Math.max(0, days);
+                chunk.amountCents[i] = chunk.billedDays[i] * dailyRateCents;
+            }
+        }
+    }
+
+    /**
+     * Live counters of the running job; written only by the run thread.
+     */
+    static final class RunProgress {
+        private final long startedNanos = System.nanoTime();
+        private volatile BillingRun run;
+        private volatile long estimatedLeases;
+        private volatile long lastLeaseId;
+        private volatile long leasesProcessed;
+        private volatile long invoicesWritten;
+        private volatile long totalAmountCents;
+        // Leases already processed by an earlier attempt, excluded from the rate
+        private long resumedLeases;
+
+        void start(BillingRun openedRun) {
+            run = openedRun;
+            lastLeaseId = openedRun.getLastLeaseId();
+            leasesProcessed = openedRun.getLeasesProcessed();
+            invoicesWritten = openedRun.getInvoicesWritten();
+            totalAmountCents = openedRun.getTotalAmountCents();
+            resumedLeases = leasesProcessed;
+        }
+
+        void advance(long lastId, int leases, int invoices, long amount) {
+            lastLeaseId = lastId;
+            leasesProcessed += leases;
+            invoicesWritten += invoices;
+            totalAmountCents += amount;
+        }
+
+        BillingRunDTO toDTO() {
+            BillingRunDTO dto = mapToDTO(run);
+            dto.setLastLeaseId(lastLeaseId);
+            dto.setLeasesProcessed(leasesProcessed);
+            dto.setInvoicesWritten(invoicesWritten);
+            dto.setTotalAmountCents(totalAmountCents);
+            dto.setEstimatedLeases(estimatedLeases);
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            long done = leasesProcessed - resumedLeases;
+            dto.setLeasesPerSecond(seconds > 0 ? Math.round(done / seconds * 10) / 10.0 : 0.0);
+            return dto;
+        }
+    }
+}
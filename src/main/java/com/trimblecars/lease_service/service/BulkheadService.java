@@ -0,0 +1,259 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.BulkheadStatsDTO;
+import com.trimblecars.lease_service.enums.Bulkhead;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Customer, owner and admin/export traffic each run in their own compartment: a cap on concurrent
+ * requests with a bounded wait queue and wait timeout, and a cap on pooled JDBC connections.
+ * The request caps add up to less than the servlet thread pool and the connection caps to the
+ * connection pool size, so a saturated compartment (say, several PDF exports) can only queue or
+ * reject its own requests.
+ * <p>
+ * Limits come from {@code trimble.bulkhead.<customer|owner|admin>.*}. The request filter binds the
+ * current thread to its compartment; the connection partition reads it through the static hook
+ * below. Work on threads that are not bound (scheduled jobs, dispatchers) is not partitioned.
+ */
+@Slf4j
+@Service
+public class BulkheadService {
+
+    private static final ThreadLocal<Compartment> CURRENT = new ThreadLocal<>();
+
+    private final Map<Bulkhead, Compartment> compartments = new EnumMap<>(Bulkhead.class);
+
+    @Autowired
+    public BulkheadService(Environment environment) {
+        this(limitsFrom(environment));
+    }
+
+    BulkheadService(Map<Bulkhead, Limits> limits) {
+        limits.forEach((bulkhead, limit) -> compartments.put(bulkhead, new Compartment(bulkhead, limit)));
+    }
+
+    /**
+     * Admits the current request into the bulkhead's compartment, waiting up to its max-wait if it
+     * is full. Callers that get {@code true} must call {@link #exit()}.
+     */
+    public boolean enter(Bulkhead bulkhead) {
+        Compartment compartment = compartments.get(bulkhead);
+        if (!compartment.enter()) {
+            return false;
+        }
+        CURRENT.set(compartment);
+        return true;
+    }
+
+    public void exit() {
+        Compartment compartment = CURRENT.get();
+        if (compartment != null) {
+            CURRENT.remove();
+            compartment.exit();
+        }
+    }
+
+    /**
+     * Unbinds the current thread but keeps the request admitted, for a request that goes on
+     * asynchronously. The returned release gives the slot back; it may run more than once.
+     */
+    public Runnable detach() {
+        Compartment compartment = CURRENT.get();
+        if (compartment == null) {
+            return () -> { };
+        }
+        CURRENT.remove();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                compartment.exit();
+            }
+        };
+    }
+
+    public Limits limits(Bulkhead bulkhead) {
+        return compartments.get(bulkhead).limits;
+    }
+
+    public List<BulkheadStatsDTO> getStats() {
+        List<BulkheadStatsDTO> stats = new ArrayList<>(compartments.size());
+        for (Compartment compartment : compartments.values()) {
+            stats.add(compartment.stats());
+        }
+        return stats;
+    }
+
+    // -------- Hook for the connection partition --------
+
+    /**
+     * Compartment the current thread is running in, or {@code null} outside a request.
+     */
+    public static Compartment current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs work that a request handed to another thread (e.g. export workers) in that request's
+     * compartment, so the connections it borrows are charged to the same partition.
+     */
+    public static <T> T callIn(Compartment compartment, Supplier<T> work) {
+        if (compartment == null) {
+            return work.get();
+        }
+        Compartment previous = CURRENT.get();
+        CURRENT.set(compartment);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private static Map<Bulkhead, Limits> limitsFrom(Environment environment) {
+        Map<Bulkhead, Limits> limits = new EnumMap<>(Bulkhead.class);
+        for (Bulkhead bulkhead : Bulkhead.values()) {
+            Limits defaults = Limits.defaults(bulkhead);
+            String prefix = "trimble.bulkhead." + bulkhead.name().toLowerCase() + ".";
+            limits.put(bulkhead, new Limits(
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, defaults.maxConcurrent()),
+                    environment.getProperty(prefix + "max-queue", Integer.class, defaults.maxQueue()),
+                    environment.getProperty(prefix + "max-wait-ms", Long.class, defaults.maxWaitMs()),
+                    environment.getProperty(prefix + "max-connections", Integer.class, defaults.maxConnections()),
+                    environment.getProperty(prefix + "connection-wait-ms", Long.class, defaults.connectionWaitMs()),
+                    environment.getProperty(prefix + "retry-after-seconds", Integer.class, defaults.retryAfterSeconds())));
+        }
+        return limits;
+    }
+
+    public record Limits(int maxConcurrent, int maxQueue, long maxWaitMs,
+                         int maxConnections, long connectionWaitMs, int retryAfterSeconds) {
+
+        static Limits defaults(Bulkhead bulkhead) {
+            return switch (bulkhead) {
+                case CUSTOMER -> new Limits(100, 100, 1_000, 6, 1_000, 1);
+                case OWNER -> new Limits(40, 40, 1_000, 2, 1_000, 1);
+                case ADMIN -> new Limits(4, 8, 5_000, 2, 5_000, 30);
+            };
+        }
+    }
+
+    public static final class Compartment {
+        private final Bulkhead bulkhead;
+        private final Limits limits;
+        private final Semaphore requests;
+        private final Semaphore connections;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger peakActive = new AtomicInteger();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejectedQueueFull = new LongAdder();
+        private final LongAdder rejectedTimeout = new LongAdder();
+        private final LongAdder connectionTimeouts = new LongAdder();
+
+        Compartment(Bulkhead bulkhead, Limits limits) {
+            this.bulkhead = bulkhead;
+            this.limits = limits;
+            this.requests = new Semaphore(limits.maxConcurrent(), true);
+            this.connections = new Semaphore(limits.maxConnections(), true);
+        }
+
+        boolean enter() {
+            if (!requests.tryAcquire()) {
+                if (waiting.incrementAndGet() > limits.maxQueue()) {
+                    waiting.decrementAndGet();
+                    rejectedQueueFull.increment();
+                    return false;
+                }
+                try {
+                    if (!requests.tryAcquire(limits.maxWaitMs(), TimeUnit.MILLISECONDS)) {
+                        rejectedTimeout.increment();
+                        return false;
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    rejectedTimeout.increment();
+                    return false;
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            accepted.increment();
+            peakActive.accumulateAndGet(active(), Math::max);
+            return true;
+        }
+
+        void exit() {
+            requests.release();
+        }
+
+        /**
+         * Reserves one of the compartment's pooled connections; callers that return normally must
+         * call {@link #releaseConnection()} once the connection is closed.
+         */
+        public void acquireConnection() throws SQLTransientConnectionException {
+            try {
+                if (connections.tryAcquire(limits.connectionWaitMs(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            connectionTimeouts.increment();
+            throw new SQLTransientConnectionException(
+                    "No connection available in the " + bulkhead + " partition within " + limits.connectionWaitMs() + " ms");
+        }
+
+        public void releaseConnection() {
+            connections.release();
+        }
+
+        public Bulkhead bulkhead() {
+            return bulkhead;
+        }
+
+        public Limits limits() {
+            return limits;
+        }
+
+        private int active() {
+            return limits.maxConcurrent() - requests.availablePermits();
+        }
+
+        BulkheadStatsDTO stats() {
+            int active = active();
+            BulkheadStatsDTO dto = new BulkheadStatsDTO();
+            dto.setBulkhead(bulkhead.name());
+            dto.setMaxConcurrent(limits.maxConcurrent());
+            dto.setActive(active);
+            dto.setPeakActive(peakActive.get());
+            dto.setSaturation(limits.maxConcurrent() > 0 ? (double) active / limits.maxConcurrent() : 1.0);
+            dto.setMaxQueue(limits.maxQueue());
+            dto.setWaiting(waiting.get());
+            dto.setAccepted(accepted.sum());
+            dto.setRejectedQueueFull(rejectedQueueFull.sum());
+            dto.setRejectedTimeout(rejectedTimeout.sum());
+            dto.setMaxConnections(limits.maxConnections());
+            dto.setConnectionsInUse(limits.maxConnections() - connections.availablePermits());
+            dto.setConnectionTimeouts(connectionTimeouts.sum());
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLocationChangeRow;
+import com.trimblecars.lease_service.dto.CarLocationRow;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index of IDLE cars that have a location. The globe is cut into square cells of
+ * {@code trimble.geo.cell-size-degrees}; a k-nearest query visits rings of cells around the query
+ * point and stops once no unvisited ring can hold anything closer than the k-th match, so it
+ * never scans the fleet.
+ * <p>
+ * Reads are lock-free; writes are serialised and applied after the changing transaction commits.
+ * With snapshots enabled the index is restored from its last snapshot at startup and then only
+ * re-reads the cars modified since the snapshot's high-water mark.
+ */
+@Slf4j
+@Service
+public class CarLocationIndex implements Snapshottable {
+
+    static final int SNAPSHOT_VERSION = 1;
+    // Changes committed slightly before the high-water mark may not have reached the index yet
+    // when the snapshot is taken, so the mark is pulled back by this much
+    static final long SNAPSHOT_SAFETY_WINDOW_MS = 60_000;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final CarRepository carRepository;
+    private final SnapshotService snapshotService;
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+
+    private final ConcurrentHashMap<Long, Map<Long, CarPoint>> cells = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CarPoint> points = new ConcurrentHashMap<>();
+
+    public CarLocationIndex(CarRepository carRepository,
+                            SnapshotService snapshotService,
+                            @Value("${trimble.geo.cell-size-degrees:0.05}") double cellDegrees) {
+        this.carRepository = carRepository;
+        this.snapshotService = snapshotService;
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.cols = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        Optional<SnapshotService.Snapshot> snapshot = snapshotService.read(this);
+        if (snapshot.isPresent()) {
+            int restored = restore(snapshot.get().payload());
+            int changed = catchUp(snapshot.get().highWaterMark());
+            log.info("Restored {} car locations from snapshot and applied {} changes in {} ms",
+                    restored, changed, System.currentTimeMillis() - started);
+            return;
+        }
+
+        List<CarLocationRow> rowsToIndex = carRepository.findLocationsByStatus(CarStatus.IDLE);
+        for (CarLocationRow row : rowsToIndex) {
+            put(row.id(), row.latitude(), row.longitude());
+        }
+        log.info("Indexed {} available car locations in {} ms", rowsToIndex.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public String snapshotName() {
+        return "car-locations";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    /**
+     * Payload: entry count, then id, latitude and longitude per car. The high-water mark is taken
+     * before copying, so every change after it is re-read by {@link #catchUp(long)}.
+     */
+    @Override
+    public long writeSnapshot(DataOutputStream out) throws IOException {
+        long highWaterMark = System.currentTimeMillis() - SNAPSHOT_SAFETY_WINDOW_MS;
+        List<CarPoint> copy = new ArrayList<>(points.values());
+        out.writeInt(copy.size());
+        for (CarPoint point : copy) {
+            out.writeLong(point.id());
+            out.writeDouble(point.latitude());
+            out.writeDouble(point.longitude());
+        }
+        return highWaterMark;
+    }
+
+    int restore(ByteBuffer payload) {
+        int count = payload.getInt();
+        for (int i = 0; i < count; i++) {
+            put(payload.getLong(), payload.getDouble(), payload.getDouble());
+        }
+        return count;
+    }
+
+    int catchUp(long highWaterMark) {
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(highWaterMark), ZoneId.systemDefault());
+        List<CarLocationChangeRow> changes = carRepository.findLocationChangesSince(since);
+        changes.forEach(this::apply);
+        return changes.size();
+    }
+
+    /**
+     * Re-indexes the car from its current status and location once the surrounding transaction commits.
+     */
+    public void carChanged(Car car) {
+        Long id = car.getId();
+        if (id == null) {
+            return;
+        }
+        boolean available = car.getStatus() == CarStatus.IDLE
+                && car.getLatitude() != null && car.getLongitude() != null;
+        Double latitude = car.getLatitude();
+        Double longitude = car.getLongitude();
+        TransactionHooks.afterCommit(() -> {
+            if (available) {
+                put(id, latitude, longitude);
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    /**
+     * Bulk form of {@link #carChanged(Car)} for set-based status updates; each row carries the car's
+     * new status. Applied once the surrounding transaction commits.
+     */
+    public void carsChanged(List<CarLocationChangeRow> changes) {
+        if (!changes.isEmpty()) {
+            TransactionHooks.afterCommit(() -> changes.forEach(this::apply));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} indexed cars within {@code radiusKm}, nearest first.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+
+        // Narrowest cell edge anywhere inside the search radius, so ring bounds stay conservative
+        double edgeLatitude = Math.min(89.0, Math.abs(latitude) + radiusKm / KM_PER_DEGREE + cellDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(edgeLatitude)), 0.01);
+        int maxRing = Math.min((int) Math.ceil(radiusKm / cellKm) + 1, (cols - 1) / 2);
+
+        int row = row(latitude);
+        int col = col(longitude);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dr = -ring; dr <= ring; dr++) {
+                boolean edgeRow = Math.abs(dr) == ring;
+                for (int dc = -ring; dc <= ring; dc += edgeRow ? 1 : Math.max(1, 2 * ring)) {
+                    collect(row + dr, col + dc, latitude, longitude, radiusKm, limit, best);
+                }
+            }
+            // Anything in ring + 1 is at least ring whole cells away
+            if (best.size() == limit && best.peek().distanceKm() <= ring * cellKm) {
+                break;
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    synchronized void put(long id, double latitude, double longitude) {
+        CarPoint point = new CarPoint(id, latitude, longitude, cellKey(row(latitude), col(longitude)));
+        CarPoint previous = points.put(id, point);
+        if (previous != null && previous.cell() != point.cell()) {
+            removeFromCell(previous);
+        }
+        cells.computeIfAbsent(point.cell(), key -> new ConcurrentHashMap<>()).put(id, point);
+    }
+
+    private void apply(CarLocationChangeRow change) {
+        if (change.status() == CarStatus.IDLE && change.latitude() != null && change.longitude() != null) {
+            put(change.id(), change.latitude(), change.longitude());
+        } else {
+            remove(change.id());
+        }
+    }
+
+    synchronized void remove(long id) {
+        CarPoint previous = points.remove(id);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void collect(int row, int col, double latitude, double longitude, double radiusKm,
+                         int limit, PriorityQueue<Neighbor> best) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        Map<Long, CarPoint> cell = cells.get(cellKey(row, Math.floorMod(col, cols)));
+        if (cell == null) {
+            return;
+        }
+        for (CarPoint point : cell.values()) {
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Neighbor(point.id(), point.latitude(), point.longitude(), distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Neighbor(point.id(), point.latitude(), point.longitude(), distance));
+            }
+        }
+    }
+
+    private void removeFromCell(CarPoint point) {
+        Map<Long, CarPoint> cell = cells.get(point.cell());
+        if (cell != null) {
+            cell.remove(point.id());
+            if (cell.isEmpty()) {
+                cells.remove(point.cell(), cell);
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int col(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), cols);
+    }
+
+    private long cellKey(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    public record Neighbor(long carId, double latitude, double longitude, double distanceKm) {
+    }
+
+    private record CarPoint(long id, double latitude, double longitude, long cell) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLocationChangeRow;
+import com.trimblecars.lease_service.dto.CarServiceRequestDTO;
+import com.trimblecars.lease_service.dto.CarServiceResultDTO;
+import com.trimblecars.lease_service.dto.CarTransitionRow;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Moves sets of cars into and out of service (IDLE &lt;-&gt; ON_SERVICE).
+ * <p>
+ * The selection is read once as a projection; the cars in the expected status are then moved in
+ * chunks of {@code chunk-size} ids with one conditional update each, every chunk in its own short
+ * transaction. A car leased since the scan is left alone by the update's status check; only then
+ * is the chunk read back to tell which cars moved. Availability caches get one bulk notification
+ * per chunk after it commits. Cars returned to IDLE are offered to the waitlist in their chunk's
+ * transaction, as a car released by an ended lease is. A failure stops the run; chunks already
+ * committed stay moved.
+ */
+@Slf4j
+@Service
+public class CarMaintenanceService {
+
+    static final int MAX_IDS = 50_000;
+
+    private final CarRepository carRepository;
+    private final CollectionVersionService collectionVersionService;
+    private final CarLocationIndex carLocationIndex;
+    private final LeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CarMaintenanceService(CarRepository carRepository,
+                                 CollectionVersionService collectionVersionService,
+                                 CarLocationIndex carLocationIndex,
+                                 LeaseService leaseService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${trimble.maintenance.chunk-size:1000}") int chunkSize) {
+        this.carRepository = carRepository;
+        this.collectionVersionService = collectionVersionService;
+        this.carLocationIndex = carLocationIndex;
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Puts the selected IDLE cars ON_SERVICE. {@code ownerScope} restricts the selection to one
+     * owner's cars (owner endpoints); {@code null} lets the request choose (admin endpoints).
+     */
+    public ResponseModel<CarServiceResultDTO> startService(Long ownerScope, CarServiceRequestDTO request) {
+        CarServiceResultDTO result = transition(ownerScope, request, CarStatus.IDLE, CarStatus.ON_SERVICE);
+        return ResponseModel.success(result.getTransitioned().size() + " cars moved to service.", result);
+    }
+
+    /**
+     * Returns the selected ON_SERVICE cars to IDLE.
+     */
+    public ResponseModel<CarServiceResultDTO> endService(Long ownerScope, CarServiceRequestDTO request) {
+        CarServiceResultDTO result = transition(ownerScope, request, CarStatus.ON_SERVICE, CarStatus.IDLE);
+        return ResponseModel.success(result.getTransitioned().size() + " cars returned from service.", result);
+    }
+
+    CarServiceResultDTO transition(Long ownerScope, CarServiceRequestDTO request, CarStatus from, CarStatus to) {
+        long started = System.nanoTime();
+        Long ownerId = ownerScope != null ? ownerScope : request.getOwnerId();
+        CarServiceResultDTO result = new CarServiceResultDTO();
+        result.setTargetStatus(to.name());
+
+        List<CarTransitionRow> rows = select(ownerId, request, result);
+        result.setMatched(rows.size());
+
+        List<CarTransitionRow> candidates = new ArrayList<>();
+        for (CarTransitionRow row : rows) {
+            if (row.status() == from) {
+                candidates.add(row);
+            } else {
+                classifySkipped(row.id(), row.status(), result);
+            }
+        }
+
+        for (int start = 0; start < candidates.size(); start += chunkSize) {
+            List<CarTransitionRow> chunk = candidates.subList(start, Math.min(start + chunkSize, candidates.size()));
+            transactionTemplate.executeWithoutResult(status -> moveChunk(chunk, from, to, result));
+        }
+
+        result.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        log.info("Service transition {} -> {}: {} matched, {} moved, {} leased, {} unchanged, {} not found in {} ms",
+                from, to, result.getMatched(), result.getTransitioned().size(), result.getSkippedLeased().size(),
+                result.getUnchanged().size(), result.getNotFound().size(), result.getElapsedMs());
+        return result;
+    }
+
+    private List<CarTransitionRow> select(Long ownerId, CarServiceRequestDTO request, CarServiceResultDTO result) {
+        List<Long> ids = request.getCarIds();
+        String model = request.getModel() != null && !request.getModel().isBlank() ? request.getModel().trim() : null;
+
+        if (ids == null || ids.isEmpty()) {
+            if (ownerId == null && model == null) {
+                throw new BusinessRuleViolationException("Select cars by ids, owner or model.");
+            }
+            return carRepository.findTransitionRows(ownerId, model);
+        }
+
+        if (model != null) {
+            throw new BusinessRuleViolationException("Select cars either by ids or by owner/model filter, not both.");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new BusinessRuleViolationException("At most " + MAX_IDS + " car ids can be transitioned per request.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BusinessRuleViolationException("Car ids must not be null.");
+        }
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<CarTransitionRow> rows = new ArrayList<>(distinct.size());
+        for (int start = 0; start < distinct.size(); start += chunkSize) {
+            rows.addAll(carRepository.findTransitionRowsByIdIn(
+                    distinct.subList(start, Math.min(start + chunkSize, distinct.size())), ownerId));
+        }
+        if (rows.size() < distinct.size()) {
+            Map<Long, CarTransitionRow> found = new HashMap<>(rows.size() * 2);
+            rows.forEach(row -> found.put(row.id(), row));
+            for (Long id : distinct) {
+                if (!found.containsKey(id)) {
+                    result.getNotFound().add(id);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void moveChunk(List<CarTransitionRow> chunk, CarStatus from, CarStatus to, CarServiceResultDTO result) {
+        List<Long> ids = chunk.stream().map(CarTransitionRow::id).toList();
+        int updated = carRepository.transitionStatus(ids, from, to, LocalDateTime.now());
+
+        List<CarTransitionRow> moved = chunk;
+        if (updated != ids.size()) {
+            // Some cars changed since the scan (usually a lease started); read back which ones moved
+            Map<Long, CarStatus> current = new HashMap<>(ids.size() * 2);
+            carRepository.findTransitionRowsByIdIn(ids, null).forEach(row -> current.put(row.id(), row.status()));
+            moved = new ArrayList<>(updated);
+            for (CarTransitionRow row : chunk) {
+                CarStatus status = current.get(row.id());
+                if (status == to) {
+                    moved.add(row);
+                } else if (status == null) {
+                    result.getNotFound().add(row.id());
+                } else {
+                    classifySkipped(row.id(), status, result);
+                }
+            }
+        }
+
+        List<Long> ownerIds = new ArrayList<>(moved.size());
+        List<CarLocationChangeRow> changes = new ArrayList<>(moved.size());
+        for (CarTransitionRow row : moved) {
+            ownerIds.add(row.ownerId());
+            changes.add(new CarLocationChangeRow(row.id(), to, row.latitude(), row.longitude()));
+            result.getTransitioned().add(row.id());
+        }
+        if (!moved.isEmpty()) {
+            collectionVersionService.carsStatusChanged(ownerIds, from, to);
+            carLocationIndex.carsChanged(changes);
+        }
+        if (to == CarStatus.IDLE && !moved.isEmpty()) {
+            offerToWaitlist(moved);
+        }
+    }
+
+    /**
+     * Hands cars back from service to waiting customers. Runs after the bulk notifications, so a
+     * car leased here ends up ON_LEASE in the caches.
+     */
+    private void offerToWaitlist(List<CarTransitionRow> moved) {
+        for (Car car : carRepository.findAllById(moved.stream().map(CarTransitionRow::id).toList())) {
+            if (car.getStatus() == CarStatus.IDLE) {
+                leaseService.assignToNextWaiter(car);
+            }
+        }
+    }
+
+    private static void classifySkipped(Long id, CarStatus status, CarServiceResultDTO result) {
+        if (status == CarStatus.ON_LEASE) {
+            result.getSkippedLeased().add(id);
+        } else {
+            result.getUnchanged().add(id);
+        }
+    }
+}
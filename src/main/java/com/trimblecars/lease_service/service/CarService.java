@@ -2,8 +2,10 @@ package com.trimblecars.lease_service.service;
 
 import com.trimblecars.lease_service.dto.CarRequestDTO;
 import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.CarSummaryRow;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.AuditAction;
 import com.trimblecars.lease_service.enums.CarStatus;
 import com.trimblecars.lease_service.enums.UserRole;
 import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
@@ -12,19 +14,32 @@ import com.trimblecars.lease_service.repository.CarRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CarService {
 
+    static final double MAX_NEARBY_RADIUS_KM = 200;
+    static final int MAX_NEARBY_LIMIT = 100;
+
     private final CarRepository carRepository;
     private final UserService userService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditLogService auditLogService;
+    private final CarLocationIndex carLocationIndex;
+    private final ReadCoalescer readCoalescer;
+    private final LeaseService leaseService;
 
+    @Transactional
     public ResponseModel<CarResponseDTO> registerCar(Long ownerId, CarRequestDTO dto) {
-        log.info("Registering new car for owner ID: {}", ownerId);
+        log.debug("Registering new car for owner ID: {}", ownerId);
 
         if (ownerId == null || dto == null) {
             throw new IllegalArgumentException("Owner ID and car details must not be null.");
@@ -36,10 +51,15 @@ public class CarService {
             throw new BusinessRuleViolationException("User must be an OWNER to register a car.");
         }
 
+        validateLocation(dto.getLatitude(), dto.getLongitude());
+
         Car car = mapToCarEntity(dto, owner);
         Car savedCar = carRepository.save(car);
-
-        log.info("Car registered successfully: {} (Owner: {})", savedCar.getModel(), owner.getEmail());
+        collectionVersionService.carRegistered(savedCar);
+        carLocationIndex.carChanged(savedCar);
+        auditLogService.record(AuditAction.CAR_REGISTERED, ownerId, savedCar.getId(), null);
+        // A new IDLE car goes to the next customer waiting for its model, as a released one does
+        leaseService.assignToNextWaiter(savedCar);
 
         CarResponseDTO responseDTO = mapToCarResponseDTO(savedCar);
         return ResponseModel.success("Car registered successfully.", responseDTO);
@@ -50,7 +70,12 @@ public class CarService {
     }
 
     public ResponseModel<List<CarResponseDTO>> getCarsByStatus(CarStatus status) {
-        log.info("Fetching cars with status: {}", status);
+        return readCoalescer.execute("cars-by-status", status, collectionVersionService.carsByStatusTag(status),
+                () -> loadCarsByStatus(status));
+    }
+
+    private ResponseModel<List<CarResponseDTO>> loadCarsByStatus(CarStatus status) {
+        log.debug("Fetching cars with status: {}", status);
         List<Car> cars = carRepository.findByStatus(status);
 
         List<CarResponseDTO> dtos = cars.stream()
@@ -65,7 +90,11 @@ public class CarService {
     }
 
     public ResponseModel<List<CarResponseDTO>> getAllCars() {
-        log.info("Fetching all cars (no status filter)");
+        return readCoalescer.execute("all-cars", null, collectionVersionService.allCarsTag(), this::loadAllCars);
+    }
+
+    private ResponseModel<List<CarResponseDTO>> loadAllCars() {
+        log.debug("Fetching all cars (no status filter)");
         List<Car> cars = carRepository.findAll();
 
         List<CarResponseDTO> dtos = cars.stream()
@@ -80,7 +109,12 @@ public class CarService {
     }
 
     public ResponseModel<List<CarResponseDTO>> getCarsByOwner(Long ownerId) {
-        log.info("Fetching cars for owner ID: {}", ownerId);
+        return readCoalescer.execute("cars-by-owner", ownerId, collectionVersionService.ownerCarsTag(ownerId),
+                () -> loadCarsByOwner(ownerId));
+    }
+
+    private ResponseModel<List<CarResponseDTO>> loadCarsByOwner(Long ownerId) {
+        log.debug("Fetching cars for owner ID: {}", ownerId);
         List<Car> cars = carRepository.findByOwnerId(ownerId);
 
         List<CarResponseDTO> dtos = cars.stream()
@@ -95,12 +129,79 @@ public class CarService {
     }
 
 
+    /**
+     * k nearest IDLE cars within the radius, answered from the location index; only the matched
+     * cars are read from the database.
+     */
+    public ResponseModel<List<CarResponseDTO>> findNearbyCars(double latitude, double longitude, double radiusKm, int limit) {
+        log.debug("Finding up to {} cars within {} km of ({}, {})", limit, radiusKm, latitude, longitude);
+
+        validateCoordinates(latitude, longitude);
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new BusinessRuleViolationException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km.");
+        }
+        if (limit < 1 || limit > MAX_NEARBY_LIMIT) {
+            throw new BusinessRuleViolationException("Limit must be between 1 and " + MAX_NEARBY_LIMIT + ".");
+        }
+
+        List<CarLocationIndex.Neighbor> neighbors = carLocationIndex.nearest(latitude, longitude, radiusKm, limit);
+        if (neighbors.isEmpty()) {
+            return ResponseModel.success("No available cars found within " + radiusKm + " km.", List.of());
+        }
+
+        Map<Long, CarSummaryRow> rows = new HashMap<>(neighbors.size() * 2);
+        for (CarSummaryRow row : carRepository.findSummariesByIdIn(neighbors.stream().map(CarLocationIndex.Neighbor::carId).toList())) {
+            rows.put(row.id(), row);
+        }
+
+        List<CarResponseDTO> dtos = new ArrayList<>(neighbors.size());
+        for (CarLocationIndex.Neighbor neighbor : neighbors) {
+            CarSummaryRow row = rows.get(neighbor.carId());
+            // The index is updated after commit, so a car leased a moment ago may still be listed
+            if (row == null || row.status() != CarStatus.IDLE) {
+                continue;
+            }
+            CarResponseDTO dto = new CarResponseDTO();
+            dto.setId(row.id());
+            dto.setModel(row.model());
+            dto.setStatus(row.status().name());
+            dto.setOwnerEmail(row.ownerEmail());
+            dto.setLatitude(neighbor.latitude());
+            dto.setLongitude(neighbor.longitude());
+            dto.setDistanceKm(Math.round(neighbor.distanceKm() * 1000) / 1000.0);
+            dtos.add(dto);
+        }
+
+        return ResponseModel.success("Nearby cars fetched successfully.", dtos);
+    }
+
+
+    // A car is registered with both coordinates or none; the location index needs both
+    private static void validateLocation(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return;
+        }
+        if (latitude == null || longitude == null) {
+            throw new BusinessRuleViolationException("Latitude and longitude must be provided together.");
+        }
+        validateCoordinates(latitude, longitude);
+    }
+
+    private static void validateCoordinates(double latitude, double longitude) {
+        // Negated range checks also reject NaN
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new BusinessRuleViolationException("Latitude must be within [-90, 90] and longitude within [-180, 180].");
+        }
+    }
+
     // -------- Mapping Helpers --------
     private Car mapToCarEntity(CarRequestDTO dto, User owner) {
         Car car = new Car();
         car.setModel(dto.getModel());
         car.setStatus(CarStatus.IDLE); // Default status
         car.setOwner(owner);
+        car.setLatitude(dto.getLatitude());
+        car.setLongitude(dto.getLongitude());
         return car;
     }
 
@@ -110,6 +211,8 @@ public class CarService {
         dto.setModel(car.getModel());
         dto.setStatus(car.getStatus().name());
         dto.setOwnerEmail(car.getOwner().getEmail());
+        dto.setLatitude(car.getLatitude());
+        dto.setLongitude(car.getLongitude());
         return dto;
     }
 }
@@ -0,0 +1,241 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarStatusRow;
+import com.trimblecars.lease_service.dto.ReconciliationReportDTO;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds cars whose status disagrees with the ACTIVE lease set and optionally repairs them.
+ * <p>
+ * Cars are walked in keyset chunks of {@code chunk-size} ids; each chunk is checked with two
+ * set-based queries (ON_LEASE cars with no ACTIVE lease, non-ON_LEASE cars with one) and repaired
+ * with one conditional update per direction, all in one short transaction. The job sleeps
+ * {@code pause-ms} between chunks so it never holds a connection for long. Cars released to IDLE
+ * are offered to the waitlist in the same transaction. ON_SERVICE cars with an ACTIVE lease, and
+ * cars with more than one ACTIVE lease, are only reported.
+ */
+@Slf4j
+@Service
+public class CarStatusReconciliationService {
+
+    private final CarRepository carRepository;
+    private final CollectionVersionService collectionVersionService;
+    private final CarLocationIndex carLocationIndex;
+    private final LeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean scheduled;
+    private final boolean repairByDefault;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "car-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong totalRepaired = new AtomicLong();
+    private volatile ReconciliationReportDTO latest;
+
+    public CarStatusReconciliationService(CarRepository carRepository,
+                                          CollectionVersionService collectionVersionService,
+                                          CarLocationIndex carLocationIndex,
+                                          LeaseService leaseService,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${trimble.reconciliation.scheduled:true}") boolean scheduled,
+                                          @Value("${trimble.reconciliation.repair:true}") boolean repairByDefault,
+                                          @Value("${trimble.reconciliation.chunk-size:1000}") int chunkSize,
+                                          @Value("${trimble.reconciliation.pause-ms:50}") long pauseMs) {
+        this.carRepository = carRepository;
+        this.collectionVersionService = collectionVersionService;
+        this.carLocationIndex = carLocationIndex;
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduled = scheduled;
+        this.repairByDefault = repairByDefault;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${trimble.reconciliation.interval-ms:900000}",
+            fixedDelayString = "${trimble.reconciliation.interval-ms:900000}")
+    public void scheduledRun() {
+        if (scheduled && !running.get()) {
+            startRun(repairByDefault);
+        }
+    }
+
+    /**
+     * Starts a pass in the background; {@code repair == null} uses the configured default.
+     */
+    public ResponseModel<ReconciliationReportDTO> startRun(Boolean repair) {
+        boolean repairing = repair != null ? repair : repairByDefault;
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessRuleViolationException("A reconciliation run is already in progress.");
+        }
+        try {
+            runner.execute(() -> {
+                try {
+                    reconcile(repairing);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException ex) {
+            running.set(false);
+            throw ex;
+        }
+        return ResponseModel.success("Reconciliation run started.", null);
+    }
+
+    public ResponseModel<ReconciliationReportDTO> getLatestRun() {
+        ReconciliationReportDTO report = latest;
+        return ResponseModel.success(report == null ? "No reconciliation run yet." : "Reconciliation run fetched successfully.",
+                report);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    ReconciliationReportDTO reconcile(boolean repair) {
+        ReconciliationReportDTO report = new ReconciliationReportDTO();
+        report.setRepair(repair);
+        report.setStatus("RUNNING");
+        report.setStartedAt(LocalDateTime.now());
+        latest = copy(report);
+
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = carRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long fromId = afterId;
+                long toId = ids.get(ids.size() - 1);
+                transactionTemplate.executeWithoutResult(status -> reconcileChunk(fromId, toId, repair, report));
+                report.setChunks(report.getChunks() + 1);
+                report.setCarsScanned(report.getCarsScanned() + ids.size());
+                latest = copy(report);
+
+                afterId = toId;
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            report.setStatus("COMPLETED");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            report.setStatus("STOPPED");
+        } catch (RuntimeException ex) {
+            log.error("Reconciliation run failed", ex);
+            report.setStatus("FAILED");
+            report.setErrorMessage(ex.getMessage());
+        }
+
+        report.setTotalRepaired(totalRepaired.get());
+        report.setFinishedAt(LocalDateTime.now());
+        latest = copy(report);
+        if (report.getOnLeaseWithoutActiveLease() + report.getIdleWithActiveLease() + report.getOnServiceWithActiveLease()
+                + report.getMultipleActiveLeases() > 0) {
+            log.warn("Reconciliation {}: {} ON_LEASE without lease, {} IDLE with lease, {} ON_SERVICE with lease, "
+                            + "{} with several leases, {} repaired",
+                    report.getStatus(), report.getOnLeaseWithoutActiveLease(), report.getIdleWithActiveLease(),
+                    report.getOnServiceWithActiveLease(), report.getMultipleActiveLeases(), report.getRepaired());
+        } else {
+            log.info("Reconciliation {}: {} cars checked, no mismatches", report.getStatus(), report.getCarsScanned());
+        }
+        return report;
+    }
+
+    private void reconcileChunk(long afterId, long toId, boolean repair, ReconciliationReportDTO report) {
+        List<Long> orphaned = carRepository.findOnLeaseWithoutActiveLease(afterId, toId);
+        List<Long> idleLeased = new ArrayList<>();
+        for (CarStatusRow row : carRepository.findNotOnLeaseWithActiveLease(afterId, toId)) {
+            if (row.status() == CarStatus.IDLE) {
+                idleLeased.add(row.id());
+            } else {
+                report.setOnServiceWithActiveLease(report.getOnServiceWithActiveLease() + 1);
+            }
+        }
+        List<Long> doubleLeased = carRepository.findWithMultipleActiveLeases(afterId, toId);
+        if (!doubleLeased.isEmpty()) {
+            log.warn("Cars with more than one ACTIVE lease: {}", doubleLeased);
+            report.setMultipleActiveLeases(report.getMultipleActiveLeases() + doubleLeased.size());
+        }
+        report.setOnLeaseWithoutActiveLease(report.getOnLeaseWithoutActiveLease() + orphaned.size());
+        report.setIdleWithActiveLease(report.getIdleWithActiveLease() + idleLeased.size());
+        if (!repair) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int repaired = 0;
+        if (!orphaned.isEmpty()) {
+            repaired += carRepository.releaseCarsWithoutActiveLease(orphaned, now);
+            publish(orphaned, CarStatus.ON_LEASE, CarStatus.IDLE);
+        }
+        if (!idleLeased.isEmpty()) {
+            repaired += carRepository.markCarsWithActiveLease(idleLeased, now);
+            publish(idleLeased, CarStatus.IDLE, CarStatus.ON_LEASE);
+        }
+        report.setRepaired(report.getRepaired() + repaired);
+        totalRepaired.addAndGet(repaired);
+    }
+
+    /**
+     * Refreshes the availability caches for the cars the update actually moved; both apply after commit.
+     * A released car goes to the next waiter for its model, as it would after an ended lease.
+     */
+    private void publish(List<Long> ids, CarStatus previous, CarStatus repairedTo) {
+        for (Car car : carRepository.findAllById(ids)) {
+            if (car.getStatus() == repairedTo) {
+                collectionVersionService.carStatusChanged(car, previous);
+                carLocationIndex.carChanged(car);
+                if (repairedTo == CarStatus.IDLE) {
+                    leaseService.assignToNextWaiter(car);
+                }
+            }
+        }
+    }
+
+    private ReconciliationReportDTO copy(ReconciliationReportDTO report) {
+        ReconciliationReportDTO copy = new ReconciliationReportDTO();
+        copy.setRepair(report.isRepair());
+        copy.setStatus(report.getStatus());
+        copy.setChunks(report.getChunks());
+        copy.setCarsScanned(report.getCarsScanned());
+        copy.setOnLeaseWithoutActiveLease(report.getOnLeaseWithoutActiveLease());
+        copy.setIdleWithActiveLease(report.getIdleWithActiveLease());
+        copy.setOnServiceWithActiveLease(report.getOnServiceWithActiveLease());
+        copy.setMultipleActiveLeases(report.getMultipleActiveLeases());
+        copy.setRepaired(report.getRepaired());
+        copy.setTotalRepaired(totalRepaired.get());
+        copy.setStartedAt(report.getStartedAt());
+        copy.setFinishedAt(report.getFinishedAt());
+        copy.setErrorMessage(report.getErrorMessage());
+        return copy;
+    }
+}
@@ -0,0 +1,166 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the ETags of the car and lease list endpoints.
+ * Counters are partitioned (all cars, per status, per owner, per customer) so a change only
+ * invalidates the lists it can appear in. Bumps are applied after commit, and callers read the
+ * tag before loading data, so a tag never describes data older than what it was sent with.
+ * <p>
+ * Each partition also remembers when it last changed. Reading a tag inside a request raises that
+ * request's read floor to the partition's change time (and a write in the request to the write's
+ * time), so the read replica only has to be as new as the lists the request actually reads.
+ */
+@Service
+public class CollectionVersionService {
+
+    private static final String READ_FLOOR_ATTRIBUTE = CollectionVersionService.class.getName() + ".READ_FLOOR";
+
+    // Counters restart at zero, so tags also carry the instance epoch
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong allCars = new AtomicLong();
+    private final Map<CarStatus, AtomicLong> carsByStatus = new EnumMap<>(CarStatus.class);
+    private final ConcurrentHashMap<Long, AtomicLong> carsByOwner = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> leasesByCustomer = new ConcurrentHashMap<>();
+
+    // Wall-clock time of the latest bump, overall and per partition; set before the counters move
+    private volatile long lastChangedAt;
+    private final ConcurrentHashMap<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    public CollectionVersionService() {
+        for (CarStatus status : CarStatus.values()) {
+            carsByStatus.put(status, new AtomicLong());
+        }
+    }
+
+    public String allCarsTag() {
+        return tag("cars", allCars.get());
+    }
+
+    public String carsByStatusTag(CarStatus status) {
+        return tag("cars-" + status.name(), carsByStatus.get(status).get());
+    }
+
+    public String ownerCarsTag(Long ownerId) {
+        return tag("owner-" + ownerId, current(carsByOwner, ownerId));
+    }
+
+    public String customerLeasesTag(Long customerId) {
+        return tag("leases-" + customerId, current(leasesByCustomer, customerId));
+    }
+
+    /**
+     * When any counter last moved (epoch millis, 0 before the first change). A copy of the data
+     * taken after this time is at least as new as every tag handed out so far.
+     */
+    public long lastChangedAt() {
+        return lastChangedAt;
+    }
+
+    /**
+     * How new a copy of the data must be for the current request: the newest change among the
+     * partitions whose tags it read and its own writes since. Outside a request, or before it has
+     * read a tag, this is {@link #lastChangedAt()}.
+     */
+    public long readFloor() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object floor = request == null ? null : request.getAttribute(READ_FLOOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return floor != null ? (Long) floor : lastChangedAt;
+    }
+
+    public void carRegistered(Car car) {
+        afterCommit(() -> {
+            bump("cars", allCars);
+            bump("cars-" + car.getStatus().name(), carsByStatus.get(car.getStatus()));
+            bumpOwner(car);
+        });
+    }
+
+    public void carStatusChanged(Car car, CarStatus previous) {
+        CarStatus current = car.getStatus();
+        afterCommit(() -> {
+            bump("cars", allCars);
+            if (previous != null) {
+                bump("cars-" + previous.name(), carsByStatus.get(previous));
+            }
+            if (current != null) {
+                bump("cars-" + current.name(), carsByStatus.get(current));
+            }
+            bumpOwner(car);
+        });
+    }
+
+    /**
+     * Bulk form of {@link #carStatusChanged} for set-based updates that moved many cars between the
+     * same two statuses: each affected counter is bumped once, not once per car.
+     */
+    public void carsStatusChanged(Collection<Long> ownerIds, CarStatus previous, CarStatus current) {
+        List<Long> owners = ownerIds.stream().filter(Objects::nonNull).distinct().toList();
+        afterCommit(() -> {
+            bump("cars", allCars);
+            bump("cars-" + previous.name(), carsByStatus.get(previous));
+            bump("cars-" + current.name(), carsByStatus.get(current));
+            owners.forEach(ownerId -> bump("owner-" + ownerId, carsByOwner.computeIfAbsent(ownerId, id -> new AtomicLong())));
+        });
+    }
+
+    public void customerLeasesChanged(Long customerId) {
+        afterCommit(() -> bump("leases-" + customerId, leasesByCustomer.computeIfAbsent(customerId, id -> new AtomicLong())));
+    }
+
+    private void bumpOwner(Car car) {
+        if (car.getOwner() != null && car.getOwner().getId() != null) {
+            Long ownerId = car.getOwner().getId();
+            bump("owner-" + ownerId, carsByOwner.computeIfAbsent(ownerId, id -> new AtomicLong()));
+        }
+    }
+
+    private void bump(String partition, AtomicLong counter) {
+        changedAt.put(partition, lastChangedAt);
+        counter.incrementAndGet();
+    }
+
+    // The version is read before the change time, so the floor covers every change the tag reflects
+    private String tag(String partition, long version) {
+        raiseReadFloor(changedAt.getOrDefault(partition, 0L), false);
+        return epoch + "-" + partition + "-" + version;
+    }
+
+    private static long current(Map<Long, AtomicLong> counters, Long key) {
+        AtomicLong counter = counters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void afterCommit(Runnable change) {
+        TransactionHooks.afterCommit(() -> {
+            lastChangedAt = System.currentTimeMillis();
+            raiseReadFloor(lastChangedAt, true);
+            change.run();
+        });
+    }
+
+    private static void raiseReadFloor(long at, boolean onlyIfScoped) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return;
+        }
+        Object floor = request.getAttribute(READ_FLOOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (floor == null ? !onlyIfScoped : (Long) floor < at) {
+            request.setAttribute(READ_FLOOR_ATTRIBUTE, at, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CacheStatsDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.entity.Lease;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * LRU cache of each customer's lease history, bounded by an estimated memory budget.
+ * Histories are loaded on first read and then kept current in place: a started lease is appended
+ * and an ended lease has its end date patched, both after the lease transaction commits.
+ * <p>
+ * Each history is an immutable set of parallel arrays (ids, models, epoch days) replaced
+ * wholesale on change, so readers never see a half-applied update. A load racing with a commit
+ * is detected through the customer's lease collection version and is not cached.
+ */
+@Service
+public class CustomerLeaseHistoryCache {
+
+    private static final int NO_END_DATE = Integer.MIN_VALUE;
+
+    private final LeaseHistoryService leaseHistoryService;
+    private final CollectionVersionService collectionVersionService;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Long, CustomerHistory> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long estimatedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder hitNanos = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+
+    public CustomerLeaseHistoryCache(LeaseHistoryService leaseHistoryService,
+                                     CollectionVersionService collectionVersionService,
+                                     @Value("${trimble.lease-history.cache.max-bytes:33554432}") long maxBytes) {
+        this.leaseHistoryService = leaseHistoryService;
+        this.collectionVersionService = collectionVersionService;
+        this.maxBytes = maxBytes;
+    }
+
+    public List<LeaseResponseDTO> getByCustomer(Long customerId) {
+        long started = System.nanoTime();
+        CustomerHistory history;
+        synchronized (this) {
+            history = entries.get(customerId);
+        }
+        if (history != null) {
+            List<LeaseResponseDTO> result = history.toResponses();
+            hits.increment();
+            hitNanos.add(System.nanoTime() - started);
+            return result;
+        }
+
+        String version = collectionVersionService.customerLeasesTag(customerId);
+        List<LeaseResponseDTO> loaded = leaseHistoryService.findByCustomer(customerId);
+        CustomerHistory built = CustomerHistory.of(loaded);
+        synchronized (this) {
+            // A lease committed during the load may be missing from it; serve it but do not cache it
+            if (version.equals(collectionVersionService.customerLeasesTag(customerId))) {
+                put(customerId, built);
+            }
+        }
+        misses.increment();
+        missNanos.add(System.nanoTime() - started);
+        return loaded;
+    }
+
+    /**
+     * Appends the lease to the customer's cached history once the transaction commits.
+     */
+    public void leaseStarted(Lease lease) {
+        Long customerId = lease.getCustomer().getId();
+        long leaseId = lease.getId();
+        String model = lease.getCar().getModel();
+        String email = lease.getCustomer().getEmail();
+        LocalDate startDate = lease.getStartDate();
+        LocalDate endDate = lease.getEndDate();
+        TransactionHooks.afterCommit(() ->
+                update(customerId, history -> history.upsert(leaseId, model, email, startDate, endDate)));
+    }
+
+    /**
+     * Sets the end date on the customer's cached lease once the transaction commits.
+     */
+    public void leaseEnded(Lease lease) {
+        Long customerId = lease.getCustomer().getId();
+        long leaseId = lease.getId();
+        LocalDate endDate = lease.getEndDate();
+        TransactionHooks.afterCommit(() -> update(customerId, history -> history.withEndDate(leaseId, endDate)));
+    }
+
+    public synchronized CacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setEntries(entries.size());
+        dto.setEstimatedBytes(estimatedBytes);
+        dto.setMaxBytes(maxBytes);
+        dto.setHits(hitCount);
+        dto.setMisses(missCount);
+        dto.setHitRatio(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+        dto.setEvictions(evictions.sum());
+        dto.setAvgHitMicros(hitCount == 0 ? 0 : hitNanos.sum() / 1_000.0 / hitCount);
+        dto.setAvgMissMicros(missCount == 0 ? 0 : missNanos.sum() / 1_000.0 / missCount);
+        return dto;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    private synchronized void update(Long customerId, UnaryOperator<CustomerHistory> change) {
+        CustomerHistory current = entries.get(customerId);
+        if (current != null) {
+            put(customerId, change.apply(current));
+        }
+    }
+
+    // Caller holds the lock
+    private void put(Long customerId, CustomerHistory history) {
+        CustomerHistory previous = entries.put(customerId, history);
+        if (previous != null) {
+            estimatedBytes -= previous.estimatedBytes();
+        }
+        estimatedBytes += history.estimatedBytes();
+
+        Iterator<Map.Entry<Long, CustomerHistory>> eldest = entries.entrySet().iterator();
+        while (estimatedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, CustomerHistory> entry = eldest.next();
+            estimatedBytes -= entry.getValue().estimatedBytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * One customer's leases in lease id order. Never mutated after construction.
+     */
+    record CustomerHistory(String customerEmail, long[] leaseIds, String[] carModels,
+                           int[] startDays, int[] endDays) {
+
+        static CustomerHistory of(List<LeaseResponseDTO> leases) {
+            int size = leases.size();
+            long[] ids = new long[size];
+            String[] models = new String[size];
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            String email = null;
+            for (int i = 0; i < size; i++) {
+                LeaseResponseDTO lease = leases.get(i);
+                ids[i] = lease.getLeaseId();
+                models[i] = lease.getCarModel();
+                starts[i] = toDays(lease.getStartDate());
+                ends[i] = toDays(lease.getEndDate());
+                email = lease.getCustomerEmail();
+            }
+            return new CustomerHistory(email, ids, models, starts, ends);
+        }
+
+        CustomerHistory upsert(long leaseId, String model, String email, LocalDate startDate, LocalDate endDate) {
+            int index = Arrays.binarySearch(leaseIds, leaseId);
+            if (index >= 0) {
+                return withEndDate(leaseId, endDate);
+            }
+            int insertAt = -index - 1;
+            int size = leaseIds.length;
+            long[] ids = new long[size + 1];
+            String[] models = new String[size + 1];
+            int[] starts = new int[size + 1];
+            int[] ends = new int[size + 1];
+            System.arraycopy(leaseIds, 0, ids, 0, insertAt);
+            System.arraycopy(carModels, 0, models, 0, insertAt);
+            System.arraycopy(startDays, 0, starts, 0, insertAt);
+            System.arraycopy(endDays, 0, ends, 0, insertAt);
+            ids[insertAt] = leaseId;
+            models[insertAt] = model;
+            starts[insertAt] = toDays(startDate);
+            ends[insertAt] = toDays(endDate);
+            System.arraycopy(leaseIds, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(carModels, insertAt, models, insertAt + 1, size - insertAt);
+            System.arraycopy(startDays, insertAt, starts, insertAt + 1, size - insertAt);
+            System.arraycopy(endDays, insertAt, ends, insertAt + 1, size - insertAt);
+            return new CustomerHistory(customerEmail != null ? customerEmail : email, ids, models, starts, ends);
+        }
+
+        CustomerHistory withEndDate(long leaseId, LocalDate endDate) {
+            int index = Arrays.binarySearch(leaseIds, leaseId);
+            if (index < 0) {
+                return this;
+            }
+            int[] ends = endDays.clone();
+            ends[index] = toDays(endDate);
+            return new CustomerHistory(customerEmail, leaseIds, carModels, startDays, ends);
+        }
+
+        List<LeaseResponseDTO> toResponses() {
+            List<LeaseResponseDTO> result = new ArrayList<>(leaseIds.length);
+            for (int i = 0; i < leaseIds.length; i++) {
+                result.add(new LeaseResponseDTO(leaseIds[i], carModels[i], customerEmail,
+                        toDate(startDays[i]), toDate(endDays[i])));
+            }
+            return result;
+        }
+
+        long estimatedBytes() {
+            // Object headers plus array payloads and string contents (approximate, compressed oops)
+            long bytes = 96 + 16L * 4 + leaseIds.length * (8L + 4 + 4 + 4);
+            for (String model : carModels) {
+                bytes += model != null ? 40 + model.length() : 0;
+            }
+            return customerEmail != null ? bytes + 40 + customerEmail.length() : bytes;
+        }
+
+        private static int toDays(LocalDate date) {
+            return date != null ? (int) date.toEpochDay() : NO_END_DATE;
+        }
+
+        private static LocalDate toDate(int days) {
+            return days != NO_END_DATE ? LocalDate.ofEpochDay(days) : null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.trimblecars.lease_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Local stand-in for a mail server: appends each batch to {@code <directory>/outbox.log}.
+ */
+@Component
+@ConditionalOnProperty(name = "trimble.notifications.transport", havingValue = "file", matchIfMissing = true)
+public class FileNotificationTransport implements NotificationTransport {
+
+    static final String FILE_NAME = "outbox.log";
+
+    private final Path directory;
+
+    public FileNotificationTransport(@Value("${trimble.notifications.directory:logs/notifications}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    @Override
+    public synchronized void send(List<NotificationMessage> batch) throws IOException {
+        Files.createDirectories(directory);
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(FILE_NAME), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            String sentAt = Instant.now().toString();
+            for (NotificationMessage message : batch) {
+                writer.write("--- " + sentAt + " to=" + message.recipient() + " subject=" + message.subject());
+                writer.newLine();
+                writer.write(message.body());
+                writer.newLine();
+            }
+        }
+    }
+}
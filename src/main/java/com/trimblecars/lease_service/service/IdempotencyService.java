@@ -0,0 +1,298 @@
+package com.trimblecars.lease_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.entity.IdempotencyRecord;
+import com.trimblecars.lease_service.enums.IdempotencyState;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.exception.ErrorCode;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Replays the first response for a repeated Idempotency-Key instead of re-running the request.
+ * Entries live in a bounded in-memory map with a fixed TTL; concurrent duplicates wait on the
+ * first in-flight execution. A key sent again with a different request body is rejected.
+ * <p>
+ * With {@code persistent} the key is also claimed in the database before the request runs: an
+ * IN_PROGRESS row is inserted, and only the instance whose insert succeeds executes. The others
+ * replay the stored response, waiting up to {@code in-progress-wait-ms} for it, and answer 409 if
+ * it is still running. A claim left behind by a dead instance is taken over after
+ * {@code in-progress-timeout-seconds}.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean persistent;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long inProgressWaitMs;
+    private final long inProgressTimeoutMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // TTL is uniform, so insertion order is also expiry order
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${trimble.idempotency.persistent:false}") boolean persistent,
+                              @Value("${trimble.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                              @Value("${trimble.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${trimble.idempotency.in-progress-wait-ms:5000}") long inProgressWaitMs,
+                              @Value("${trimble.idempotency.in-progress-timeout-seconds:60}") long inProgressTimeoutSeconds) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.persistent = persistent;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.inProgressWaitMs = inProgressWaitMs;
+        this.inProgressTimeoutMillis = inProgressTimeoutSeconds * 1000;
+    }
+
+    /**
+     * Runs the action once per (scope, key). Without a key the action simply runs.
+     * {@code request} is the request body (null when the path says it all); a repeated key must
+     * come with the same body. Failed executions (thrown exceptions) are not remembered, so the
+     * client may retry them.
+     */
+    public <T> ResponseEntity<ResponseModel<T>> execute(String scope, String key, Object request, Class<T> dataType,
+                                                        Supplier<ResponseEntity<ResponseModel<T>>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessRuleViolationException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        String cacheKey = scope + ":" + key;
+        String requestHash = hash(request);
+        long now = System.currentTimeMillis();
+        Entry mine = new Entry(new CompletableFuture<>(), requestHash, now + ttlMillis);
+
+        Entry existing = entries.putIfAbsent(cacheKey, mine);
+        while (existing != null && existing.isExpired(now)) {
+            entries.remove(cacheKey, existing);
+            existing = entries.putIfAbsent(cacheKey, mine);
+        }
+        if (existing != null) {
+            if (!existing.requestHash().equals(requestHash)) {
+                throw new BusinessRuleViolationException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+            }
+            log.debug("Replaying response for idempotency key {}", cacheKey);
+            return await(existing);
+        }
+
+        insertionOrder.add(cacheKey);
+        evict(now);
+
+        try {
+            ResponseEntity<ResponseModel<T>> response = persistent
+                    ? executeOnce(cacheKey, requestHash, dataType, action)
+                    : action.get();
+            mine.response.complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            entries.remove(cacheKey, mine);
+            mine.response.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trimble.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        evict(System.currentTimeMillis());
+        if (persistent) {
+            int removed = recordRepository.deleteCreatedBefore(recordCutoff());
+            if (removed > 0) {
+                log.debug("Purged {} expired idempotency records", removed);
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries, then the oldest ones while over capacity. An entry still in flight is
+     * never dropped (a retry would run the request a second time), so eviction stops at it and the
+     * map may exceed max-entries by the number of requests in flight.
+     */
+    private void evict(long now) {
+        String head;
+        while ((head = insertionOrder.peek()) != null) {
+            Entry entry = entries.get(head);
+            if (entry != null && !entry.response.isDone()) {
+                return;
+            }
+            boolean stale = entry == null || entry.isExpired(now);
+            if (!stale && entries.size() <= maxEntries) {
+                return;
+            }
+            if (insertionOrder.remove(head) && entry != null) {
+                entries.remove(head, entry);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ResponseModel<T>> await(Entry entry) {
+        try {
+            return (ResponseEntity<ResponseModel<T>>) entry.response.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // -------- Database claim, shared by all instances --------
+
+    private <T> ResponseEntity<ResponseModel<T>> executeOnce(String cacheKey, String requestHash, Class<T> dataType,
+                                                             Supplier<ResponseEntity<ResponseModel<T>>> action) {
+        ResponseEntity<ResponseModel<T>> stored = claimOrReplay(cacheKey, requestHash, dataType);
+        if (stored != null) {
+            return stored;
+        }
+        ResponseEntity<ResponseModel<T>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            release(cacheKey);
+            throw ex;
+        }
+        saveResponse(cacheKey, response);
+        return response;
+    }
+
+    /**
+     * Inserts the IN_PROGRESS claim and returns null, or returns the response another execution
+     * stored for the key, waiting for it while that execution is still running.
+     */
+    private <T> ResponseEntity<ResponseModel<T>> claimOrReplay(String cacheKey, String requestHash, Class<T> dataType) {
+        long deadline = System.currentTimeMillis() + inProgressWaitMs;
+        while (true) {
+            try {
+                recordRepository.insertInProgress(cacheKey, requestHash, LocalDateTime.now());
+                return null;
+            } catch (DataIntegrityViolationException ex) {
+                log.debug("Idempotency key {} is already claimed", cacheKey);
+            }
+
+            IdempotencyRecord record = recordRepository.findById(cacheKey).orElse(null);
+            if (record != null && recordRepository.deleteIfExpired(cacheKey, recordCutoff(), abandonedCutoff()) > 0) {
+                log.info("Took over expired or abandoned idempotency record {}", cacheKey);
+                continue;
+            }
+            if (record != null) {
+                // Records written before request hashes were stored match any request
+                if (record.getRequestHash() != null && !record.getRequestHash().equals(requestHash)) {
+                    throw new BusinessRuleViolationException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+                }
+                if (record.getState() != IdempotencyState.IN_PROGRESS) {
+                    ResponseEntity<ResponseModel<T>> stored = readResponse(record, dataType);
+                    if (stored != null) {
+                        return stored;
+                    }
+                    recordRepository.deleteById(cacheKey);
+                    continue;
+                }
+            }
+            // Claimed elsewhere and still running, or released just now: look again shortly
+            if (System.currentTimeMillis() >= deadline) {
+                throw new BusinessRuleViolationException(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BusinessRuleViolationException(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<ResponseModel<T>> readResponse(IdempotencyRecord record, Class<T> dataType) {
+        try {
+            JavaType type = objectMapper.getTypeFactory().constructParametricType(ResponseModel.class, dataType);
+            ResponseModel<T> body = objectMapper.readValue(record.getResponseBody(), type);
+            return ResponseEntity.status(record.getHttpStatus()).body(body);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            log.warn("Discarding unreadable idempotency record {}: {}", record.getKey(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private void saveResponse(String cacheKey, ResponseEntity<?> response) {
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            if (recordRepository.complete(cacheKey, response.getStatusCode().value(), body) == 0) {
+                log.warn("Idempotency claim {} was taken over before the response was stored", cacheKey);
+            }
+        } catch (JsonProcessingException | DataAccessException ex) {
+            // The claim stays IN_PROGRESS until it is abandoned; the in-memory entry still covers this node
+            log.warn("Could not store the response for idempotency key {}: {}", cacheKey, ex.getMessage());
+        }
+    }
+
+    private void release(String cacheKey) {
+        try {
+            recordRepository.release(cacheKey);
+        } catch (DataAccessException ex) {
+            log.warn("Could not release idempotency key {}: {}", cacheKey, ex.getMessage());
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Request body cannot be fingerprinted", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private LocalDateTime recordCutoff() {
+        return LocalDateTime.now().minus(Duration.ofMillis(ttlMillis));
+    }
+
+    private LocalDateTime abandonedCutoff() {
+        return LocalDateTime.now().minus(Duration.ofMillis(inProgressTimeoutMillis));
+    }
+
+    private record Entry(CompletableFuture<ResponseEntity<?>> response, String requestHash, long expiresAt) {
+        // An entry in flight never expires, or a retry would run the request again
+        boolean isExpired(long now) {
+            return now >= expiresAt && response.isDone();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.LeaseDeadlineRow;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pending overdue deadlines of open leases, held in a {@link TimingWheel} instead of being found by
+ * table scans. Loaded once at startup from open leases with a planned end date, then fed by lease
+ * starts after commit. A lease becomes overdue at the start of the day after its planned end date,
+ * plus {@code grace-hours}. Ended leases are not removed; {@link OverdueLeaseService} skips them
+ * when their deadline fires.
+ * <p>
+ * The startup load runs while requests are already served, so a lease started during it can be
+ * both loaded and scheduled by its commit hook. Pending deadlines are keyed by lease id and each
+ * lease is scheduled at most once.
+ */
+@Slf4j
+@Service
+public class LeaseDeadlineTracker {
+
+    private final LeaseRepository leaseRepository;
+    private final long graceMs;
+    private final int loadBatchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final TimingWheel wheel;
+    // Lease ids with a pending deadline; guarded by this, like the wheel
+    private final Set<Long> scheduled = new HashSet<>();
+
+    public LeaseDeadlineTracker(LeaseRepository leaseRepository,
+                                @Value("${trimble.lease-deadlines.tick-ms:60000}") long tickMs,
+                                @Value("${trimble.lease-deadlines.grace-hours:0}") long graceHours,
+                                @Value("${trimble.lease-deadlines.load-batch-size:10000}") int loadBatchSize) {
+        this.leaseRepository = leaseRepository;
+        this.graceMs = TimeUnit.HOURS.toMillis(graceHours);
+        this.loadBatchSize = loadBatchSize;
+        this.wheel = new TimingWheel(tickMs, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            List<LeaseDeadlineRow> rows = leaseRepository.findOpenDeadlinesAfter(afterId, PageRequest.of(0, loadBatchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            synchronized (this) {
+                for (LeaseDeadlineRow row : rows) {
+                    schedule(row.id(), deadlineOf(row.plannedEndDate()));
+                }
+            }
+            loaded += rows.size();
+            afterId = rows.get(rows.size() - 1).id();
+        }
+        log.info("Scheduled {} lease deadlines in {} ms", loaded, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Schedules the lease's deadline once the surrounding transaction commits.
+     */
+    public void leaseStarted(Lease lease) {
+        if (lease.getPlannedEndDate() == null) {
+            return;
+        }
+        long leaseId = lease.getId();
+        long deadline = deadlineOf(lease.getPlannedEndDate());
+        TransactionHooks.afterCommit(() -> schedule(leaseId, deadline));
+    }
+
+    /**
+     * Removes and returns the ids of leases whose deadline has passed by {@code nowMs}.
+     */
+    public synchronized long[] pollDue(long nowMs) {
+        long[] due = wheel.advance(nowMs);
+        for (long leaseId : due) {
+            scheduled.remove(leaseId);
+        }
+        return due;
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    synchronized void schedule(long leaseId, long deadlineMs) {
+        if (scheduled.add(leaseId)) {
+            wheel.schedule(leaseId, deadlineMs);
+        }
+    }
+
+    long deadlineOf(LocalDate plannedEndDate) {
+        return plannedEndDate.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() + graceMs;
+    }
+}
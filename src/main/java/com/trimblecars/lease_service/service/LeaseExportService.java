@@ -0,0 +1,200 @@
+package com.trimblecars.lease_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.enums.ExportFormat;
+import com.trimblecars.lease_service.repository.LeaseHistoryViewRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the lease history as CSV or NDJSON. The lease id range is split into partitions that are
+ * read and encoded in parallel on a bounded pool, each into its own buffer; buffers are written in
+ * partition order, with at most two partitions per worker held in memory.
+ * <p>
+ * Workers run in the calling request's bulkhead compartment: their connections count against its
+ * partition, and an export never reads more partitions at once than the partition has connections.
+ * <p>
+ * Consistency: the id range is fixed when the export starts, so leases started afterwards are not
+ * included. Each partition is read in its own read-committed transaction, so a lease ended while
+ * the export runs may appear with or without its end date.
+ */
+@Slf4j
+@Service
+public class LeaseExportService {
+
+    private static final byte[] CSV_HEADER =
+            "LeaseID,CarModel,CustomerEmail,StartDate,EndDate\n".getBytes(StandardCharsets.UTF_8);
+
+    private final LeaseHistoryViewRepository viewRepository;
+    private final ObjectWriter ndjsonWriter;
+    private final int parallelism;
+    private final int partitionSize;
+    private final ExecutorService pool;
+
+    public LeaseExportService(LeaseHistoryViewRepository viewRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${trimble.export.parallelism:4}") int parallelism,
+                              @Value("${trimble.export.partition-size:10000}") int partitionSize) {
+        this.viewRepository = viewRepository;
+        this.ndjsonWriter = objectMapper.writerFor(LeaseResponseDTO.class).withRootValueSeparator("\n");
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "lease-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Writes every lease to {@code out} and returns the number of rows written.
+     */
+    public long export(ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        BulkheadService.Compartment compartment = BulkheadService.current();
+        int workers = compartment == null
+                ? parallelism
+                : Math.max(1, Math.min(parallelism, compartment.limits().maxConnections()));
+
+        // Read on a worker too, so this thread holds no connection of its own while the workers wait for one
+        long[] range = await(pool.submit(() -> BulkheadService.callIn(compartment, this::idRange)));
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        if (format == ExportFormat.CSV) {
+            target.write(CSV_HEADER);
+        }
+
+        long rows = 0;
+        if (range != null) {
+            long maxId = range[1];
+            Deque<Future<Partition>> window = new ArrayDeque<>();
+            long next = range[0];
+            try {
+                while (next <= maxId || !window.isEmpty()) {
+                    while (next <= maxId && window.size() < workers * 2 && running(window) < workers) {
+                        long fromId = next;
+                        long toId = Math.min(next + partitionSize - 1, maxId);
+                        window.add(pool.submit(() -> BulkheadService.callIn(compartment,
+                                () -> encode(format, fromId, toId))));
+                        next = toId + 1;
+                    }
+                    Partition partition = await(window.poll());
+                    target.write(partition.bytes());
+                    rows += partition.rows();
+                }
+            } finally {
+                window.forEach(pending -> pending.cancel(true));
+            }
+        }
+
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        target.flush();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Exported {} leases as {} in {} ms ({} rows/s)", rows, format, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    private long[] idRange() {
+        Long minId = viewRepository.findMinLeaseId();
+        Long maxId = viewRepository.findMaxLeaseId();
+        return minId == null ? null : new long[]{minId, maxId};
+    }
+
+    Partition encode(ExportFormat format, long fromId, long toId) {
+        List<LeaseResponseDTO> leases = viewRepository.findResponsesInRange(fromId, toId);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(leases.size() * 96);
+        try {
+            if (format == ExportFormat.NDJSON) {
+                try (SequenceWriter writer = ndjsonWriter.writeValues(buffer)) {
+                    writer.writeAll(leases);
+                }
+                if (!leases.isEmpty()) {
+                    buffer.write('\n');
+                }
+            } else {
+                StringBuilder line = new StringBuilder(128);
+                for (LeaseResponseDTO lease : leases) {
+                    line.setLength(0);
+                    line.append(lease.getLeaseId()).append(',');
+                    appendCsvField(line, lease.getCarModel()).append(',');
+                    appendCsvField(line, lease.getCustomerEmail()).append(',');
+                    line.append(lease.getStartDate()).append(',');
+                    line.append(lease.getEndDate() != null ? lease.getEndDate() : "ONGOING").append('\n');
+                    buffer.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Partition(buffer.toByteArray(), leases.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static int running(Deque<Future<Partition>> window) {
+        int running = 0;
+        for (Future<Partition> pending : window) {
+            if (!pending.isDone()) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Export read failed", ex.getCause());
+        }
+    }
+
+    record Partition(byte[] bytes, int rows) {
+    }
+}
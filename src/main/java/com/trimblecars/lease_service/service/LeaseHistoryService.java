@@ -0,0 +1,133 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.LeaseHistoryView;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.LeaseHistoryViewRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Maintains and reads the lease_history_view read model.
+ * Writes join the caller's lease transaction; reads never touch the Lease/Car/User tables.
+ */
+@Slf4j
+@Service
+public class LeaseHistoryService {
+
+    private final LeaseHistoryViewRepository viewRepository;
+    private final LeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildThreads;
+    private final int rebuildBatchSize;
+
+    public LeaseHistoryService(LeaseHistoryViewRepository viewRepository,
+                               LeaseRepository leaseRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${trimble.lease-history.rebuild-threads:4}") int rebuildThreads,
+                               @Value("${trimble.lease-history.rebuild-batch-size:5000}") int rebuildBatchSize) {
+        this.viewRepository = viewRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStarted(Lease lease) {
+        viewRepository.save(toView(lease));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEnded(Lease lease) {
+        if (viewRepository.updateEndDate(lease.getId(), lease.getEndDate()) == 0) {
+            // Lease predates the view and has not been rebuilt yet
+            viewRepository.save(toView(lease));
+        }
+    }
+
+    /**
+     * Read-write on purpose, so it stays on the primary: this feeds the customer history cache,
+     * which keeps what it loads until the customer's next lease change.
+     */
+    @Transactional
+    public List<LeaseResponseDTO> findByCustomer(Long customerId) {
+        return viewRepository.findResponsesByCustomerId(customerId);
+    }
+
+    public List<LeaseResponseDTO> findByCar(Long carId) {
+        return viewRepository.findResponsesByCarId(carId);
+    }
+
+    public List<LeaseResponseDTO> findAll() {
+        return viewRepository.findAllResponses();
+    }
+
+    /**
+     * Regenerates the view from the lease table in id-range batches on a small pool, each batch in
+     * its own transaction (delete range, then insert-select). Rows are briefly missing while their
+     * batch runs, so this is meant for maintenance windows or first deployment.
+     */
+    public ResponseModel<Integer> rebuild() {
+        Long minId = leaseRepository.findMinId();
+        Long maxId = leaseRepository.findMaxId();
+        if (minId == null) {
+            transactionTemplate.executeWithoutResult(status -> viewRepository.deleteAllInBatch());
+            return ResponseModel.success("No leases to rebuild.", 0);
+        }
+
+        log.info("Rebuilding lease history view for lease IDs {}..{}", minId, maxId);
+        long started = System.currentTimeMillis();
+
+        transactionTemplate.executeWithoutResult(status -> viewRepository.deleteOutside(minId, maxId));
+
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<CompletableFuture<Integer>> batches = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += rebuildBatchSize) {
+                long batchFrom = from;
+                long batchTo = Math.min(from + rebuildBatchSize - 1, maxId);
+                batches.add(CompletableFuture.supplyAsync(() -> rebuildRange(batchFrom, batchTo), pool));
+            }
+            int rows = batches.stream().mapToInt(CompletableFuture::join).sum();
+
+            log.info("Lease history view rebuilt: {} rows in {} batches, {} ms",
+                    rows, batches.size(), System.currentTimeMillis() - started);
+            return ResponseModel.success("Lease history view rebuilt.", rows);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int rebuildRange(long fromId, long toId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            viewRepository.deleteRange(fromId, toId);
+            return viewRepository.insertRange(fromId, toId);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private LeaseHistoryView toView(Lease lease) {
+        return new LeaseHistoryView(
+                lease.getId(),
+                lease.getCar().getId(),
+                lease.getCustomer().getId(),
+                lease.getCar().getModel(),
+                lease.getCustomer().getEmail(),
+                lease.getStartDate(),
+                lease.getEndDate());
+    }
+}
@@ -4,9 +4,12 @@ import com.trimblecars.lease_service.dto.LeaseResponseDTO;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.entity.Lease;
 import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.AuditAction;
 import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.LeaseStatus;
 import com.trimblecars.lease_service.enums.UserRole;
 import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.exception.ErrorCode;
 import com.trimblecars.lease_service.exception.ResourceNotFoundException;
 import com.trimblecars.lease_service.model.ResponseModel;
 import com.trimblecars.lease_service.repository.CarRepository;
@@ -17,6 +20,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -27,17 +31,38 @@ public class LeaseService {
     private final LeaseRepository leaseRepository;
     private final CarRepository carRepository;
     private final UserService userService;
+    private final CollectionVersionService collectionVersionService;
+    private final LeaseHistoryService leaseHistoryService;
+    private final AuditLogService auditLogService;
+    private final CarLocationIndex carLocationIndex;
+    private final WaitlistService waitlistService;
+    private final CustomerLeaseHistoryCache customerLeaseHistoryCache;
+    private final NotificationService notificationService;
+    private final LeaseDeadlineTracker leaseDeadlineTracker;
+    private final ReadCoalescer readCoalescer;
 
     /**
-     * Starts a lease for a customer and car
+     * Starts an open-ended lease for a customer and car
      */
     @Transactional
     public ResponseModel<LeaseResponseDTO> startLease(Long customerId, Long carId) {
+        return startLease(customerId, carId, null);
+    }
+
+    /**
+     * Starts a lease for a customer and car, optionally due back on {@code plannedEndDate}
+     */
+    @Transactional
+    public ResponseModel<LeaseResponseDTO> startLease(Long customerId, Long carId, LocalDate plannedEndDate) {
         if (customerId == null || carId == null) {
             throw new IllegalArgumentException("Customer ID and Car ID must not be null.");
         }
 
-        log.info("Starting lease - customerId={}, carId={}", customerId, carId);
+        if (plannedEndDate != null && plannedEndDate.isBefore(LocalDate.now())) {
+            throw new BusinessRuleViolationException("Planned end date must not be in the past.");
+        }
+
+        log.debug("Starting lease - customerId={}, carId={}", customerId, carId);
 
         User customer = userService.getUserById(customerId);
         if (customer == null) {
@@ -48,28 +73,22 @@ public class LeaseService {
             throw new BusinessRuleViolationException("Only CUSTOMERS can start leases.");
         }
 
-        long activeLeases = leaseRepository.countByCustomerIdAndEndDateIsNull(customerId);
+        long activeLeases = leaseRepository.countActiveByCustomerId(customerId);
         if (activeLeases >= 2) {
-            throw new BusinessRuleViolationException("Customer already has 2 active leases.");
+            return ResponseModel.rejected(ErrorCode.ACTIVE_LEASE_LIMIT_REACHED);
         }
 
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new ResourceNotFoundException("Car not found with ID: " + carId));
 
         if (car.getStatus() == null || car.getStatus() != CarStatus.IDLE) {
-            throw new BusinessRuleViolationException("Car is not available for lease.");
+            return ResponseModel.rejected(ErrorCode.CAR_NOT_AVAILABLE);
         }
 
-        car.setStatus(CarStatus.ON_LEASE);
-        carRepository.save(car);
-
-        Lease lease = new Lease();
-        lease.setCar(car);
-        lease.setCustomer(customer);
-        lease.setStartDate(LocalDate.now());
-
-        Lease saved = leaseRepository.save(lease);
-        log.info("Lease started successfully. Lease ID: {}", saved.getId());
+        Lease saved = openLease(customer, car, plannedEndDate);
+        if (saved == null) {
+            return ResponseModel.rejected(ErrorCode.CAR_NOT_AVAILABLE);
+        }
 
         LeaseResponseDTO response = mapToLeaseResponseDTO(saved);
         return ResponseModel.success("Lease started successfully.", response);
@@ -82,24 +101,30 @@ public class LeaseService {
      */
     @Transactional
     public ResponseModel<LeaseResponseDTO> endLease(Long leaseId) {
-        log.info("Ending lease with ID: {}", leaseId);
+        log.debug("Ending lease with ID: {}", leaseId);
 
         Lease lease = leaseRepository.findById(leaseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Lease not found with ID: " + leaseId));
 
-        if (lease.getEndDate() != null) {
-            throw new BusinessRuleViolationException("Lease already ended.");
+        if (!endIfActive(lease)) {
+            return ResponseModel.rejected(ErrorCode.LEASE_ALREADY_ENDED);
         }
 
-        lease.setEndDate(LocalDate.now());
-
         // Reset car status to IDLE
         Car car = lease.getCar();
+        CarStatus previousStatus = car.getStatus();
         car.setStatus(CarStatus.IDLE);
         carRepository.save(car);
+        collectionVersionService.carStatusChanged(car, previousStatus);
+        carLocationIndex.carChanged(car);
 
         Lease saved = leaseRepository.save(lease);
-        log.info("Lease ended successfully. Lease ID: {}", saved.getId());
+        leaseHistoryService.recordEnded(saved);
+        collectionVersionService.customerLeasesChanged(lease.getCustomer().getId());
+        customerLeaseHistoryCache.leaseEnded(saved);
+        notificationService.leaseEnded(saved);
+        auditLogService.record(AuditAction.LEASE_ENDED, null, saved.getId(), car.getId());
+        assignToNextWaiter(car);
 
         LeaseResponseDTO responseDTO = mapToLeaseResponseDTO(saved);
         return ResponseModel.success("Lease ended successfully.", responseDTO);
@@ -108,21 +133,31 @@ public class LeaseService {
 
     @Transactional
     public ResponseModel<LeaseResponseDTO> endLease(Long customerId, Long leaseId) {
-        log.info("Attempting to end lease ID {} for customer ID {}", leaseId, customerId);
+        log.debug("Attempting to end lease ID {} for customer ID {}", leaseId, customerId);
 
         Lease lease = leaseRepository.findById(leaseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Lease not found with id: " + leaseId));
 
         if (!lease.getCustomer().getId().equals(customerId)) {
-//            throw new BusinessRuleViolationException("You can only end your own lease.");
-            return ResponseModel.failure("You can only end your own lease.", null);
+            return ResponseModel.rejected(ErrorCode.NOT_LEASE_OWNER);
         }
 
-        lease.setEndDate(LocalDate.now());
+        if (!endIfActive(lease)) {
+            return ResponseModel.rejected(ErrorCode.LEASE_ALREADY_ENDED);
+        }
+        CarStatus previousStatus = lease.getCar().getStatus();
         lease.getCar().setStatus(CarStatus.IDLE);
+        carRepository.save(lease.getCar());
         leaseRepository.save(lease);
-
-        log.info("Lease ID {} successfully ended by customer ID {}", leaseId, customerId);
+        leaseHistoryService.recordEnded(lease);
+        collectionVersionService.carStatusChanged(lease.getCar(), previousStatus);
+        carLocationIndex.carChanged(lease.getCar());
+        collectionVersionService.customerLeasesChanged(customerId);
+        customerLeaseHistoryCache.leaseEnded(lease);
+        notificationService.leaseEnded(lease);
+
+        auditLogService.record(AuditAction.LEASE_ENDED, customerId, leaseId, lease.getCar().getId());
+        assignToNextWaiter(lease.getCar());
         LeaseResponseDTO responseDTO = mapToLeaseResponseDTO(lease);
         return ResponseModel.success("Lease ended successfully.", responseDTO);
     }
@@ -131,13 +166,11 @@ public class LeaseService {
      * Get all leases for a specific customer
      */
     public ResponseModel<List<LeaseResponseDTO>> getLeasesByCustomer(Long customerId) {
-        log.info("Fetching lease history for customer ID: {}", customerId);
-
-        List<Lease> leases = leaseRepository.findByCustomerId(customerId);
+        log.debug("Fetching lease history for customer ID: {}", customerId);
 
-        List<LeaseResponseDTO> dtos = leases.stream()
-                .map(this::mapToLeaseResponseDTO)
-                .toList();
+        List<LeaseResponseDTO> dtos = readCoalescer.execute("leases-by-customer", customerId,
+                collectionVersionService.customerLeasesTag(customerId),
+                () -> customerLeaseHistoryCache.getByCustomer(customerId));
 
         String message = dtos.isEmpty()
                 ? "No lease history found for the customer."
@@ -150,13 +183,11 @@ public class LeaseService {
      * Get all leases for a specific car
      */
     public ResponseModel<List<LeaseResponseDTO>> getLeasesByCar(Long carId) {
-        log.info("Fetching lease history for car ID: {}", carId);
-
-        List<Lease> leases = leaseRepository.findByCarId(carId);
+        log.debug("Fetching lease history for car ID: {}", carId);
 
-        List<LeaseResponseDTO> dtos = leases.stream()
-                .map(this::mapToLeaseResponseDTO)
-                .toList();
+        // Every lease start or end changes its car's status, which moves the all-cars tag
+        List<LeaseResponseDTO> dtos = readCoalescer.execute("leases-by-car", carId,
+                collectionVersionService.allCarsTag(), () -> leaseHistoryService.findByCar(carId));
 
         String message = dtos.isEmpty()
                 ? "No lease history found for this car."
@@ -165,11 +196,84 @@ public class LeaseService {
         return ResponseModel.success(message, dtos);
     }
 
-
+    @Transactional(readOnly = true)
     public List<Lease> getAllLeases() {
         return leaseRepository.findAll();
     }
 
+    /**
+     * All leases as flat rows from the history view, for exports
+     */
+    public List<LeaseResponseDTO> getAllLeaseHistory() {
+        return readCoalescer.execute("all-lease-history", null, collectionVersionService.allCarsTag(),
+                leaseHistoryService::findAll);
+    }
+
+    /**
+     * Claims the car with a conditional update and opens the lease. Returns null when the car is no
+     * longer IDLE, so of two concurrent starts on one car only one gets a lease.
+     */
+    private Lease openLease(User customer, Car car, LocalDate plannedEndDate) {
+        if (carRepository.claimIfIdle(car.getId(), LocalDateTime.now()) != 1) {
+            return null;
+        }
+        // Keep the managed entity in line with the row so the flush does not undo the claim
+        car.setStatus(CarStatus.ON_LEASE);
+        collectionVersionService.carStatusChanged(car, CarStatus.IDLE);
+        carLocationIndex.carChanged(car);
+
+        Lease lease = new Lease();
+        lease.setCar(car);
+        lease.setCustomer(customer);
+        lease.setStartDate(LocalDate.now());
+        lease.setPlannedEndDate(plannedEndDate);
+        lease.setStatus(LeaseStatus.ACTIVE);
+
+        Lease saved = leaseRepository.save(lease);
+        leaseHistoryService.recordStarted(saved);
+        collectionVersionService.customerLeasesChanged(customer.getId());
+        customerLeaseHistoryCache.leaseStarted(saved);
+        notificationService.leaseStarted(saved);
+        leaseDeadlineTracker.leaseStarted(saved);
+        auditLogService.record(AuditAction.LEASE_STARTED, customer.getId(), saved.getId(), car.getId());
+        return saved;
+    }
+
+    /**
+     * Ends the lease with a conditional update, so of two concurrent requests only one goes on to
+     * release the car and hand it to the waitlist.
+     */
+    private boolean endIfActive(Lease lease) {
+        if (lease.getStatus() == LeaseStatus.ENDED || lease.getEndDate() != null) {
+            return false;
+        }
+        LocalDate endDate = LocalDate.now();
+        if (leaseRepository.endIfActive(lease.getId(), endDate) != 1) {
+            return false;
+        }
+        // Keep the managed entity in line with the row so the flush does not undo the update
+        lease.setEndDate(endDate);
+        lease.setStatus(LeaseStatus.ENDED);
+        return true;
+    }
+
+    /**
+     * Hands a car that just became IDLE to the first eligible customer waiting for its model.
+     * Also used by reconciliation for cars it releases; callers provide the transaction.
+     */
+    void assignToNextWaiter(Car car) {
+        waitlistService.claimNextWaiter(car.getModel()).ifPresent(entry -> {
+            Lease lease = openLease(entry.getCustomer(), car, null);
+            if (lease == null) {
+                // A direct start took the car first; the customer keeps their place in the queue
+                waitlistService.requeue(entry);
+                return;
+            }
+            waitlistService.markAssigned(entry, lease.getId());
+            log.debug("Car {} assigned to waitlisted customer {} (entry {})", car.getId(), entry.getCustomer().getId(), entry.getId());
+        });
+    }
+
     private LeaseResponseDTO mapToLeaseResponseDTO(Lease lease) {
         LeaseResponseDTO dto = new LeaseResponseDTO();
         dto.setLeaseId(lease.getId());
@@ -177,6 +281,7 @@ public class LeaseService {
         dto.setCustomerEmail(lease.getCustomer().getEmail());
         dto.setStartDate(lease.getStartDate());
         dto.setEndDate(lease.getEndDate());
+        dto.setPlannedEndDate(lease.getPlannedEndDate());
         return dto;
     }
 
@@ -0,0 +1,59 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off migration for Lease.status: fills it from endDate on rows that predate the column, in
+ * id-range batches with one short transaction each. Rows already migrated are skipped, so
+ * running it on every startup is cheap.
+ * <p>
+ * Runs once all singletons exist but before the web server starts, so no request ever reads the
+ * ACTIVE predicates while old rows still have a null status.
+ */
+@Slf4j
+@Component
+public class LeaseStatusBackfill implements SmartInitializingSingleton {
+
+    private final LeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public LeaseStatusBackfill(LeaseRepository leaseRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${trimble.lease-status.backfill-batch-size:10000}") int batchSize) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    int backfill() {
+        Long minId = leaseRepository.findMinId();
+        Long maxId = leaseRepository.findMaxId();
+        if (minId == null) {
+            return 0;
+        }
+
+        int updated = 0;
+        for (long from = minId; from <= maxId; from += batchSize) {
+            long batchFrom = from;
+            long batchTo = Math.min(from + batchSize - 1, maxId);
+            Integer rows = transactionTemplate.execute(status -> leaseRepository.backfillStatus(batchFrom, batchTo));
+            updated += rows != null ? rows : 0;
+        }
+        if (updated > 0) {
+            log.info("Backfilled lease status on {} rows", updated);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,7 @@
+package com.trimblecars.lease_service.service;
+
+/**
+ * One coalesced notification for a single recipient.
+ */
+public record NotificationMessage(String recipient, String subject, String body) {
+}
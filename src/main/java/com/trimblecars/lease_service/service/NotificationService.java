@@ -0,0 +1,305 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.DeadLetterNotificationDTO;
+import com.trimblecars.lease_service.dto.NotificationStatsDTO;
+import com.trimblecars.lease_service.entity.DeadLetterNotification;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.DeadLetterNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lease start/end/overdue notifications for the customer and the car owner.
+ * <p>
+ * Lease operations only append a line to the recipient's pending batch once their transaction
+ * commits; they never wait on delivery. A single dispatcher thread flushes all pending batches
+ * every {@code window-ms}, so events for one recipient within a window become one message, and
+ * hands them to the {@link NotificationTransport} in groups of {@code batch-size}. A failed group
+ * is retried with exponential backoff; messages that exhaust {@code max-attempts} go to the
+ * notification_dead_letter table. When more than {@code capacity} events are pending, new ones
+ * are dropped and counted rather than blocking the caller.
+ */
+@Slf4j
+@Service
+public class NotificationService {
+
+    private static final int MAX_BODY_LENGTH = 4000;
+
+    private final NotificationTransport transport;
+    private final DeadLetterNotificationRepository deadLetterRepository;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final int capacity;
+
+    private final ConcurrentHashMap<String, List<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    // Only touched by the dispatcher thread
+    private final PriorityQueue<Delivery> retries = new PriorityQueue<>(Comparator.comparingLong(Delivery::dueAt));
+    private volatile int pendingRetries;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    private ScheduledExecutorService dispatcher;
+
+    public NotificationService(NotificationTransport transport,
+                               DeadLetterNotificationRepository deadLetterRepository,
+                               @Value("${trimble.notifications.enabled:true}") boolean enabled,
+                               @Value("${trimble.notifications.window-ms:500}") long windowMs,
+                               @Value("${trimble.notifications.batch-size:100}") int batchSize,
+                               @Value("${trimble.notifications.max-attempts:5}") int maxAttempts,
+                               @Value("${trimble.notifications.backoff-ms:1000}") long backoffMs,
+                               @Value("${trimble.notifications.capacity:10000}") int capacity) {
+        this.transport = transport;
+        this.deadLetterRepository = deadLetterRepository;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatcher.shutdown();
+        if (dispatcher.awaitTermination(5, TimeUnit.SECONDS)) {
+            // Best effort for what arrived since the last tick; pending retries are not waited for
+            dispatchSafely();
+        }
+    }
+
+    public void leaseStarted(Lease lease) {
+        if (!enabled) {
+            return;
+        }
+        String customerEmail = lease.getCustomer().getEmail();
+        String car = describeCar(lease);
+        notifyAfterCommit(customerEmail,
+                "Lease #" + lease.getId() + " started for " + car + " on " + lease.getStartDate() + ".",
+                lease.getCar().getOwner(),
+                "Your car " + car + " was leased to " + customerEmail
+                        + " (lease #" + lease.getId() + ") on " + lease.getStartDate() + ".");
+    }
+
+    public void leaseEnded(Lease lease) {
+        if (!enabled) {
+            return;
+        }
+        String customerEmail = lease.getCustomer().getEmail();
+        String car = describeCar(lease);
+        notifyAfterCommit(customerEmail,
+                "Lease #" + lease.getId() + " for " + car + " ended on " + lease.getEndDate() + ".",
+                lease.getCar().getOwner(),
+                "Your car " + car + " was returned by " + customerEmail
+                        + " (lease #" + lease.getId() + ") on " + lease.getEndDate() + ".");
+    }
+
+    public void leaseOverdue(Lease lease) {
+        if (!enabled) {
+            return;
+        }
+        String customerEmail = lease.getCustomer().getEmail();
+        String car = describeCar(lease);
+        notifyAfterCommit(customerEmail,
+                "Lease #" + lease.getId() + " for " + car + " was due back on " + lease.getPlannedEndDate() + ".",
+                lease.getCar().getOwner(),
+                "Your car " + car + " leased to " + customerEmail
+                        + " (lease #" + lease.getId() + ") is overdue since " + lease.getPlannedEndDate() + ".");
+    }
+
+    public NotificationStatsDTO getStats() {
+        NotificationStatsDTO dto = new NotificationStatsDTO();
+        dto.setEnabled(enabled);
+        dto.setPendingEvents(pendingEvents.get());
+        dto.setPendingRetries(pendingRetries);
+        dto.setEnqueued(enqueued.sum());
+        dto.setDropped(dropped.sum());
+        dto.setDelivered(delivered.sum());
+        dto.setBatches(batches.sum());
+        dto.setRetried(retried.sum());
+        dto.setDeadLettered(deadLettered.sum());
+        return dto;
+    }
+
+    public ResponseModel<List<DeadLetterNotificationDTO>> getDeadLetters() {
+        List<DeadLetterNotificationDTO> dtos = deadLetterRepository.findTop100ByOrderByIdDesc().stream()
+                .map(this::mapToDeadLetterDTO)
+                .toList();
+        String message = dtos.isEmpty()
+                ? "No undeliverable notifications."
+                : "Undeliverable notifications fetched successfully.";
+        return ResponseModel.success(message, dtos);
+    }
+
+    void enqueue(String recipient, String line) {
+        if (recipient == null) {
+            return;
+        }
+        if (pendingEvents.incrementAndGet() > capacity) {
+            pendingEvents.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.compute(recipient, (key, lines) -> {
+            List<String> batch = lines != null ? lines : new ArrayList<>(4);
+            batch.add(line);
+            return batch;
+        });
+        enqueued.increment();
+    }
+
+    /**
+     * One dispatcher tick: coalesces everything pending into one message per recipient, adds the
+     * retries that are due, and sends them in batches.
+     */
+    void dispatchOnce() {
+        long now = System.currentTimeMillis();
+        List<Delivery> ready = new ArrayList<>();
+        while (!retries.isEmpty() && retries.peek().dueAt() <= now) {
+            ready.add(retries.poll());
+        }
+        for (String recipient : pending.keySet()) {
+            List<String> lines = pending.remove(recipient);
+            if (lines != null) {
+                pendingEvents.addAndGet(-lines.size());
+                ready.add(new Delivery(toMessage(recipient, lines), 0, now));
+            }
+        }
+
+        for (int from = 0; from < ready.size(); from += batchSize) {
+            send(ready.subList(from, Math.min(from + batchSize, ready.size())), now);
+        }
+        pendingRetries = retries.size();
+    }
+
+    private void dispatchSafely() {
+        try {
+            dispatchOnce();
+        } catch (RuntimeException ex) {
+            log.error("Notification dispatch failed", ex);
+        }
+    }
+
+    private void send(List<Delivery> batch, long now) {
+        List<NotificationMessage> messages = batch.stream().map(Delivery::message).toList();
+        try {
+            transport.send(messages);
+            delivered.add(messages.size());
+            batches.increment();
+        } catch (Exception ex) {
+            log.warn("Notification batch of {} failed: {}", messages.size(), ex.getMessage());
+            List<DeadLetterNotification> dead = new ArrayList<>();
+            for (Delivery delivery : batch) {
+                int attempts = delivery.attempts() + 1;
+                if (attempts >= maxAttempts || retries.size() >= capacity) {
+                    dead.add(toDeadLetter(delivery.message(), attempts, ex));
+                } else {
+                    long delay = backoffMs << Math.min(attempts - 1, 16);
+                    retries.add(new Delivery(delivery.message(), attempts, now + delay));
+                    retried.increment();
+                }
+            }
+            storeDeadLetters(dead);
+        }
+    }
+
+    private void storeDeadLetters(List<DeadLetterNotification> dead) {
+        if (dead.isEmpty()) {
+            return;
+        }
+        try {
+            deadLetterRepository.saveAll(dead);
+            deadLettered.add(dead.size());
+        } catch (RuntimeException ex) {
+            log.error("Could not store {} undeliverable notifications", dead.size(), ex);
+        }
+    }
+
+    private NotificationMessage toMessage(String recipient, List<String> lines) {
+        String subject = lines.size() == 1 ? "Lease update" : lines.size() + " lease updates";
+        return new NotificationMessage(recipient, subject, String.join("\n", lines));
+    }
+
+    private DeadLetterNotification toDeadLetter(NotificationMessage message, int attempts, Exception error) {
+        DeadLetterNotification dead = new DeadLetterNotification();
+        dead.setRecipient(message.recipient());
+        dead.setSubject(message.subject());
+        dead.setBody(truncate(message.body(), MAX_BODY_LENGTH));
+        dead.setAttempts(attempts);
+        dead.setLastError(truncate(String.valueOf(error.getMessage()), 500));
+        dead.setFailedAt(LocalDateTime.now());
+        return dead;
+    }
+
+    private DeadLetterNotificationDTO mapToDeadLetterDTO(DeadLetterNotification dead) {
+        DeadLetterNotificationDTO dto = new DeadLetterNotificationDTO();
+        dto.setId(dead.getId());
+        dto.setRecipient(dead.getRecipient());
+        dto.setSubject(dead.getSubject());
+        dto.setBody(dead.getBody());
+        dto.setAttempts(dead.getAttempts());
+        dto.setLastError(dead.getLastError());
+        dto.setFailedAt(dead.getFailedAt());
+        return dto;
+    }
+
+    private void notifyAfterCommit(String customerEmail, String customerLine, User owner, String ownerLine) {
+        String ownerEmail = owner != null ? owner.getEmail() : null;
+        TransactionHooks.afterCommit(() -> {
+            enqueue(customerEmail, customerLine);
+            enqueue(ownerEmail, ownerLine);
+        });
+    }
+
+    private static String describeCar(Lease lease) {
+        return lease.getCar().getModel() + " (car " + lease.getCar().getId() + ")";
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private record Delivery(NotificationMessage message, int attempts, long dueAt) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.trimblecars.lease_service.service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Delivery channel for notifications. A batch either succeeds or fails as a whole; failed batches
+ * are retried by {@link NotificationService}, so implementations should be safe to call again.
+ */
+public interface NotificationTransport {
+
+    void send(List<NotificationMessage> batch) throws IOException;
+}
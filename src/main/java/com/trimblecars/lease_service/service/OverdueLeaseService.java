@@ -0,0 +1,109 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.LeaseDeadlineStatsDTO;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.enums.AuditAction;
+import com.trimblecars.lease_service.enums.OverdueAction;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acts on lease deadlines as the {@link LeaseDeadlineTracker} wheel fires them: every tick the due
+ * ids are checked in batches (one query per batch keeps only still-ACTIVE leases), then each
+ * overdue lease is either reported to customer and owner or ended through
+ * {@link LeaseService#endLease(Long)}, per {@code trimble.lease-deadlines.action}.
+ */
+@Slf4j
+@Service
+public class OverdueLeaseService {
+
+    private final LeaseDeadlineTracker tracker;
+    private final LeaseRepository leaseRepository;
+    private final LeaseService leaseService;
+    private final NotificationService notificationService;
+    private final AuditLogService auditLogService;
+    private final OverdueAction action;
+    private final int batchSize;
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder alerted = new LongAdder();
+    private final LongAdder autoEnded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public OverdueLeaseService(LeaseDeadlineTracker tracker,
+                               LeaseRepository leaseRepository,
+                               LeaseService leaseService,
+                               NotificationService notificationService,
+                               AuditLogService auditLogService,
+                               @Value("${trimble.lease-deadlines.action:ALERT}") OverdueAction action,
+                               @Value("${trimble.lease-deadlines.batch-size:500}") int batchSize) {
+        this.tracker = tracker;
+        this.leaseRepository = leaseRepository;
+        this.leaseService = leaseService;
+        this.notificationService = notificationService;
+        this.auditLogService = auditLogService;
+        this.action = action;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${trimble.lease-deadlines.tick-ms:60000}")
+    public void fireDue() {
+        fire(System.currentTimeMillis());
+    }
+
+    public LeaseDeadlineStatsDTO getStats() {
+        LeaseDeadlineStatsDTO dto = new LeaseDeadlineStatsDTO();
+        dto.setAction(action.name());
+        dto.setPending(tracker.pending());
+        dto.setFired(fired.sum());
+        dto.setAlerted(alerted.sum());
+        dto.setAutoEnded(autoEnded.sum());
+        dto.setSkipped(skipped.sum());
+        dto.setFailed(failed.sum());
+        return dto;
+    }
+
+    int fire(long nowMs) {
+        long[] due = tracker.pollDue(nowMs);
+        fired.add(due.length);
+        for (int from = 0; from < due.length; from += batchSize) {
+            List<Long> ids = new ArrayList<>(Math.min(batchSize, due.length - from));
+            for (int i = from; i < Math.min(from + batchSize, due.length); i++) {
+                ids.add(due[i]);
+            }
+            List<Lease> overdue = leaseRepository.findActiveByIdIn(ids);
+            skipped.add(ids.size() - overdue.size());
+            for (Lease lease : overdue) {
+                handle(lease);
+            }
+        }
+        return due.length;
+    }
+
+    private void handle(Lease lease) {
+        try {
+            if (action == OverdueAction.AUTO_END) {
+                leaseService.endLease(lease.getId());
+                autoEnded.increment();
+                log.info("Auto-ended lease {} (planned end {})", lease.getId(), lease.getPlannedEndDate());
+            } else {
+                notificationService.leaseOverdue(lease);
+                auditLogService.record(AuditAction.LEASE_OVERDUE, null, lease.getId(), lease.getCar().getId());
+                alerted.increment();
+                log.warn("Lease {} on car {} is overdue (planned end {})",
+                        lease.getId(), lease.getCar().getId(), lease.getPlannedEndDate());
+            }
+        } catch (RuntimeException ex) {
+            failed.increment();
+            log.error("Could not handle overdue lease {}", lease.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLeasedDaysRow;
+import com.trimblecars.lease_service.dto.OwnerCarLeaseRow;
+import com.trimblecars.lease_service.dto.OwnerCarSummaryDTO;
+import com.trimblecars.lease_service.dto.OwnerDashboardDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds an owner's fleet overview from two grouped queries instead of one lease lookup per car.
+ * Results are cached per owner for a few seconds and dropped as soon as the owner's cars change.
+ */
+@Slf4j
+@Service
+public class OwnerDashboardService {
+
+    private static final int MAX_CACHED_OWNERS = 1_000;
+
+    private final CarRepository carRepository;
+    private final LeaseRepository leaseRepository;
+    private final CollectionVersionService collectionVersionService;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Long, CachedDashboard> cache = new ConcurrentHashMap<>();
+
+    public OwnerDashboardService(CarRepository carRepository,
+                                 LeaseRepository leaseRepository,
+                                 CollectionVersionService collectionVersionService,
+                                 @Value("${trimble.dashboard.cache-ttl-ms:5000}") long ttlMillis) {
+        this.carRepository = carRepository;
+        this.leaseRepository = leaseRepository;
+        this.collectionVersionService = collectionVersionService;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public ResponseModel<OwnerDashboardDTO> getDashboard(Long ownerId) {
+        String version = collectionVersionService.ownerCarsTag(ownerId);
+        long now = System.currentTimeMillis();
+
+        CachedDashboard cached = cache.get(ownerId);
+        if (cached != null && cached.expiresAt() > now && cached.version().equals(version)) {
+            return ResponseModel.success("Owner dashboard fetched successfully.", cached.dashboard());
+        }
+
+        OwnerDashboardDTO dashboard = buildDashboard(ownerId);
+        if (cache.size() >= MAX_CACHED_OWNERS) {
+            cache.clear();
+        }
+        cache.put(ownerId, new CachedDashboard(dashboard, version, now + ttlMillis));
+
+        return ResponseModel.success("Owner dashboard fetched successfully.", dashboard);
+    }
+
+    private OwnerDashboardDTO buildDashboard(Long ownerId) {
+        log.debug("Building dashboard for owner ID: {}", ownerId);
+
+        List<OwnerCarLeaseRow> rows = carRepository.findOwnerCarsWithOpenLease(ownerId);
+        Map<Long, Long> leasedDays = new HashMap<>();
+        for (CarLeasedDaysRow row : leaseRepository.sumLeasedDaysByCarForOwner(ownerId, LocalDate.now())) {
+            leasedDays.put(row.carId(), row.leasedDays() != null ? row.leasedDays() : 0L);
+        }
+
+        Map<CarStatus, Long> counts = new EnumMap<>(CarStatus.class);
+        for (CarStatus status : CarStatus.values()) {
+            counts.put(status, 0L);
+        }
+
+        List<OwnerCarSummaryDTO> cars = new ArrayList<>(rows.size());
+        OwnerCarSummaryDTO last = null;
+        for (OwnerCarLeaseRow row : rows) {
+            // A car with more than one open lease (inconsistent data) is reported once
+            if (last != null && last.getCarId().equals(row.carId())) {
+                continue;
+            }
+            if (row.status() != null) {
+                counts.merge(row.status(), 1L, Long::sum);
+            }
+            last = mapToSummary(row, leasedDays.getOrDefault(row.carId(), 0L));
+            cars.add(last);
+        }
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        counts.forEach((status, count) -> statusCounts.put(status.name(), count));
+
+        OwnerDashboardDTO dto = new OwnerDashboardDTO();
+        dto.setOwnerId(ownerId);
+        dto.setStatusCounts(statusCounts);
+        dto.setCars(cars);
+        dto.setGeneratedAt(LocalDateTime.now());
+        return dto;
+    }
+
+    private OwnerCarSummaryDTO mapToSummary(OwnerCarLeaseRow row, long totalLeasedDays) {
+        OwnerCarSummaryDTO dto = new OwnerCarSummaryDTO();
+        dto.setCarId(row.carId());
+        dto.setModel(row.model());
+        dto.setStatus(row.status() != null ? row.status().name() : null);
+        dto.setCurrentLeaseId(row.leaseId());
+        dto.setCurrentCustomerEmail(row.customerEmail());
+        dto.setCurrentLeaseStartDate(row.leaseStartDate());
+        dto.setTotalLeasedDays(totalLeasedDays);
+        return dto;
+    }
+
+    private record CachedDashboard(OwnerDashboardDTO dashboard, String version, long expiresAt) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.enums.RouteClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-client token buckets (one budget per {@link RouteClass}) plus a global in-flight limit.
+ * Both checks are a map lookup and a CAS, so they can run on every request.
+ */
+@Slf4j
+@Service
+public class RateLimiterService {
+
+    private final Map<RouteClass, ConcurrentHashMap<String, TokenBucket>> buckets = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Budget> budgets = new EnumMap<>(RouteClass.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxInFlight;
+    private final long idleNanos;
+
+    public RateLimiterService(@Value("${trimble.ratelimit.read.per-second:20}") double readRate,
+                              @Value("${trimble.ratelimit.read.burst:40}") int readBurst,
+                              @Value("${trimble.ratelimit.write.per-second:5}") double writeRate,
+                              @Value("${trimble.ratelimit.write.burst:10}") int writeBurst,
+                              @Value("${trimble.ratelimit.export.per-second:0.1}") double exportRate,
+                              @Value("${trimble.ratelimit.export.burst:1}") int exportBurst,
+                              @Value("${trimble.ratelimit.max-in-flight:200}") int maxInFlight,
+                              @Value("${trimble.ratelimit.idle-seconds:300}") long idleSeconds) {
+        budgets.put(RouteClass.READ, new Budget(readRate, readBurst));
+        budgets.put(RouteClass.WRITE, new Budget(writeRate, writeBurst));
+        budgets.put(RouteClass.EXPORT, new Budget(exportRate, exportBurst));
+        for (RouteClass routeClass : RouteClass.values()) {
+            buckets.put(routeClass, new ConcurrentHashMap<>());
+        }
+        this.maxInFlight = maxInFlight;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    }
+
+    /**
+     * @return 0 if the client may proceed, otherwise nanoseconds until its next token
+     */
+    public long tryAcquire(RouteClass routeClass, String clientKey) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(routeClass).get(clientKey);
+        if (bucket == null) {
+            Budget budget = budgets.get(routeClass);
+            bucket = buckets.get(routeClass)
+                    .computeIfAbsent(clientKey, k -> new TokenBucket(budget.permitsPerSecond(), budget.burst(), now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Reserves a global in-flight slot; callers that get {@code true} must call {@link #exit()}.
+     */
+    public boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int trackedClients() {
+        return buckets.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${trimble.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = trackedClients();
+        buckets.values().forEach(map -> map.values().removeIf(bucket -> bucket.isIdle(now, idleNanos)));
+        int evicted = before - trackedClients();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+
+    private record Budget(double permitsPerSecond, int burst) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only customer browsing over R2DBC, next to the JPA services used by the MVC endpoints.
+ * Rows are mapped straight from the result stream into DTOs and emitted as the subscriber asks
+ * for them, so a slow client holds neither a JDBC connection nor a full result list.
+ * <p>
+ * Connections come from a pool of up to {@code pool-max-size}, not one new connection per query.
+ * The pool is deliberately not a bean: Boot skips its JDBC DataSource when it finds a connection
+ * factory. The H2 driver runs its calls on the subscribing thread, hence {@code subscribeOn}; with a
+ * network driver (e.g. PostgreSQL) that hop can go.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "trimble.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveBrowseService {
+
+    private static final String AVAILABLE_CARS_SQL =
+            "select c.id, c.model, cast(c.status as varchar) as status, c.latitude, c.longitude, u.email as owner_email " +
+            "from car c left join app_user u on u.id = c.owner_id where c.status = :status order by c.id";
+
+    private static final String CUSTOMER_LEASES_SQL =
+            "select v.lease_id, v.car_model, v.customer_email, v.start_date, v.end_date " +
+            "from lease_history_view v where v.customer_id = :customerId order by v.lease_id";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveBrowseService(@Value("${trimble.reactive.url:r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1}") String url,
+                                 @Value("${spring.datasource.username:sa}") String username,
+                                 @Value("${spring.datasource.password:}") String password,
+                                 @Value("${trimble.reactive.pool-max-size:10}") int poolMaxSize) {
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(
+                        ConnectionFactoryOptions.parse(url).mutate()
+                                .option(ConnectionFactoryOptions.USER, username)
+                                .option(ConnectionFactoryOptions.PASSWORD, password)
+                                .build()))
+                .initialSize(0)
+                .maxSize(poolMaxSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+        log.info("Reactive browsing reads from {} (pool of up to {})", url, poolMaxSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.dispose();
+    }
+
+    public Flux<CarResponseDTO> availableCars() {
+        return client.sql(AVAILABLE_CARS_SQL)
+                .bind("status", CarStatus.IDLE.name())
+                .map((row, metadata) -> mapToCarResponseDTO(row))
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<LeaseResponseDTO> customerLeases(Long customerId) {
+        return client.sql(CUSTOMER_LEASES_SQL)
+                .bind("customerId", customerId)
+                .map((row, metadata) -> mapToLeaseResponseDTO(row))
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private CarResponseDTO mapToCarResponseDTO(Row row) {
+        CarResponseDTO dto = new CarResponseDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setModel(row.get("model", String.class));
+        dto.setStatus(row.get("status", String.class));
+        dto.setOwnerEmail(row.get("owner_email", String.class));
+        dto.setLatitude(row.get("latitude", Double.class));
+        dto.setLongitude(row.get("longitude", Double.class));
+        return dto;
+    }
+
+    private LeaseResponseDTO mapToLeaseResponseDTO(Row row) {
+        return new LeaseResponseDTO(
+                row.get("lease_id", Long.class),
+                row.get("car_model", String.class),
+                row.get("customer_email", String.class),
+                row.get("start_date", LocalDate.class),
+                row.get("end_date", LocalDate.class));
+    }
+}
@@ -0,0 +1,168 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.SingleFlightStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for read methods: concurrent calls with the same operation, argument and version
+ * share one execution of the loader and its result (or its exception). The caller that arrives
+ * first runs the loader on its own thread; the others wait for it without holding a connection.
+ * <p>
+ * Callers pass the collection version tag read before loading, so a call that starts after a
+ * write has committed never joins a flight that may have read the old data. With
+ * {@code cache-ms > 0} a finished result is also served to calls arriving within that window,
+ * under the same version. Failures are never cached. If the leader is interrupted, its waiters
+ * do not inherit that failure; one of them runs the loader again. A waiter that is interrupted
+ * stops waiting and leaves the flight running for the others.
+ */
+@Service
+public class ReadCoalescer {
+
+    private final boolean enabled;
+    private final long cacheNanos;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(@Value("${trimble.single-flight.enabled:true}") boolean enabled,
+                         @Value("${trimble.single-flight.cache-ms:0}") long cacheMs,
+                         @Value("${trimble.single-flight.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.cacheNanos = TimeUnit.MILLISECONDS.toNanos(cacheMs);
+        this.maxEntries = maxEntries;
+    }
+
+    public <T> T execute(String operation, Object argument, String version, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Counters stats = counters.computeIfAbsent(operation, name -> new Counters());
+        stats.calls.increment();
+        Key key = new Key(operation, argument, version);
+
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, loader, stats);
+            }
+            if (existing.result.isDone()) {
+                if (existing.expiresAt - System.nanoTime() > 0 && !existing.result.isCompletedExceptionally()) {
+                    stats.cacheHits.increment();
+                    return await(existing);
+                }
+                flights.remove(key, existing);
+                continue;
+            }
+            stats.joined.increment();
+            try {
+                return await(existing);
+            } catch (CancellationException ex) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw ex;
+                }
+                // The leader was interrupted; try again, possibly as the new leader
+            }
+        }
+    }
+
+    public List<SingleFlightStatsDTO> getStats() {
+        List<SingleFlightStatsDTO> stats = new ArrayList<>();
+        for (Map.Entry<String, Counters> entry : new TreeMap<>(counters).entrySet()) {
+            Counters counter = entry.getValue();
+            SingleFlightStatsDTO dto = new SingleFlightStatsDTO();
+            dto.setOperation(entry.getKey());
+            dto.setCalls(counter.calls.sum());
+            dto.setExecutions(counter.executions.sum());
+            dto.setJoined(counter.joined.sum());
+            dto.setCacheHits(counter.cacheHits.sum());
+            dto.setFailures(counter.failures.sum());
+            stats.add(dto);
+        }
+        return stats;
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+
+    private <T> T lead(Key key, Flight flight, Supplier<T> loader, Counters stats) {
+        stats.executions.increment();
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error ex) {
+            stats.failures.increment();
+            flights.remove(key, flight);
+            if (Thread.currentThread().isInterrupted()) {
+                flight.result.cancel(false);
+            } else {
+                flight.result.completeExceptionally(ex);
+            }
+            throw ex;
+        }
+
+        if (cacheNanos > 0) {
+            // Set before completing, so every caller that sees the result also sees its expiry
+            flight.expiresAt = System.nanoTime() + cacheNanos;
+            if (flights.size() > maxEntries) {
+                long now = System.nanoTime();
+                flights.entrySet().removeIf(entry -> entry.getValue().result.isDone()
+                        && entry.getValue().expiresAt - now <= 0);
+            }
+        } else {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(Flight flight) {
+        try {
+            return (T) flight.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a shared read");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private record Key(String operation, Object argument, String version) {
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Until when a finished result may be reused (System.nanoTime); only set with cache-ms > 0
+        private volatile long expiresAt;
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder joined = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+}
@@ -0,0 +1,135 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.config.ReplicaRouting;
+import com.trimblecars.lease_service.dto.ReplicaStatusDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Decides whether read-only transactions may use the replica. Every check writes a heartbeat row
+ * (the primary's current time) on the primary and reads back the newest one that has reached the
+ * replica; the difference is the replication lag. The replica is healthy while it answers and
+ * its lag is within {@code max-lag-ms}.
+ * <p>
+ * With {@code read-your-writes} (the default) a healthy replica is additionally skipped until its
+ * heartbeat is newer than the request's read floor: the last change to the lists whose tags the
+ * request read, or to any list when it read none (see {@link CollectionVersionService#readFloor()}).
+ * A list is never older than the ETag it is sent with, a client sees its own writes, and a write
+ * to one customer's leases does not send every other reader to the primary. Routing starts once
+ * the app accepts traffic; startup loaders read from the primary.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "trimble.replica.enabled", havingValue = "true")
+public class ReplicaHealthMonitor {
+
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+
+    private final ReplicaRouting routing;
+    private final CollectionVersionService collectionVersionService;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final boolean readYourWrites;
+
+    private volatile boolean accepting;
+    private volatile boolean healthy;
+    // Primary time of the newest heartbeat seen on the replica (epoch millis), 0 until one arrives
+    private volatile long replicatedThrough;
+    private volatile Long lagMs;
+    private volatile Instant lastCheckedAt;
+    private volatile String lastError;
+
+    public ReplicaHealthMonitor(ReplicaRouting routing,
+                                CollectionVersionService collectionVersionService,
+                                @Value("${trimble.replica.max-lag-ms:2000}") long maxLagMs,
+                                @Value("${trimble.replica.read-your-writes:true}") boolean readYourWrites,
+                                @Value("${trimble.replica.query-timeout-seconds:2}") int queryTimeoutSeconds) {
+        this.routing = routing;
+        this.collectionVersionService = collectionVersionService;
+        this.primary = new JdbcTemplate(routing.primary());
+        this.replica = new JdbcTemplate(routing.replica());
+        this.replica.setQueryTimeout(queryTimeoutSeconds);
+        this.maxLagMs = maxLagMs;
+        this.readYourWrites = readYourWrites;
+
+        // Outside the JPA model, so create-drop leaves it alone
+        primary.execute("create table if not exists " + HEARTBEAT_TABLE + " (id int primary key, beat_at bigint not null)");
+        routing.useReplicaWhen(this::replicaReadable);
+    }
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        accepting = event.getState() == ReadinessState.ACCEPTING_TRAFFIC;
+        log.info("Read replica routing {}", accepting ? "started" : "paused");
+    }
+
+    @Scheduled(fixedDelayString = "${trimble.replica.check-interval-ms:500}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        boolean wasHealthy = healthy;
+        try {
+            beat(now);
+            Long beatAt = replica.query("select beat_at from " + HEARTBEAT_TABLE + " where id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (beatAt == null) {
+                healthy = false;
+                lastError = "No heartbeat on the replica yet";
+            } else {
+                replicatedThrough = beatAt;
+                lagMs = Math.max(0, now - beatAt);
+                healthy = lagMs <= maxLagMs;
+                lastError = healthy ? null : "Replica is " + lagMs + " ms behind (max " + maxLagMs + " ms)";
+            }
+        } catch (DataAccessException ex) {
+            healthy = false;
+            lastError = ex.getMostSpecificCause().getMessage();
+        }
+        lastCheckedAt = Instant.ofEpochMilli(now);
+
+        if (wasHealthy && !healthy) {
+            log.warn("Read replica unhealthy, reading from the primary: {}", lastError);
+        } else if (!wasHealthy && healthy) {
+            log.info("Read replica healthy, lag {} ms", lagMs);
+        }
+    }
+
+    public ReplicaStatusDTO getStatus() {
+        ReplicaStatusDTO dto = new ReplicaStatusDTO();
+        dto.setHealthy(healthy);
+        dto.setRouting(accepting);
+        dto.setReplicatedThrough(replicatedThrough == 0 ? null : Instant.ofEpochMilli(replicatedThrough));
+        dto.setLagMs(lagMs);
+        dto.setMaxLagMs(maxLagMs);
+        dto.setLastCheckedAt(lastCheckedAt);
+        dto.setLastError(lastError);
+        dto.setReplicaConnections(routing.replicaConnections());
+        dto.setPrimaryConnections(routing.primaryConnections());
+        dto.setReplicaFailures(routing.replicaFailures());
+        return dto;
+    }
+
+    boolean replicaReadable() {
+        if (!accepting || !healthy) {
+            return false;
+        }
+        // Strictly newer: a heartbeat from the same millisecond may have committed before the change
+        return !readYourWrites || replicatedThrough > collectionVersionService.readFloor();
+    }
+
+    private void beat(long now) {
+        if (primary.update("update " + HEARTBEAT_TABLE + " set beat_at = ? where id = 1", now) == 0) {
+            primary.update("insert into " + HEARTBEAT_TABLE + " (id, beat_at) values (1, ?)", now);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.config.ReplicaRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stands in for database replication when both sides are local H2 databases (the "replica"
+ * profile). On the first run it copies the primary's schema to the replica; every run after that
+ * copies all table contents from one consistent snapshot of the primary, replacing the replica's
+ * rows in a single transaction, heartbeat included. It is a full copy each time, meant for local
+ * runs and tests, not for real data volumes; with a real replica, leave it disabled.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = {"trimble.replica.enabled", "trimble.replica.stand-in.enabled"}, havingValue = "true")
+public class ReplicationStandIn {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ReplicaRouting routing;
+
+    private volatile boolean started;
+    private boolean schemaCopied;
+
+    public ReplicationStandIn(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        started = true;
+    }
+
+    @Scheduled(initialDelayString = "${trimble.replica.stand-in.interval-ms:1000}",
+            fixedDelayString = "${trimble.replica.stand-in.interval-ms:1000}")
+    public void replicate() {
+        if (!started) {
+            return;
+        }
+        try {
+            int rows = copyOnce();
+            log.debug("Replication stand-in copied {} rows", rows);
+        } catch (SQLException ex) {
+            log.warn("Replication stand-in failed: {}", ex.getMessage());
+        }
+    }
+
+    synchronized int copyOnce() throws SQLException {
+        try (Connection source = routing.primary().getConnection();
+             Connection target = routing.replica().getConnection()) {
+            if (!schemaCopied) {
+                copySchema(source, target);
+                schemaCopied = true;
+            }
+
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            try {
+                int rows = 0;
+                for (String table : tables(source)) {
+                    rows += copyTable(source, target, table);
+                }
+                target.commit();
+                return rows;
+            } catch (SQLException ex) {
+                target.rollback();
+                throw ex;
+            } finally {
+                source.rollback();
+            }
+        }
+    }
+
+    private static void copySchema(Connection source, Connection target) throws SQLException {
+        try (Statement read = source.createStatement();
+             ResultSet script = read.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS");
+             Statement write = target.createStatement()) {
+            while (script.next()) {
+                String sql = script.getString(1);
+                if (!sql.startsWith("--") && !sql.startsWith("CREATE USER")) {
+                    write.execute(sql);
+                }
+            }
+            // Tables are refilled one after another, so foreign keys only hold once the copy commits
+            write.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+        log.info("Replication stand-in copied the schema to the replica");
+    }
+
+    private static List<String> tables(Connection source) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery("select table_name from information_schema.tables " +
+                     "where table_schema = 'PUBLIC' and table_type = 'BASE TABLE' order by table_name")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    private static int copyTable(Connection source, Connection target, String table) throws SQLException {
+        String quoted = "\"" + table + "\"";
+        try (Statement clear = target.createStatement()) {
+            clear.executeUpdate("delete from " + quoted);
+        }
+        try (Statement read = source.createStatement();
+             ResultSet rows = read.executeQuery("select * from " + quoted)) {
+            ResultSetMetaData meta = rows.getMetaData();
+            int columns = meta.getColumnCount();
+            // ENUM columns are copied by name, not through getObject
+            boolean[] byName = new boolean[columns + 1];
+            for (int column = 1; column <= columns; column++) {
+                byName[column] = "ENUM".equalsIgnoreCase(meta.getColumnTypeName(column));
+            }
+            String insert = "insert into " + quoted + " values (" + "?, ".repeat(columns - 1) + "?)";
+            try (PreparedStatement write = target.prepareStatement(insert)) {
+                int count = 0;
+                while (rows.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        if (byName[column]) {
+                            write.setString(column, rows.getString(column));
+                        } else {
+                            write.setObject(column, rows.getObject(column));
+                        }
+                    }
+                    write.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        write.executeBatch();
+                    }
+                }
+                write.executeBatch();
+                return count;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.trimblecars.lease_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Writes and reads warm-start snapshots of {@link Snapshottable} structures.
+ * <p>
+ * File layout (big-endian): magic, file format version, payload version, high-water mark,
+ * written-at millis, payload length, CRC32 of the payload, then the payload. Files are written to
+ * a temp file and moved into place, and read through a memory map; a snapshot with the wrong
+ * magic, version, length or checksum is ignored and the caller falls back to a full load.
+ * <p>
+ * Off by default: a snapshot is only meaningful against a database that outlives the process,
+ * which the default in-memory H2 does not.
+ */
+@Slf4j
+@Service
+public class SnapshotService {
+
+    static final int MAGIC = 0x54435331; // "TCS1"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 8 + 8;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final ObjectProvider<Snapshottable> participants;
+
+    public SnapshotService(@Value("${trimble.snapshot.enabled:false}") boolean enabled,
+                           @Value("${trimble.snapshot.directory:data/snapshots}") String directory,
+                           ObjectProvider<Snapshottable> participants) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.participants = participants;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(initialDelayString = "${trimble.snapshot.interval-ms:300000}",
+            fixedDelayString = "${trimble.snapshot.interval-ms:300000}")
+    public void writeAll() {
+        if (!enabled) {
+            return;
+        }
+        participants.orderedStream().forEach(participant -> {
+            try {
+                write(participant);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not write {} snapshot: {}", participant.snapshotName(), ex.getMessage());
+            }
+        });
+    }
+
+    public void write(Snapshottable participant) throws IOException {
+        long started = System.currentTimeMillis();
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64 * 1024);
+        long highWaterMark;
+        try (DataOutputStream payload = new DataOutputStream(payloadBytes)) {
+            highWaterMark = participant.writeSnapshot(payload);
+        }
+        byte[] payload = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(participant.snapshotVersion())
+                .putLong(highWaterMark)
+                .putLong(System.currentTimeMillis())
+                .putLong(payload.length)
+                .putLong(crc.getValue())
+                .flip();
+
+        Files.createDirectories(directory);
+        Path target = file(participant);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(payload)});
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("Wrote {} snapshot: {} bytes in {} ms", participant.snapshotName(),
+                HEADER_BYTES + payload.length, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Maps the participant's snapshot, if enabled and valid. The payload buffer is read-only and
+     * stays valid after this returns.
+     */
+    public Optional<Snapshot> read(Snapshottable participant) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path file = file(participant);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC
+                    || buffer.getInt() != FORMAT_VERSION || buffer.getInt() != participant.snapshotVersion()) {
+                log.warn("Ignoring {} snapshot: unrecognised header or version", participant.snapshotName());
+                return Optional.empty();
+            }
+            long highWaterMark = buffer.getLong();
+            long writtenAt = buffer.getLong();
+            long length = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (length != buffer.remaining()) {
+                log.warn("Ignoring {} snapshot: truncated", participant.snapshotName());
+                return Optional.empty();
+            }
+
+            ByteBuffer payload = buffer.slice().asReadOnlyBuffer();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                log.warn("Ignoring {} snapshot: checksum mismatch", participant.snapshotName());
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(highWaterMark, writtenAt, payload));
+        } catch (IOException ex) {
+            log.warn("Could not read {} snapshot: {}", participant.snapshotName(), ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Path file(Snapshottable participant) {
+        return directory.resolve(participant.snapshotName() + ".snap");
+    }
+
+    public record Snapshot(long highWaterMark, long writtenAt, ByteBuffer payload) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.trimblecars.lease_service.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * In-memory structure that {@link SnapshotService} periodically persists for warm starts.
+ */
+public interface Snapshottable {
+
+    /**
+     * File name stem; one snapshot file per structure.
+     */
+    String snapshotName();
+
+    /**
+     * Payload layout version; snapshots written with another version are ignored.
+     */
+    int snapshotVersion();
+
+    /**
+     * Writes the current state and returns the high-water mark (epoch millis) it is complete up
+     * to; the structure catches up from this mark after restoring.
+     */
+    long writeSnapshot(DataOutputStream out) throws IOException;
+}
@@ -0,0 +1,164 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.RequestSqlStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-scoped SQL counters (statements, rows fetched, DB time) plus a log of the slowest requests.
+ * Only exists when trimble.diagnostics.sql.enabled=true; the JDBC proxy and statement inspector
+ * report into the current thread's stats through the static hooks below.
+ */
+@Service
+@ConditionalOnProperty(name = "trimble.diagnostics.sql.enabled", havingValue = "true")
+public class SqlDiagnosticsService {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private final int slowLogSize;
+    private final int maxSqlPerRequest;
+
+    private final PriorityQueue<RequestSqlStatsDTO> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(RequestSqlStatsDTO::getElapsedMs));
+    // Requests faster than this cannot enter a full slow log, so they skip the lock
+    private volatile long slowLogThresholdMs = -1;
+
+    public SqlDiagnosticsService(@Value("${trimble.diagnostics.sql.slow-log-size:20}") int slowLogSize,
+                                 @Value("${trimble.diagnostics.sql.max-sql-per-request:50}") int maxSqlPerRequest) {
+        this.slowLogSize = Math.max(1, slowLogSize);
+        this.maxSqlPerRequest = maxSqlPerRequest;
+    }
+
+    public RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats(maxSqlPerRequest);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Unbinds the stats from this thread while an async request waits; {@link #resume} binds them
+     * again on the thread that finishes the request.
+     */
+    public void suspend() {
+        CURRENT.remove();
+    }
+
+    public void resume(RequestSqlStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public void end(String request, long elapsedNanos, RequestSqlStats stats) {
+        CURRENT.remove();
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (elapsedMs <= slowLogThresholdMs) {
+            return;
+        }
+
+        RequestSqlStatsDTO entry = new RequestSqlStatsDTO();
+        entry.setRequest(request);
+        entry.setCompletedAt(LocalDateTime.now());
+        entry.setElapsedMs(elapsedMs);
+        entry.setStatements(stats.getStatements());
+        entry.setRowsFetched(stats.getRowsFetched());
+        entry.setDbTimeMs(TimeUnit.NANOSECONDS.toMillis(stats.getDbNanos()));
+        entry.setSql(List.copyOf(stats.getSql()));
+
+        synchronized (slowest) {
+            if (slowest.size() < slowLogSize) {
+                slowest.add(entry);
+            } else if (elapsedMs > slowest.peek().getElapsedMs()) {
+                slowest.poll();
+                slowest.add(entry);
+            }
+            if (slowest.size() == slowLogSize) {
+                slowLogThresholdMs = slowest.peek().getElapsedMs();
+            }
+        }
+    }
+
+    public List<RequestSqlStatsDTO> getSlowestRequests() {
+        List<RequestSqlStatsDTO> entries;
+        synchronized (slowest) {
+            entries = new ArrayList<>(slowest);
+        }
+        entries.sort(Comparator.comparingLong(RequestSqlStatsDTO::getElapsedMs).reversed());
+        return entries;
+    }
+
+    public void clearSlowestRequests() {
+        synchronized (slowest) {
+            slowest.clear();
+            slowLogThresholdMs = -1;
+        }
+    }
+
+    // -------- Hooks for the statement inspector and JDBC proxy --------
+
+    public static void recordStatement(String sql) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statement(sql);
+        }
+    }
+
+    public static void recordExecution(long nanos) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.dbNanos += nanos;
+        }
+    }
+
+    public static void recordRow() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rowsFetched++;
+        }
+    }
+
+    /**
+     * Counters for one request; only touched by the request's own thread.
+     */
+    public static class RequestSqlStats {
+        private final int maxSql;
+        private final List<String> sql = new ArrayList<>();
+        private int statements;
+        private long rowsFetched;
+        private long dbNanos;
+
+        RequestSqlStats(int maxSql) {
+            this.maxSql = maxSql;
+        }
+
+        void statement(String text) {
+            statements++;
+            if (sql.size() < maxSql) {
+                sql.add(text);
+            }
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRowsFetched() {
+            return rowsFetched;
+        }
+
+        public long getDbNanos() {
+            return dbNanos;
+        }
+
+        public List<String> getSql() {
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.trimblecars.lease_service.service;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of (id, deadline) pairs: four levels of 64 slots, where a slot on
+ * level {@code n} spans {@code 64^n} ticks. Scheduling is O(1); advancing one tick fires one
+ * level-0 slot and, every 64 ticks, cascades one slot of the level above down into finer slots.
+ * With a one-minute tick the wheel spans about 32 years; later deadlines park in the top level
+ * and are re-placed each time it comes round.
+ * <p>
+ * Entries are stored as primitive pairs in growable slot arrays, so millions of pending deadlines
+ * cost about 16 bytes each. There is no cancellation: callers check that an entry is still
+ * relevant when it fires. Not thread-safe; the owner serialises access.
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMs;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+    // Deadlines that were already due when scheduled; fired by the next advance
+    private final Bucket overdue = new Bucket();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+        for (Bucket[] level : levels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Bucket();
+            }
+        }
+    }
+
+    public void schedule(long id, long deadlineMs) {
+        // Rounded up, so nothing fires before its deadline
+        place(id, Math.ceilDiv(deadlineMs, tickMs));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to {@code nowMs} and returns the ids whose deadline has passed.
+     */
+    public long[] advance(long nowMs) {
+        Bucket fired = new Bucket();
+        overdue.drainTo(fired);
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            levels[0][(int) (currentTick & SLOT_MASK)].drainTo(fired);
+        }
+        size -= fired.size;
+        return Arrays.copyOf(fired.ids, fired.size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(long id, long tick) {
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            overdue.add(id, tick);
+            return;
+        }
+        long slotTick = currentTick + Math.min(delta, MAX_DELTA);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(id, tick);
+    }
+
+    /**
+     * When the current tick starts a new block of a level, re-places that level's slot for the
+     * block; its entries are now close enough for finer slots (or fire on this tick).
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Bucket bucket = levels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            if (bucket.size == 0) {
+                continue;
+            }
+            long[] ids = Arrays.copyOf(bucket.ids, bucket.size);
+            long[] ticks = Arrays.copyOf(bucket.ticks, bucket.size);
+            bucket.clear();
+            for (int i = 0; i < ids.length; i++) {
+                if (ticks[i] <= currentTick) {
+                    levels[0][(int) (currentTick & SLOT_MASK)].add(ids[i], ticks[i]);
+                } else {
+                    place(ids[i], ticks[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private long[] ids = new long[0];
+        private long[] ticks = new long[0];
+        private int size;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                int capacity = Math.max(4, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        void drainTo(Bucket target) {
+            for (int i = 0; i < size; i++) {
+                target.add(ids[i], ticks[i]);
+            }
+            clear();
+        }
+
+        void clear() {
+            size = 0;
+            if (ids.length > 1024) {
+                // Give back the memory of a slot that held a burst
+                ids = new long[0];
+                ticks = new long[0];
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.trimblecars.lease_service.service;
 
 import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.AuditAction;
 import com.trimblecars.lease_service.enums.UserRole;
 import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
 import com.trimblecars.lease_service.exception.ResourceAlreadyExistsException;
@@ -9,6 +10,7 @@ import com.trimblecars.lease_service.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,25 +21,27 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final AuditLogService auditLogService;
 
+    @Transactional
     public User registerUser(User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
 
-        log.info("Attempting to register user: {}", user.getEmail());
+        log.debug("Attempting to register user: {}", user.getEmail());
 
         userRepository.findByEmail(user.getEmail()).ifPresent(existing -> {
             throw new ResourceAlreadyExistsException("User with this email already exists: " + user.getEmail());
         });
 
         if (user.getRole() == null) {
-            log.info("No role provided. Defaulting to CUSTOMER");
+            log.debug("No role provided. Defaulting to CUSTOMER");
             user.setRole(UserRole.CUSTOMER);
         }
 
         User savedUser = userRepository.save(user);
-        log.info("User registered successfully: {}", savedUser.getEmail());
+        auditLogService.record(AuditAction.USER_REGISTERED, null, savedUser.getId(), null);
         return savedUser;
     }
 
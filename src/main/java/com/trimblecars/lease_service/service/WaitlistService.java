@@ -0,0 +1,179 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CustomerCountRow;
+import com.trimblecars.lease_service.dto.WaitlistEntryDTO;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.entity.WaitlistEntry;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.enums.WaitlistStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.exception.ResourceAlreadyExistsException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import com.trimblecars.lease_service.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-model FIFO waitlist. Entries live in the waitlist_entry table, so queues survive restarts
+ * and every instance sees the same queue.
+ * <p>
+ * A released car goes to the oldest waiter still under the active lease limit; waiters at the
+ * limit keep their place. Active leases are counted for a whole page of waiters in one grouped
+ * query. Entries are claimed with a conditional update, so concurrent releases of the same model
+ * never hand two cars to one entry.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    static final int MAX_ACTIVE_LEASES = 2;
+    static final int SCAN_PAGE_SIZE = 20;
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final LeaseRepository leaseRepository;
+    private final CarRepository carRepository;
+    private final UserService userService;
+
+    @Transactional
+    public ResponseModel<WaitlistEntryDTO> join(Long customerId, String model) {
+        log.debug("Customer {} joining waitlist for model {}", customerId, model);
+
+        if (model == null || model.isBlank()) {
+            throw new BusinessRuleViolationException("Car model must be provided.");
+        }
+        User customer = userService.getUserById(customerId);
+        if (customer.getRole() != UserRole.CUSTOMER) {
+            throw new BusinessRuleViolationException("Only CUSTOMERS can join a waitlist.");
+        }
+        if (waitlistRepository.existsByCustomerIdAndModelAndStatus(customerId, model, WaitlistStatus.WAITING)) {
+            throw new ResourceAlreadyExistsException("Customer is already waiting for model: " + model);
+        }
+        if (carRepository.existsByModelAndStatus(model, CarStatus.IDLE)) {
+            throw new BusinessRuleViolationException("A car of this model is available now; start a lease instead.");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setModel(model);
+        entry.setCustomer(customer);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(LocalDateTime.now());
+        WaitlistEntry saved = waitlistRepository.save(entry);
+
+        return ResponseModel.success("Joined the waitlist.", mapToDTO(saved));
+    }
+
+    @Transactional
+    public ResponseModel<WaitlistEntryDTO> leave(Long customerId, Long entryId) {
+        log.debug("Customer {} leaving waitlist entry {}", customerId, entryId);
+
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .filter(found -> found.getCustomer().getId().equals(customerId))
+                .orElseThrow(() -> new BusinessRuleViolationException("No waitlist entry " + entryId + " for this customer."));
+        if (waitlistRepository.cancel(entryId, customerId) == 0) {
+            throw new BusinessRuleViolationException("Waitlist entry is no longer waiting.");
+        }
+        entry.setStatus(WaitlistStatus.CANCELLED);
+
+        return ResponseModel.success("Left the waitlist.", mapToDTO(entry));
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseModel<List<WaitlistEntryDTO>> getEntries(Long customerId) {
+        List<WaitlistEntryDTO> dtos = waitlistRepository.findByCustomerIdOrderByIdDesc(customerId).stream()
+                .map(this::mapToDTO)
+                .toList();
+        String message = dtos.isEmpty()
+                ? "No waitlist entries found for the customer."
+                : "Waitlist entries fetched successfully.";
+        return ResponseModel.success(message, dtos);
+    }
+
+    /**
+     * Claims the oldest waiting entry for the model whose customer can take another lease.
+     * Joins the caller's transaction, so the claim is undone if the lease cannot be opened.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> claimNextWaiter(String model) {
+        long afterId = 0;
+        LocalDateTime now = LocalDateTime.now();
+        while (true) {
+            List<WaitlistEntry> page = waitlistRepository.findWaitingAfter(model, afterId, PageRequest.of(0, SCAN_PAGE_SIZE));
+            if (page.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<Long, Long> activeLeases = countActiveLeases(page);
+            for (WaitlistEntry entry : page) {
+                afterId = entry.getId();
+                if (activeLeases.getOrDefault(entry.getCustomer().getId(), 0L) >= MAX_ACTIVE_LEASES) {
+                    continue;
+                }
+                if (waitlistRepository.claim(entry.getId(), now) == 1) {
+                    entry.setStatus(WaitlistStatus.ASSIGNED);
+                    entry.setAssignedAt(now);
+                    return Optional.of(entry);
+                }
+            }
+            if (page.size() < SCAN_PAGE_SIZE) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markAssigned(WaitlistEntry entry, Long leaseId) {
+        waitlistRepository.setLeaseId(entry.getId(), leaseId);
+        entry.setLeaseId(leaseId);
+    }
+
+    /**
+     * Puts an entry claimed by {@link #claimNextWaiter} back in its place in the queue.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requeue(WaitlistEntry entry) {
+        if (waitlistRepository.unclaim(entry.getId()) == 1) {
+            entry.setStatus(WaitlistStatus.WAITING);
+            entry.setAssignedAt(null);
+        }
+    }
+
+    private Map<Long, Long> countActiveLeases(List<WaitlistEntry> page) {
+        Set<Long> customerIds = new HashSet<>();
+        page.forEach(entry -> customerIds.add(entry.getCustomer().getId()));
+        Map<Long, Long> counts = new HashMap<>(customerIds.size() * 2);
+        for (CustomerCountRow row : leaseRepository.countActiveByCustomerIdIn(customerIds)) {
+            counts.put(row.customerId(), row.count());
+        }
+        return counts;
+    }
+
+    private WaitlistEntryDTO mapToDTO(WaitlistEntry entry) {
+        WaitlistEntryDTO dto = new WaitlistEntryDTO();
+        dto.setId(entry.getId());
+        dto.setModel(entry.getModel());
+        dto.setStatus(entry.getStatus().name());
+        dto.setCreatedAt(entry.getCreatedAt());
+        dto.setAssignedAt(entry.getAssignedAt());
+        dto.setLeaseId(entry.getLeaseId());
+        if (entry.getStatus() == WaitlistStatus.WAITING) {
+            dto.setPosition(waitlistRepository.countByModelAndStatusAndIdLessThan(
+                    entry.getModel(), WaitlistStatus.WAITING, entry.getId()) + 1);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,125 @@
+package com.trimblecars.lease_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.model.ResponseModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseFieldsetResponseAdviceTest {
+
+    private final SparseFieldsetResponseAdvice advice = new SparseFieldsetResponseAdvice();
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+
+    @BeforeEach
+    void setup() {
+        jsonMapper = configuredBuilder().build();
+        cborMapper = configuredBuilder().factory(new CBORFactory()).build();
+    }
+
+    @Test
+    @DisplayName("✅ Should serialize only the requested DTO fields")
+    void shouldSerializeRequestedFieldsOnly() throws Exception {
+        String json = jsonMapper.writer(advice.filtersFor("id, model"))
+                .writeValueAsString(ResponseModel.success("Cars fetched successfully", List.of(car(1))));
+
+        assertTrue(json.contains("\"id\":1"));
+        assertTrue(json.contains("\"model\":\"Tata Nexon 1\""));
+        assertFalse(json.contains("ownerEmail"));
+        assertFalse(json.contains("\"status\":\"IDLE\""));
+        assertTrue(json.contains("\"status\":\"SUCCESS\""));
+    }
+
+    @Test
+    @DisplayName("✅ Should serialize DTOs in full when no fieldset is requested")
+    void shouldSerializeAllFieldsByDefault() throws Exception {
+        String json = jsonMapper.writeValueAsString(ResponseModel.success("Cars fetched successfully", List.of(car(1))));
+
+        assertTrue(json.contains("\"ownerEmail\":\"carlos@trimble.com\""));
+    }
+
+    @Test
+    @DisplayName("✅ Should reuse the filter built for a field set")
+    void shouldCacheFilterPerFieldSet() {
+        assertSame(advice.filtersFor("id,model"), advice.filtersFor("id,model"));
+    }
+
+    @Test
+    @DisplayName("✅ Should shrink a 10k-car payload with fieldsets and CBOR")
+    void shouldShrinkLargePayload() throws Exception {
+        List<CarResponseDTO> cars = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            cars.add(car(i));
+        }
+        ResponseModel<List<CarResponseDTO>> body = ResponseModel.success("Cars fetched successfully", cars);
+
+        int fullJson = jsonMapper.writeValueAsBytes(body).length;
+        int sparseJson = jsonMapper.writer(advice.filtersFor("id,model")).writeValueAsBytes(body).length;
+        int sparseCbor = cborMapper.writer(advice.filtersFor("id,model")).writeValueAsBytes(body).length;
+
+        assertTrue(fullJson > 0);
+        assertTrue(sparseJson < fullJson / 2, "sparse JSON " + sparseJson + " vs full " + fullJson);
+        assertTrue(sparseCbor < sparseJson, "sparse CBOR " + sparseCbor + " vs sparse JSON " + sparseJson);
+    }
+
+    @Test
+    @DisplayName("✅ Should give each representation of a list its own ETag")
+    void shouldTagEachRepresentation() {
+        String json = SparseFieldsetResponseAdvice.representationTag("v1", request(null, null));
+        String cbor = SparseFieldsetResponseAdvice.representationTag("v1", request("application/cbor", null));
+        String sparse = SparseFieldsetResponseAdvice.representationTag("v1", request(null, "id,model"));
+
+        assertEquals("v1-json", json);
+        assertEquals("v1-cbor", cbor);
+        assertNotEquals(json, sparse);
+        assertEquals(sparse, SparseFieldsetResponseAdvice.representationTag("v1", request("*/*", " model , id")));
+    }
+
+    @Test
+    @DisplayName("✅ Should pick the format by Accept quality, defaulting to JSON")
+    void shouldNegotiateFormat() {
+        assertEquals("json", SparseFieldsetResponseAdvice.negotiatedFormat("*/*"));
+        assertEquals("cbor", SparseFieldsetResponseAdvice.negotiatedFormat("application/json;q=0.5, application/cbor"));
+        assertEquals("json", SparseFieldsetResponseAdvice.negotiatedFormat("application/cbor;q=0.2, application/json"));
+        assertEquals("json", SparseFieldsetResponseAdvice.negotiatedFormat("not a media type"));
+    }
+
+    private static ServletWebRequest request(String accept, String fields) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/cars");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        if (fields != null) {
+            request.setParameter(SparseFieldsetResponseAdvice.FIELDS_PARAM, fields);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    private Jackson2ObjectMapperBuilder configuredBuilder() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().sparseFieldsetCustomizer().customize(builder);
+        return builder;
+    }
+
+    private CarResponseDTO car(long id) {
+        CarResponseDTO dto = new CarResponseDTO();
+        dto.setId(id);
+        dto.setModel("Tata Nexon " + id);
+        dto.setStatus("IDLE");
+        dto.setOwnerEmail("carlos@trimble.com");
+        return dto;
+    }
+}
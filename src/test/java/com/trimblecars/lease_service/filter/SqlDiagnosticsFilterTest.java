@@ -0,0 +1,88 @@
+package com.trimblecars.lease_service.filter;
+
+import com.trimblecars.lease_service.service.SqlDiagnosticsService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlDiagnosticsFilterTest {
+
+    private final SqlDiagnosticsFilter filter = new SqlDiagnosticsFilter(new SqlDiagnosticsService(20, 50));
+
+    @Test
+    @DisplayName("✅ Should buffer a regular API response and add the X-SQL headers")
+    void shouldAddHeadersToBufferedResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/customers/cars"), response,
+                (req, res) -> res.getWriter().write("[]"));
+
+        assertEquals("0", response.getHeader("X-SQL-Statements"));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("✅ Should pass exports through unbuffered, without the X-SQL headers")
+    void shouldNotBufferExports() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> seen = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            seen.set(res);
+            res.getWriter().write("id,model");
+            res.flushBuffer();
+        };
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/admin/leases/export"), response, chain);
+
+        assertSame(response, seen.get());
+        assertTrue(response.isCommitted());
+        assertNull(response.getHeader("X-SQL-Statements"));
+    }
+
+    @Test
+    @DisplayName("✅ Should copy an async response once the async dispatch has written it")
+    void shouldWaitForAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/7/leases");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> wrapper = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            wrapper.set(res);
+            req.startAsync();
+        });
+
+        assertFalse(response.isCommitted());
+        assertNull(response.getHeader("X-SQL-Statements"));
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, wrapper.get(), (req, res) -> res.getWriter().write("[]"));
+
+        assertEquals("0", response.getHeader("X-SQL-Statements"));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("✅ Should not buffer NDJSON streams")
+    void shouldNotBufferStreams() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/cars");
+        request.addHeader("Accept", MediaType.APPLICATION_NDJSON_VALUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(res));
+
+        assertSame(response, seen.get());
+        assertTrue(SqlDiagnosticsFilter.isStreamed(new MockHttpServletRequest("GET", "/api/customers/7/leases/stream")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.enums.AuditAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditLogService auditLogService;
+
+    @AfterEach
+    void tearDown() {
+        if (auditLogService != null) {
+            auditLogService.close();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Should write fixed-layout audit lines in publish order")
+    void shouldWriteEventsInOrder() throws Exception {
+        auditLogService = new AuditLogService(true, directory.toString(), 16, 4, 1_000_000, 3);
+        auditLogService.open();
+
+        auditLogService.record(AuditAction.USER_REGISTERED, null, 7L, null);
+        auditLogService.record(AuditAction.CAR_REGISTERED, 2L, 10L, null);
+        auditLogService.record(AuditAction.LEASE_STARTED, 7L, 100L, 10L);
+
+        assertEquals(3, auditLogService.drainOnce());
+
+        List<String> lines = Files.readAllLines(directory.resolve(AuditLogService.FILE_NAME));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("|USER_REGISTERED|actor=0|entity=7|ref=0"));
+        assertTrue(lines.get(1).endsWith("|CAR_REGISTERED|actor=2|entity=10|ref=0"));
+        assertTrue(lines.get(2).endsWith("|LEASE_STARTED|actor=7|entity=100|ref=10"));
+    }
+
+    @Test
+    @DisplayName("✅ Should roll the file once it reaches the size limit")
+    void shouldRollFiles() throws Exception {
+        auditLogService = new AuditLogService(true, directory.toString(), 64, 8, 200, 2);
+        auditLogService.open();
+
+        for (long i = 1; i <= 10; i++) {
+            auditLogService.record(AuditAction.LEASE_ENDED, 1L, i, 5L);
+        }
+        auditLogService.drainOnce();
+
+        assertTrue(Files.exists(directory.resolve(AuditLogService.FILE_NAME + ".1")));
+        assertTrue(Files.exists(directory.resolve(AuditLogService.FILE_NAME + ".2")));
+        assertFalse(Files.exists(directory.resolve(AuditLogService.FILE_NAME + ".3")));
+        assertTrue(Files.size(directory.resolve(AuditLogService.FILE_NAME)) <= 200);
+    }
+
+    @Test
+    @DisplayName("❌ Should drop and count events when the ring is full instead of blocking")
+    void shouldDropWhenFull() {
+        auditLogService = new AuditLogService(true, directory.toString(), 4, 4, 1_000_000, 1);
+
+        for (long i = 0; i < 6; i++) {
+            auditLogService.record(AuditAction.LEASE_STARTED, 1L, i, 1L);
+        }
+
+        assertEquals(2, auditLogService.getDroppedEvents());
+    }
+
+    @Test
+    @DisplayName("✅ Should ignore events when auditing is disabled")
+    void shouldIgnoreWhenDisabled() {
+        auditLogService = new AuditLogService(false, directory.toString(), 4, 4, 1_000_000, 1);
+
+        auditLogService.record(AuditAction.LEASE_STARTED, 1L, 1L, 1L);
+
+        assertEquals(0, auditLogService.getDroppedEvents());
+        assertFalse(Files.exists(directory.resolve(AuditLogService.FILE_NAME)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.BatchGetResponseDTO;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.CarSummaryRow;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import com.trimblecars.lease_service.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchLookupServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LeaseRepository leaseRepository;
+
+    @InjectMocks
+    private BatchLookupService batchLookupService;
+
+    @Test
+    @DisplayName("✅ Should return cars in request order and report missing ids")
+    void shouldPreserveOrderAndReportMissing() {
+        when(carRepository.findSummariesByIdIn(List.of(3L, 1L, 9L))).thenReturn(List.of(
+                new CarSummaryRow(1L, "Tata Nexon", CarStatus.IDLE, "carlos@trimble.com"),
+                new CarSummaryRow(3L, "Honda City", CarStatus.ON_LEASE, "ayesha@trimble.com")));
+
+        BatchGetResponseDTO<CarResponseDTO> result = batchLookupService.getCars(List.of(3L, 1L, 9L, 3L)).getData();
+
+        assertEquals(List.of(3L, 1L, 3L), result.getItems().stream().map(CarResponseDTO::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        assertEquals("ON_LEASE", result.getItems().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("✅ Should split large requests into chunked IN queries")
+    void shouldChunkLargeRequests() {
+        List<Long> ids = LongStream.rangeClosed(1, 2_500).boxed().toList();
+        when(leaseRepository.findResponsesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return chunk.stream()
+                    .map(id -> new LeaseResponseDTO(id, "Tata Nexon", "rajesh@trimble.com", LocalDate.now(), null))
+                    .toList();
+        });
+
+        BatchGetResponseDTO<LeaseResponseDTO> result = batchLookupService.getLeases(ids).getData();
+
+        verify(leaseRepository, times(3)).findResponsesByIdIn(anyCollection());
+        assertEquals(2_500, result.getItems().size());
+        assertTrue(result.getMissingIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("❌ Should reject requests above the id limit")
+    void shouldRejectTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, BatchLookupService.MAX_IDS + 1).boxed().toList();
+
+        assertThrows(BusinessRuleViolationException.class, () -> batchLookupService.getUsers(ids));
+        verifyNoInteractions(userRepository);
+    }
+}
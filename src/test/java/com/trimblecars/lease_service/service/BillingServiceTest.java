@@ -0,0 +1,181 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.entity.BillingRun;
+import com.trimblecars.lease_service.enums.BillingRunStatus;
+import com.trimblecars.lease_service.repository.BillingRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingServiceTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2026, 10, 19);
+    private static final LocalDate PERIOD_START = RUN_DATE.withDayOfMonth(1);
+
+    @Mock
+    private BillingRunRepository runRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BillingService billingService;
+
+    @BeforeEach
+    void setup() {
+        billingService = new BillingService(runRepository, jdbcTemplate, transactionManager, 5000, 100, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        billingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("✅ Should charge only the days of each lease that fall in the period")
+    void shouldChargeDaysWithinPeriod() {
+        BillingService.LeaseChunk chunk = new BillingService.LeaseChunk(5);
+        addLease(chunk, 1, LocalDate.of(2026, 9, 20), null);                              // open, from the 1st
+        addLease(chunk, 2, LocalDate.of(2026, 10, 5), LocalDate.of(2026, 10, 8));         // return day free
+        addLease(chunk, 3, LocalDate.of(2026, 10, 10), LocalDate.of(2026, 10, 10));       // same day
+        addLease(chunk, 4, LocalDate.of(2026, 9, 25), LocalDate.of(2026, 10, 1));         // returned on the 1st
+        addLease(chunk, 5, LocalDate.of(2026, 10, 19), null);                             // started today
+
+        new BillingService.ChargeTask(chunk, 0, chunk.size,
+                (int) PERIOD_START.toEpochDay(), (int) RUN_DATE.toEpochDay(), 5000).invoke();
+
+        assertArrayEquals(new int[]{19, 3, 1, 0, 1}, chunk.billedDays);
+        assertEquals(19 * 5000L, chunk.amountCents[0]);
+    }
+
+    @Test
+    @DisplayName("✅ Should split large chunks across the fork-join pool with the same result")
+    void shouldForkLargeChunks() {
+        int size = 20_000;
+        BillingService.LeaseChunk chunk = new BillingService.LeaseChunk(size);
+        for (int i = 0; i < size; i++) {
+            addLease(chunk, i + 1, PERIOD_START.plusDays(i % 10), null);
+        }
+
+        new ForkJoinPool(4).invoke(new BillingService.ChargeTask(chunk, 0, size,
+                (int) PERIOD_START.toEpochDay(), (int) RUN_DATE.toEpochDay(), 100));
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(19 - i % 10, chunk.billedDays[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Should close the previous month when the nightly run fires on the 1st")
+    void shouldCloseMonthOnFirstOfMonth() {
+        LocalDate runDate = BillingService.nightlyRunDate(LocalDate.of(2026, 11, 1));
+        assertEquals(LocalDate.of(2026, 10, 31), runDate);
+
+        BillingService.LeaseChunk chunk = new BillingService.LeaseChunk(3);
+        addLease(chunk, 1, LocalDate.of(2026, 9, 20), null);                              // open all month
+        addLease(chunk, 2, LocalDate.of(2026, 10, 31), null);                             // started on the last day
+        addLease(chunk, 3, LocalDate.of(2026, 10, 20), LocalDate.of(2026, 10, 31));       // returned on the last day
+
+        new BillingService.ChargeTask(chunk, 0, chunk.size,
+                (int) runDate.withDayOfMonth(1).toEpochDay(), (int) runDate.toEpochDay(), 5000).invoke();
+
+        assertArrayEquals(new int[]{31, 1, 11}, chunk.billedDays);
+        assertEquals(31 * 5000L, chunk.amountCents[0]);
+    }
+
+    @Test
+    @DisplayName("✅ Should bill the nightly run through yesterday within the month")
+    void shouldBillThroughYesterday() {
+        assertEquals(LocalDate.of(2026, 10, 18), BillingService.nightlyRunDate(RUN_DATE));
+    }
+
+    @Test
+    @DisplayName("✅ Should batch invoices and commit a checkpoint with each chunk")
+    void shouldWriteInvoicesWithCheckpoint() throws Exception {
+        stubTwoLeases();
+        BillingService.RunProgress progress = progressFor(false);
+
+        billingService.execute(progress);
+
+        verify(jdbcTemplate).batchUpdate(startsWith("merge into invoice"), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate).update(startsWith("update billing_run"), eq(11L), eq(2L), eq(2L), eq((19 + 3) * 5000L), eq(1L));
+        verify(transactionManager).commit(any());
+        verify(runRepository).save(argThat(run -> run.getStatus() == BillingRunStatus.COMPLETED
+                && run.getLeasesProcessed() == 2 && run.getTotalAmountCents() == (19 + 3) * 5000L));
+    }
+
+    @Test
+    @DisplayName("✅ Should compute totals without writing invoices in dry-run mode")
+    void shouldNotWriteInDryRun() throws Exception {
+        stubTwoLeases();
+        BillingService.RunProgress progress = progressFor(true);
+
+        billingService.execute(progress);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any(), any(), any());
+        verify(runRepository).save(argThat(run -> run.getStatus() == BillingRunStatus.COMPLETED
+                && run.getInvoicesWritten() == 2 && run.getLastLeaseId() == 11L));
+    }
+
+    private void stubTwoLeases() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(10L, 11L);
+        when(rs.getLong(2)).thenReturn(7L, 8L);
+        when(rs.getDate(3)).thenReturn(Date.valueOf(LocalDate.of(2026, 9, 20)), Date.valueOf(LocalDate.of(2026, 10, 5)));
+        when(rs.getDate(4)).thenReturn(null, Date.valueOf(LocalDate.of(2026, 10, 8)));
+
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                RowCallbackHandler handler = invocation.getArgument(1);
+                handler.processRow(rs);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+    }
+
+    private BillingService.RunProgress progressFor(boolean dryRun) {
+        BillingRun run = new BillingRun();
+        run.setId(1L);
+        run.setPeriod("2026-10");
+        run.setRunDate(RUN_DATE);
+        run.setDryRun(dryRun);
+        run.setStatus(BillingRunStatus.RUNNING);
+        BillingService.RunProgress progress = new BillingService.RunProgress();
+        progress.start(run);
+        return progress;
+    }
+
+    private static void addLease(BillingService.LeaseChunk chunk, long id, LocalDate start, LocalDate end) {
+        int i = chunk.size++;
+        chunk.leaseIds[i] = id;
+        chunk.startDays[i] = (int) start.toEpochDay();
+        chunk.endDays[i] = end != null ? (int) end.toEpochDay() : BillingService.OPEN;
+    }
+}
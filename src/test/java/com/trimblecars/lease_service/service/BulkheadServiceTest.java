@@ -0,0 +1,159 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.BulkheadStatsDTO;
+import com.trimblecars.lease_service.enums.Bulkhead;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadServiceTest {
+
+    private static BulkheadService service(BulkheadService.Limits admin) {
+        Map<Bulkhead, BulkheadService.Limits> limits = new EnumMap<>(Bulkhead.class);
+        limits.put(Bulkhead.CUSTOMER, new BulkheadService.Limits(16, 16, 1_000, 6, 1_000, 1));
+        limits.put(Bulkhead.OWNER, new BulkheadService.Limits(4, 4, 1_000, 2, 1_000, 1));
+        limits.put(Bulkhead.ADMIN, admin);
+        return new BulkheadService(limits);
+    }
+
+    @Test
+    @DisplayName("✅ Should keep customer p99 within budget while exports saturate the admin bulkhead")
+    void shouldIsolateCustomersFromExports() throws Exception {
+        BulkheadService service = service(new BulkheadService.Limits(2, 1, 50, 2, 50, 30));
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        CountDownLatch exportsRunning = new CountDownLatch(2);
+        CountDownLatch finishExports = new CountDownLatch(1);
+        try {
+            // Two long exports hold every admin request slot and admin connection
+            for (int i = 0; i < 2; i++) {
+                pool.submit(() -> {
+                    assertTrue(service.enter(Bulkhead.ADMIN));
+                    try {
+                        BulkheadService.current().acquireConnection();
+                        exportsRunning.countDown();
+                        finishExports.await();
+                        BulkheadService.current().releaseConnection();
+                    } finally {
+                        service.exit();
+                    }
+                    return null;
+                });
+            }
+            assertTrue(exportsRunning.await(5, TimeUnit.SECONDS));
+
+            List<Long> latenciesMicros = Collections.synchronizedList(new ArrayList<>());
+            List<Future<?>> customers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                customers.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        long started = System.nanoTime();
+                        assertTrue(service.enter(Bulkhead.CUSTOMER));
+                        try {
+                            BulkheadService.current().acquireConnection();
+                            Thread.sleep(1);
+                            BulkheadService.current().releaseConnection();
+                        } finally {
+                            service.exit();
+                        }
+                        latenciesMicros.add((System.nanoTime() - started) / 1_000);
+                    }
+                    return null;
+                }));
+            }
+
+            // Meanwhile a third export is turned away instead of taking a thread from customers
+            assertFalse(service.enter(Bulkhead.ADMIN));
+
+            for (Future<?> customer : customers) {
+                customer.get(30, TimeUnit.SECONDS);
+            }
+
+            List<Long> sorted = new ArrayList<>(latenciesMicros);
+            Collections.sort(sorted);
+            long p99Micros = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+            assertEquals(1_600, sorted.size());
+            assertTrue(p99Micros < 50_000, "customer p99 was " + p99Micros + " µs");
+
+            BulkheadStatsDTO admin = service.getStats().stream()
+                    .filter(s -> s.getBulkhead().equals("ADMIN")).findFirst().orElseThrow();
+            assertEquals(1.0, admin.getSaturation());
+            assertEquals(2, admin.getConnectionsInUse());
+            assertEquals(1, admin.getRejectedTimeout());
+        } finally {
+            finishExports.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("❌ Should reject immediately when the wait queue is full")
+    void shouldRejectWhenQueueFull() throws Exception {
+        BulkheadService service = service(new BulkheadService.Limits(1, 0, 1_000, 1, 50, 30));
+        assertTrue(service.enter(Bulkhead.ADMIN));
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            long started = System.nanoTime();
+            assertFalse(other.submit(() -> service.enter(Bulkhead.ADMIN)).get());
+            assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(500));
+        } finally {
+            other.shutdown();
+            service.exit();
+        }
+
+        BulkheadStatsDTO admin = service.getStats().get(Bulkhead.ADMIN.ordinal());
+        assertEquals(1, admin.getRejectedQueueFull());
+        assertEquals(1, admin.getAccepted());
+        assertEquals(0, admin.getActive());
+    }
+
+    @Test
+    @DisplayName("❌ Should time out when the connection partition is exhausted")
+    void shouldTimeOutOnExhaustedConnectionPartition() {
+        BulkheadService service = service(new BulkheadService.Limits(2, 2, 50, 1, 20, 30));
+        assertTrue(service.enter(Bulkhead.ADMIN));
+        try {
+            BulkheadService.Compartment compartment = BulkheadService.current();
+            assertDoesNotThrow(compartment::acquireConnection);
+            assertThrows(SQLTransientConnectionException.class, compartment::acquireConnection);
+            compartment.releaseConnection();
+        } finally {
+            service.exit();
+        }
+
+        assertNull(BulkheadService.current());
+        assertEquals(1, service.getStats().get(Bulkhead.ADMIN.ordinal()).getConnectionTimeouts());
+    }
+
+    @Test
+    @DisplayName("✅ Should hold a detached async request's slot until it is released, once")
+    void shouldHoldSlotUntilAsyncRequestCompletes() {
+        BulkheadService service = service(new BulkheadService.Limits(1, 0, 10, 1, 10, 30));
+        assertTrue(service.enter(Bulkhead.ADMIN));
+
+        Runnable release = service.detach();
+
+        assertNull(BulkheadService.current());
+        assertFalse(service.enter(Bulkhead.ADMIN));
+        release.run();
+        release.run();
+        assertTrue(service.enter(Bulkhead.ADMIN));
+        service.exit();
+        assertTrue(service.enter(Bulkhead.ADMIN));
+        assertFalse(service.enter(Bulkhead.ADMIN));
+    }
+}
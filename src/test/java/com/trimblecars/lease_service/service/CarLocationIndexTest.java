@@ -0,0 +1,129 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLocationChangeRow;
+import com.trimblecars.lease_service.dto.CarLocationRow;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarLocationIndexTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private SnapshotService snapshotService;
+
+    private CarLocationIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new CarLocationIndex(carRepository, snapshotService, 0.05);
+    }
+
+    @Test
+    @DisplayName("✅ Should return the same k nearest cars as a full scan")
+    void shouldMatchBruteForce() {
+        Random random = new Random(42);
+        List<double[]> cars = new ArrayList<>();
+        for (long id = 0; id < 5_000; id++) {
+            double lat = 12.9 + random.nextDouble() * 0.4;
+            double lon = 77.4 + random.nextDouble() * 0.4;
+            cars.add(new double[]{id, lat, lon});
+            index.put(id, lat, lon);
+        }
+
+        List<CarLocationIndex.Neighbor> result = index.nearest(13.05, 77.55, 8, 15);
+
+        List<Long> expected = cars.stream()
+                .filter(c -> CarLocationIndex.distanceKm(13.05, 77.55, c[1], c[2]) <= 8)
+                .sorted(Comparator.comparingDouble(c -> CarLocationIndex.distanceKm(13.05, 77.55, c[1], c[2])))
+                .limit(15)
+                .map(c -> (long) c[0])
+                .toList();
+        assertEquals(expected, result.stream().map(CarLocationIndex.Neighbor::carId).toList());
+    }
+
+    @Test
+    @DisplayName("✅ Should drop leased cars and re-index them when they become IDLE")
+    void shouldFollowStatusTransitions() {
+        Car car = new Car(7L, "Tata Nexon", CarStatus.IDLE, null);
+        car.setLatitude(12.97);
+        car.setLongitude(77.59);
+
+        index.carChanged(car);
+        assertEquals(1, index.nearest(12.97, 77.59, 1, 5).size());
+
+        car.setStatus(CarStatus.ON_LEASE);
+        index.carChanged(car);
+        assertTrue(index.nearest(12.97, 77.59, 1, 5).isEmpty());
+
+        car.setStatus(CarStatus.IDLE);
+        index.carChanged(car);
+        assertEquals(7L, index.nearest(12.97, 77.59, 1, 5).get(0).carId());
+    }
+
+    @Test
+    @DisplayName("✅ Should handle searches across the antimeridian")
+    void shouldWrapLongitude() {
+        index.put(1L, 0, 179.99);
+        index.put(2L, 0, -179.99);
+
+        List<CarLocationIndex.Neighbor> result = index.nearest(0, 179.999, 5, 5);
+
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    @DisplayName("✅ Should load IDLE car locations at startup")
+    void shouldLoadIdleCars() {
+        when(carRepository.findLocationsByStatus(CarStatus.IDLE)).thenReturn(List.of(
+                new CarLocationRow(1L, 12.97, 77.59),
+                new CarLocationRow(2L, 28.61, 77.20)));
+
+        index.load();
+
+        assertEquals(2, index.size());
+        assertEquals(1L, index.nearest(12.97, 77.59, 10, 5).get(0).carId());
+    }
+
+    @Test
+    @DisplayName("✅ Should restore from a snapshot and only re-read cars changed since")
+    void shouldRestoreFromSnapshotAndCatchUp(@TempDir Path directory) throws Exception {
+        SnapshotService snapshots = new SnapshotService(true, directory.toString(), null);
+        CarLocationIndex previous = new CarLocationIndex(carRepository, snapshots, 0.05);
+        previous.put(1L, 12.97, 77.59);
+        previous.put(2L, 28.61, 77.20);
+        snapshots.write(previous);
+
+        when(carRepository.findLocationChangesSince(any())).thenReturn(List.of(
+                new CarLocationChangeRow(2L, CarStatus.ON_LEASE, 28.61, 77.20),
+                new CarLocationChangeRow(3L, CarStatus.IDLE, 19.07, 72.88)));
+
+        CarLocationIndex restored = new CarLocationIndex(carRepository, snapshots, 0.05);
+        restored.load();
+
+        assertEquals(2, restored.size());
+        assertEquals(1L, restored.nearest(12.97, 77.59, 10, 5).get(0).carId());
+        assertTrue(restored.nearest(28.61, 77.20, 10, 5).isEmpty());
+        assertEquals(3L, restored.nearest(19.07, 72.88, 10, 5).get(0).carId());
+        verify(carRepository, never()).findLocationsByStatus(any());
+    }
+}
@@ -0,0 +1,160 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLocationChangeRow;
+import com.trimblecars.lease_service.dto.CarServiceRequestDTO;
+import com.trimblecars.lease_service.dto.CarServiceResultDTO;
+import com.trimblecars.lease_service.dto.CarTransitionRow;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.repository.CarRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarMaintenanceServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private CarLocationIndex carLocationIndex;
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarMaintenanceService service(int chunkSize) {
+        return new CarMaintenanceService(carRepository, collectionVersionService, carLocationIndex,
+                leaseService, transactionManager, chunkSize);
+    }
+
+    private static CarTransitionRow row(long id, CarStatus status, long ownerId) {
+        return new CarTransitionRow(id, status, ownerId, 12.97, 77.59);
+    }
+
+    @Test
+    @DisplayName("✅ Should move IDLE cars to service in chunks and skip leased ones")
+    void shouldMoveIdleCarsInChunks() {
+        when(carRepository.findTransitionRows(null, "Tata Nexon")).thenReturn(List.of(
+                row(1, CarStatus.IDLE, 10), row(2, CarStatus.ON_LEASE, 10), row(3, CarStatus.IDLE, 11),
+                row(4, CarStatus.ON_SERVICE, 11), row(5, CarStatus.IDLE, 12)));
+        when(carRepository.transitionStatus(eq(List.of(1L, 3L)), eq(CarStatus.IDLE), eq(CarStatus.ON_SERVICE), any()))
+                .thenReturn(2);
+        when(carRepository.transitionStatus(eq(List.of(5L)), eq(CarStatus.IDLE), eq(CarStatus.ON_SERVICE), any()))
+                .thenReturn(1);
+        CarServiceRequestDTO request = new CarServiceRequestDTO();
+        request.setModel("Tata Nexon");
+
+        CarServiceResultDTO result = service(2).startService(null, request).getData();
+
+        assertEquals("ON_SERVICE", result.getTargetStatus());
+        assertEquals(5, result.getMatched());
+        assertEquals(List.of(1L, 3L, 5L), result.getTransitioned());
+        assertEquals(List.of(2L), result.getSkippedLeased());
+        assertEquals(List.of(4L), result.getUnchanged());
+        verify(collectionVersionService).carsStatusChanged(List.of(10L, 11L), CarStatus.IDLE, CarStatus.ON_SERVICE);
+        verify(collectionVersionService).carsStatusChanged(List.of(12L), CarStatus.IDLE, CarStatus.ON_SERVICE);
+        verify(carLocationIndex).carsChanged(List.of(
+                new CarLocationChangeRow(1L, CarStatus.ON_SERVICE, 12.97, 77.59),
+                new CarLocationChangeRow(3L, CarStatus.ON_SERVICE, 12.97, 77.59)));
+        verify(transactionManager, times(2)).commit(any());
+        verify(carRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("✅ Should report a car leased between the scan and the update as skipped")
+    void shouldReadBackWhenLeasedSinceScan() {
+        when(carRepository.findTransitionRowsByIdIn(List.of(1L, 2L, 99L), 10L)).thenReturn(List.of(
+                row(1, CarStatus.IDLE, 10), row(2, CarStatus.IDLE, 10)));
+        when(carRepository.transitionStatus(eq(List.of(1L, 2L)), eq(CarStatus.IDLE), eq(CarStatus.ON_SERVICE), any()))
+                .thenReturn(1);
+        when(carRepository.findTransitionRowsByIdIn(List.of(1L, 2L), null)).thenReturn(List.of(
+                row(1, CarStatus.ON_SERVICE, 10), row(2, CarStatus.ON_LEASE, 10)));
+        CarServiceRequestDTO request = new CarServiceRequestDTO();
+        request.setCarIds(List.of(1L, 2L, 99L, 1L));
+
+        CarServiceResultDTO result = service(1000).startService(10L, request).getData();
+
+        assertEquals(List.of(1L), result.getTransitioned());
+        assertEquals(List.of(2L), result.getSkippedLeased());
+        assertEquals(List.of(99L), result.getNotFound());
+        verify(collectionVersionService).carsStatusChanged(List.of(10L), CarStatus.IDLE, CarStatus.ON_SERVICE);
+    }
+
+    @Test
+    @DisplayName("✅ Should return ON_SERVICE cars of an owner to IDLE and offer them to the waitlist")
+    void shouldReturnCarsFromService() {
+        Car returned = new Car(1L, "Tata Nexon", CarStatus.IDLE, null);
+        when(carRepository.findTransitionRows(10L, null)).thenReturn(List.of(
+                row(1, CarStatus.ON_SERVICE, 10), row(2, CarStatus.IDLE, 10)));
+        when(carRepository.transitionStatus(eq(List.of(1L)), eq(CarStatus.ON_SERVICE), eq(CarStatus.IDLE), any()))
+                .thenReturn(1);
+        when(carRepository.findAllById(List.of(1L))).thenReturn(List.of(returned));
+
+        CarServiceResultDTO result = service(1000).endService(10L, new CarServiceRequestDTO()).getData();
+
+        assertEquals("IDLE", result.getTargetStatus());
+        assertEquals(List.of(1L), result.getTransitioned());
+        assertEquals(List.of(2L), result.getUnchanged());
+        verify(carLocationIndex).carsChanged(List.of(new CarLocationChangeRow(1L, CarStatus.IDLE, 12.97, 77.59)));
+        verify(leaseService).assignToNextWaiter(returned);
+    }
+
+    @Test
+    @DisplayName("✅ Should move a 50k-car recall with one update per chunk")
+    void shouldHandleFleetWideRecall() {
+        List<CarTransitionRow> fleet = new ArrayList<>(50_000);
+        for (long id = 1; id <= 50_000; id++) {
+            fleet.add(row(id, CarStatus.IDLE, id % 100));
+        }
+        when(carRepository.findTransitionRows(null, "Recalled")).thenReturn(fleet);
+        when(carRepository.transitionStatus(anyList(), eq(CarStatus.IDLE), eq(CarStatus.ON_SERVICE), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        CarServiceRequestDTO request = new CarServiceRequestDTO();
+        request.setModel("Recalled");
+
+        CarServiceResultDTO result = service(1000).startService(null, request).getData();
+
+        assertEquals(50_000, result.getTransitioned().size());
+        verify(carRepository, times(50)).transitionStatus(anyList(), any(), any(), any());
+        verify(carRepository, never()).findTransitionRowsByIdIn(anyList(), any());
+        verify(collectionVersionService, times(50)).carsStatusChanged(anyList(), eq(CarStatus.IDLE), eq(CarStatus.ON_SERVICE));
+        verifyNoInteractions(leaseService);
+    }
+
+    @Test
+    @DisplayName("❌ Should reject an admin request without any selection")
+    void shouldRejectEmptySelection() {
+        assertThrows(BusinessRuleViolationException.class,
+                () -> service(1000).startService(null, new CarServiceRequestDTO()));
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    @DisplayName("❌ Should reject ids combined with a model filter")
+    void shouldRejectIdsWithModel() {
+        CarServiceRequestDTO request = new CarServiceRequestDTO();
+        request.setCarIds(List.of(1L));
+        request.setModel("Tata Nexon");
+
+        assertThrows(BusinessRuleViolationException.class, () -> service(1000).startService(null, request));
+        verifyNoInteractions(carRepository);
+    }
+}
@@ -2,6 +2,7 @@ package com.trimblecars.lease_service.service;
 
 import com.trimblecars.lease_service.dto.CarRequestDTO;
 import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.CarSummaryRow;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.entity.User;
 import com.trimblecars.lease_service.enums.CarStatus;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -32,6 +34,21 @@ class CarServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private CarLocationIndex carLocationIndex;
+
+    @Spy
+    private ReadCoalescer readCoalescer = new ReadCoalescer(true, 0, 100);
+
+    @Mock
+    private LeaseService leaseService;
+
     @InjectMocks
     private CarService carService;
 
@@ -54,6 +71,7 @@ class CarServiceTest {
         assertEquals("Hyundai Creta", result.getData().getModel());
         assertEquals("IDLE", result.getData().getStatus());
         assertEquals("carlos@trimble.com", result.getData().getOwnerEmail());
+        verify(leaseService).assignToNextWaiter(savedCar);
     }
 
     @Test
@@ -86,6 +104,34 @@ class CarServiceTest {
         assertEquals("User must be an OWNER to register a car.", ex.getMessage());
     }
 
+    @Test
+    @DisplayName("❌ Should reject registering a car with an out-of-range location")
+    void shouldRejectOutOfRangeLocation() {
+        User owner = new User(2L, "Carlos", "carlos@trimble.com", UserRole.OWNER);
+        when(userService.getUserById(2L)).thenReturn(owner);
+        CarRequestDTO dto = new CarRequestDTO("Kia Sonet");
+        dto.setLatitude(91.0);
+        dto.setLongitude(77.59);
+
+        assertThrows(BusinessRuleViolationException.class, () -> carService.registerCar(2L, dto));
+        verify(carRepository, never()).save(any(Car.class));
+    }
+
+    @Test
+    @DisplayName("❌ Should reject registering a car with only one coordinate")
+    void shouldRejectHalfLocation() {
+        User owner = new User(2L, "Carlos", "carlos@trimble.com", UserRole.OWNER);
+        when(userService.getUserById(2L)).thenReturn(owner);
+        CarRequestDTO dto = new CarRequestDTO("Kia Sonet");
+        dto.setLongitude(77.59);
+
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> carService.registerCar(2L, dto));
+
+        assertEquals("Latitude and longitude must be provided together.", ex.getMessage());
+        verifyNoInteractions(carLocationIndex);
+    }
+
     @Test
     @DisplayName("✅ Should return list of cars by owner")
     void shouldReturnCarsByOwnerId() {
@@ -118,4 +164,28 @@ class CarServiceTest {
         assertEquals("IDLE", result.get(0).getStatus());
     }
 
+    @Test
+    @DisplayName("✅ Should return nearby cars in index order and skip cars leased since indexing")
+    void shouldReturnNearbyCars() {
+        when(carLocationIndex.nearest(12.97, 77.59, 5, 10)).thenReturn(List.of(
+                new CarLocationIndex.Neighbor(3L, 12.971, 77.591, 0.1524),
+                new CarLocationIndex.Neighbor(1L, 12.98, 77.60, 1.5)));
+        when(carRepository.findSummariesByIdIn(List.of(3L, 1L))).thenReturn(List.of(
+                new CarSummaryRow(1L, "Tata Nexon", CarStatus.IDLE, "carlos@trimble.com"),
+                new CarSummaryRow(3L, "Honda City", CarStatus.ON_LEASE, "carlos@trimble.com")));
+
+        ResponseModel<List<CarResponseDTO>> response = carService.findNearbyCars(12.97, 77.59, 5, 10);
+
+        assertEquals(1, response.getData().size());
+        assertEquals(1L, response.getData().get(0).getId());
+        assertEquals(1.5, response.getData().get(0).getDistanceKm());
+    }
+
+    @Test
+    @DisplayName("❌ Should reject a nearby search with an out-of-range radius")
+    void shouldRejectInvalidNearbyRadius() {
+        assertThrows(BusinessRuleViolationException.class,
+                () -> carService.findNearbyCars(12.97, 77.59, 500, 10));
+        verifyNoInteractions(carLocationIndex);
+    }
 }
@@ -0,0 +1,126 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarStatusRow;
+import com.trimblecars.lease_service.dto.ReconciliationReportDTO;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.repository.CarRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarStatusReconciliationServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private CarLocationIndex carLocationIndex;
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarStatusReconciliationService service() {
+        return new CarStatusReconciliationService(carRepository, collectionVersionService, carLocationIndex,
+                leaseService, transactionManager, false, true, 3, 0);
+    }
+
+    @Test
+    @DisplayName("✅ Should repair stuck cars chunk by chunk and refresh the availability caches")
+    void shouldRepairMismatches() {
+        when(carRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(carRepository.findIdsAfter(eq(3L), any())).thenReturn(List.of(4L));
+        when(carRepository.findIdsAfter(eq(4L), any())).thenReturn(List.of());
+        when(carRepository.findOnLeaseWithoutActiveLease(0L, 3L)).thenReturn(List.of(1L));
+        when(carRepository.findNotOnLeaseWithActiveLease(0L, 3L)).thenReturn(List.of(
+                new CarStatusRow(2L, CarStatus.IDLE),
+                new CarStatusRow(3L, CarStatus.ON_SERVICE)));
+        when(carRepository.findOnLeaseWithoutActiveLease(3L, 4L)).thenReturn(List.of());
+        when(carRepository.findNotOnLeaseWithActiveLease(3L, 4L)).thenReturn(List.of());
+        when(carRepository.releaseCarsWithoutActiveLease(eq(List.of(1L)), any())).thenReturn(1);
+        when(carRepository.markCarsWithActiveLease(eq(List.of(2L)), any())).thenReturn(1);
+        Car released = new Car(1L, "Tata Nexon", CarStatus.IDLE, null);
+        Car leased = new Car(2L, "Honda City", CarStatus.ON_LEASE, null);
+        when(carRepository.findAllById(List.of(1L))).thenReturn(List.of(released));
+        when(carRepository.findAllById(List.of(2L))).thenReturn(List.of(leased));
+
+        ReconciliationReportDTO report = service().reconcile(true);
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(2, report.getChunks());
+        assertEquals(4, report.getCarsScanned());
+        assertEquals(1, report.getOnLeaseWithoutActiveLease());
+        assertEquals(1, report.getIdleWithActiveLease());
+        assertEquals(1, report.getOnServiceWithActiveLease());
+        assertEquals(2, report.getRepaired());
+        assertEquals(2, report.getTotalRepaired());
+        verify(collectionVersionService).carStatusChanged(released, CarStatus.ON_LEASE);
+        verify(collectionVersionService).carStatusChanged(leased, CarStatus.IDLE);
+        verify(carLocationIndex).carChanged(released);
+        verify(carLocationIndex).carChanged(leased);
+        verify(leaseService).assignToNextWaiter(released);
+        verify(leaseService, never()).assignToNextWaiter(leased);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("✅ Should only report mismatches in a dry run")
+    void shouldOnlyReportInDryRun() {
+        when(carRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L));
+        when(carRepository.findIdsAfter(eq(1L), any())).thenReturn(List.of());
+        when(carRepository.findOnLeaseWithoutActiveLease(0L, 1L)).thenReturn(List.of(1L));
+        when(carRepository.findNotOnLeaseWithActiveLease(0L, 1L)).thenReturn(List.of());
+
+        ReconciliationReportDTO report = service().reconcile(false);
+
+        assertEquals(1, report.getOnLeaseWithoutActiveLease());
+        assertEquals(0, report.getRepaired());
+        verify(carRepository, never()).releaseCarsWithoutActiveLease(any(), any());
+        verifyNoInteractions(carLocationIndex, collectionVersionService, leaseService);
+    }
+
+    @Test
+    @DisplayName("✅ Should flag cars with more than one ACTIVE lease without repairing them")
+    void shouldFlagCarsWithMultipleActiveLeases() {
+        when(carRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(carRepository.findIdsAfter(eq(2L), any())).thenReturn(List.of());
+        when(carRepository.findOnLeaseWithoutActiveLease(0L, 2L)).thenReturn(List.of());
+        when(carRepository.findNotOnLeaseWithActiveLease(0L, 2L)).thenReturn(List.of());
+        when(carRepository.findWithMultipleActiveLeases(0L, 2L)).thenReturn(List.of(2L));
+
+        ReconciliationReportDTO report = service().reconcile(true);
+
+        assertEquals(1, report.getMultipleActiveLeases());
+        assertEquals(0, report.getRepaired());
+        verifyNoInteractions(leaseService);
+    }
+
+    @Test
+    @DisplayName("❌ Should report a failed run without losing the counts so far")
+    void shouldReportFailure() {
+        when(carRepository.findIdsAfter(anyLong(), any())).thenReturn(List.of(1L, 2L));
+        when(carRepository.findOnLeaseWithoutActiveLease(0L, 2L)).thenThrow(new IllegalStateException("connection lost"));
+
+        ReconciliationReportDTO report = service().reconcile(true);
+
+        assertEquals("FAILED", report.getStatus());
+        assertEquals("connection lost", report.getErrorMessage());
+        assertNotNull(report.getFinishedAt());
+    }
+}
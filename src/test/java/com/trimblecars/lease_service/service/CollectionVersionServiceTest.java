@@ -0,0 +1,77 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionVersionServiceTest {
+
+    private final CollectionVersionService versionService = new CollectionVersionService();
+
+    private final User carlos = new User(2L, "Carlos", "carlos@trimble.com", UserRole.OWNER);
+    private final User ayesha = new User(3L, "Ayesha", "ayesha@trimble.com", UserRole.OWNER);
+
+    @Test
+    @DisplayName("✅ Should change only the tags of lists the car belongs to")
+    void shouldInvalidateOnlyAffectedOwner() {
+        String carlosBefore = versionService.ownerCarsTag(2L);
+        String ayeshaBefore = versionService.ownerCarsTag(3L);
+        String serviceBefore = versionService.carsByStatusTag(CarStatus.ON_SERVICE);
+        String allBefore = versionService.allCarsTag();
+
+        Car car = new Car(1L, "Tata Nexon", CarStatus.ON_LEASE, carlos);
+        versionService.carStatusChanged(car, CarStatus.IDLE);
+
+        assertNotEquals(carlosBefore, versionService.ownerCarsTag(2L));
+        assertNotEquals(allBefore, versionService.allCarsTag());
+        assertEquals(ayeshaBefore, versionService.ownerCarsTag(3L));
+        assertEquals(serviceBefore, versionService.carsByStatusTag(CarStatus.ON_SERVICE));
+    }
+
+    @Test
+    @DisplayName("✅ Should change IDLE list tag when a car is registered")
+    void shouldBumpOnRegistration() {
+        String idleBefore = versionService.carsByStatusTag(CarStatus.IDLE);
+        String carlosBefore = versionService.ownerCarsTag(2L);
+
+        versionService.carRegistered(new Car(5L, "Honda City", CarStatus.IDLE, ayesha));
+
+        assertNotEquals(idleBefore, versionService.carsByStatusTag(CarStatus.IDLE));
+        assertEquals(carlosBefore, versionService.ownerCarsTag(2L));
+    }
+
+    @Test
+    @DisplayName("✅ Should bump each owner once for a bulk status change")
+    void shouldBumpOwnersOfBulkChange() {
+        String carlosBefore = versionService.ownerCarsTag(2L);
+        String ayeshaBefore = versionService.ownerCarsTag(3L);
+        String serviceBefore = versionService.carsByStatusTag(CarStatus.ON_SERVICE);
+        String leasedBefore = versionService.carsByStatusTag(CarStatus.ON_LEASE);
+
+        versionService.carsStatusChanged(Arrays.asList(2L, 2L, null), CarStatus.IDLE, CarStatus.ON_SERVICE);
+
+        assertNotEquals(carlosBefore, versionService.ownerCarsTag(2L));
+        assertNotEquals(serviceBefore, versionService.carsByStatusTag(CarStatus.ON_SERVICE));
+        assertEquals(ayeshaBefore, versionService.ownerCarsTag(3L));
+        assertEquals(leasedBefore, versionService.carsByStatusTag(CarStatus.ON_LEASE));
+    }
+
+    @Test
+    @DisplayName("✅ Should partition lease history tags by customer")
+    void shouldPartitionCustomerLeases() {
+        String rajeshBefore = versionService.customerLeasesTag(7L);
+        String emilyBefore = versionService.customerLeasesTag(8L);
+
+        versionService.customerLeasesChanged(7L);
+
+        assertNotEquals(rajeshBefore, versionService.customerLeasesTag(7L));
+        assertEquals(emilyBefore, versionService.customerLeasesTag(8L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CacheStatsDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerLeaseHistoryCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 7, 1);
+
+    @Mock
+    private LeaseHistoryService leaseHistoryService;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    private CustomerLeaseHistoryCache cache;
+    private User customer;
+
+    @BeforeEach
+    void setup() {
+        cache = new CustomerLeaseHistoryCache(leaseHistoryService, collectionVersionService, 1_000_000);
+        customer = new User(7L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+    }
+
+    @Test
+    @DisplayName("✅ Should load once and serve repeat reads from the cache")
+    void shouldCacheAfterFirstRead() {
+        when(collectionVersionService.customerLeasesTag(7L)).thenReturn("v1");
+        when(leaseHistoryService.findByCustomer(7L)).thenReturn(List.of(
+                new LeaseResponseDTO(1L, "Tata Nexon", "rajesh@trimble.com", START, START.plusDays(3))));
+
+        cache.getByCustomer(7L);
+        List<LeaseResponseDTO> second = cache.getByCustomer(7L);
+
+        assertEquals(1, second.size());
+        assertEquals(START.plusDays(3), second.get(0).getEndDate());
+        verify(leaseHistoryService, times(1)).findByCustomer(7L);
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(0.5, stats.getHitRatio());
+        assertTrue(stats.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("✅ Should append started leases and patch ended ones in place")
+    void shouldApplyWritesInPlace() {
+        when(collectionVersionService.customerLeasesTag(7L)).thenReturn("v1");
+        when(leaseHistoryService.findByCustomer(7L)).thenReturn(List.of(
+                new LeaseResponseDTO(1L, "Tata Nexon", "rajesh@trimble.com", START, null)));
+        cache.getByCustomer(7L);
+
+        Lease started = lease(2L, START.plusDays(1), null);
+        cache.leaseStarted(started);
+        cache.leaseStarted(started);
+        cache.leaseEnded(lease(1L, START, START.plusDays(5)));
+
+        List<LeaseResponseDTO> history = cache.getByCustomer(7L);
+
+        assertEquals(2, history.size());
+        assertEquals(1L, history.get(0).getLeaseId());
+        assertEquals(START.plusDays(5), history.get(0).getEndDate());
+        assertEquals(2L, history.get(1).getLeaseId());
+        assertEquals("Honda City", history.get(1).getCarModel());
+        assertNull(history.get(1).getEndDate());
+        verify(leaseHistoryService, times(1)).findByCustomer(7L);
+    }
+
+    @Test
+    @DisplayName("❌ Should not cache a load that raced with a lease commit")
+    void shouldSkipCachingStaleLoad() {
+        when(collectionVersionService.customerLeasesTag(7L)).thenReturn("v1", "v2", "v2", "v2");
+        when(leaseHistoryService.findByCustomer(7L)).thenReturn(List.of());
+
+        cache.getByCustomer(7L);
+        cache.getByCustomer(7L);
+
+        verify(leaseHistoryService, times(2)).findByCustomer(7L);
+    }
+
+    @Test
+    @DisplayName("✅ Should evict least recently used customers beyond the memory budget")
+    void shouldEvictWithinBudget() {
+        cache = new CustomerLeaseHistoryCache(leaseHistoryService, collectionVersionService, 600);
+        when(collectionVersionService.customerLeasesTag(anyLong())).thenReturn("v1");
+        when(leaseHistoryService.findByCustomer(anyLong())).thenAnswer(invocation -> List.of(
+                new LeaseResponseDTO(invocation.getArgument(0), "Tata Nexon", "someone@trimble.com", START, null)));
+
+        for (long customerId = 1; customerId <= 5; customerId++) {
+            cache.getByCustomer(customerId);
+        }
+
+        CacheStatsDTO stats = cache.getStats();
+        assertTrue(stats.getEstimatedBytes() <= 600);
+        assertTrue(stats.getEvictions() > 0);
+        assertEquals(5 - stats.getEvictions(), stats.getEntries());
+    }
+
+    private Lease lease(Long id, LocalDate startDate, LocalDate endDate) {
+        Car car = new Car(4L, id == 1L ? "Tata Nexon" : "Honda City", CarStatus.ON_LEASE, null);
+        return new Lease(id, car, customer, startDate, endDate);
+    }
+}
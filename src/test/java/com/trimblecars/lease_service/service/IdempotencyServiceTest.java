@@ -0,0 +1,251 @@
+package com.trimblecars.lease_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.lease_service.dto.LeaseRequestDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.entity.IdempotencyRecord;
+import com.trimblecars.lease_service.enums.IdempotencyState;
+import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.exception.ErrorCode;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setup() {
+        idempotencyService = new IdempotencyService(recordRepository, new ObjectMapper(), false, 60, 2, 1_000, 60);
+    }
+
+    @Test
+    @DisplayName("✅ Should replay the first response for a repeated key")
+    void shouldReplayResponseForSameKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<ResponseModel<LeaseResponseDTO>> first = idempotencyService.execute("lease-start:7", "abc", null,
+                LeaseResponseDTO.class, () -> lease(calls.incrementAndGet()));
+        ResponseEntity<ResponseModel<LeaseResponseDTO>> second = idempotencyService.execute("lease-start:7", "abc", null,
+                LeaseResponseDTO.class, () -> lease(calls.incrementAndGet()));
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    @DisplayName("✅ Should run every request when no key is sent")
+    void shouldNotCacheWithoutKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        idempotencyService.execute("lease-start:7", null, null, LeaseResponseDTO.class, () -> lease(calls.incrementAndGet()));
+        idempotencyService.execute("lease-start:7", " ", null, LeaseResponseDTO.class, () -> lease(calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, idempotencyService.size());
+    }
+
+    @Test
+    @DisplayName("❌ Should not remember failed executions")
+    void shouldAllowRetryAfterFailure() {
+        assertThrows(BusinessRuleViolationException.class, () -> idempotencyService.execute("lease-start:7", "abc", null,
+                LeaseResponseDTO.class, () -> {
+                    throw new BusinessRuleViolationException("Car is not available for lease.");
+                }));
+
+        ResponseEntity<ResponseModel<LeaseResponseDTO>> retried = idempotencyService.execute("lease-start:7", "abc", null,
+                LeaseResponseDTO.class, () -> lease(1));
+
+        assertEquals(1L, retried.getBody().getData().getLeaseId());
+    }
+
+    @Test
+    @DisplayName("✅ Should keep at most max-entries keys")
+    void shouldEvictOldestBeyondCapacity() {
+        idempotencyService.execute("s", "k1", null, LeaseResponseDTO.class, () -> lease(1));
+        idempotencyService.execute("s", "k2", null, LeaseResponseDTO.class, () -> lease(2));
+        idempotencyService.execute("s", "k3", null, LeaseResponseDTO.class, () -> lease(3));
+
+        assertEquals(2, idempotencyService.size());
+    }
+
+    @Test
+    @DisplayName("✅ Should coalesce concurrent duplicates onto one execution")
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<ResponseModel<LeaseResponseDTO>>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> idempotencyService.execute("lease-start:7", "abc", null, LeaseResponseDTO.class, () -> {
+                    calls.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return lease(42);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ResponseEntity<ResponseModel<LeaseResponseDTO>>> result : results) {
+                assertEquals(42L, result.get(5, TimeUnit.SECONDS).getBody().getData().getLeaseId());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("❌ Should reject a key reused for a different request")
+    void shouldRejectKeyReusedForDifferentRequest() {
+        idempotencyService.execute("lease-start:7", "abc", request(4L), LeaseResponseDTO.class, () -> lease(1));
+
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> idempotencyService.execute("lease-start:7", "abc", request(5L), LeaseResponseDTO.class, () -> lease(2)));
+
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("✅ Should never evict a key whose request is still running")
+    void shouldNotEvictInFlightKeys() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = pool.submit(() -> idempotencyService.execute("s", "k1", null, LeaseResponseDTO.class, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return lease(1);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            idempotencyService.execute("s", "k2", null, LeaseResponseDTO.class, () -> lease(2));
+            idempotencyService.execute("s", "k3", null, LeaseResponseDTO.class, () -> lease(3));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+
+            idempotencyService.execute("s", "k1", null, LeaseResponseDTO.class, () -> lease(calls.incrementAndGet()));
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Should run a key once across instances sharing the record table")
+    void shouldRunOnceAcrossInstances() throws Exception {
+        Map<String, IdempotencyRecord> table = recordTable();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        IdempotencyService first = new IdempotencyService(recordRepository, objectMapper, true, 60, 100, 5_000, 60);
+        IdempotencyService second = new IdempotencyService(recordRepository, objectMapper, true, 60, 100, 5_000, 60);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<ResponseModel<LeaseResponseDTO>>> onFirst = pool.submit(() ->
+                    first.execute("lease-start:7", "abc", request(4L), LeaseResponseDTO.class, () -> {
+                        calls.incrementAndGet();
+                        running.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return lease(42);
+                    }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<ResponseModel<LeaseResponseDTO>>> onSecond = pool.submit(() ->
+                    second.execute("lease-start:7", "abc", request(4L), LeaseResponseDTO.class,
+                            () -> lease(calls.incrementAndGet())));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(42L, onFirst.get(5, TimeUnit.SECONDS).getBody().getData().getLeaseId());
+            assertEquals(42L, onSecond.get(5, TimeUnit.SECONDS).getBody().getData().getLeaseId());
+            assertEquals(1, calls.get());
+            assertEquals(IdempotencyState.COMPLETED, table.get("lease-start:7:abc").getState());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Stands in for the idempotency_record table: the key is unique, as the primary key makes it.
+     */
+    private Map<String, IdempotencyRecord> recordTable() {
+        Map<String, IdempotencyRecord> table = new ConcurrentHashMap<>();
+        when(recordRepository.insertInProgress(anyString(), anyString(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            IdempotencyRecord record = new IdempotencyRecord(invocation.getArgument(0), invocation.getArgument(1),
+                    IdempotencyState.IN_PROGRESS, 0, null, invocation.getArgument(2));
+            if (table.putIfAbsent(record.getKey(), record) != null) {
+                throw new DataIntegrityViolationException("duplicate key " + record.getKey());
+            }
+            return 1;
+        });
+        when(recordRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+        when(recordRepository.complete(anyString(), anyInt(), anyString())).thenAnswer(invocation -> {
+            IdempotencyRecord record = table.get(invocation.<String>getArgument(0));
+            record.setHttpStatus(invocation.getArgument(1));
+            record.setResponseBody(invocation.getArgument(2));
+            record.setState(IdempotencyState.COMPLETED);
+            return 1;
+        });
+        return table;
+    }
+
+    private static LeaseRequestDTO request(Long carId) {
+        LeaseRequestDTO dto = new LeaseRequestDTO();
+        dto.setCarId(carId);
+        return dto;
+    }
+
+    private ResponseEntity<ResponseModel<LeaseResponseDTO>> lease(long id) {
+        LeaseResponseDTO dto = new LeaseResponseDTO();
+        dto.setLeaseId(id);
+        return ResponseEntity.ok(ResponseModel.success("Lease started successfully.", dto));
+    }
+}
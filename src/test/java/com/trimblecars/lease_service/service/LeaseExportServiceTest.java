@@ -0,0 +1,134 @@
+package com.trimblecars.lease_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import com.trimblecars.lease_service.enums.Bulkhead;
+import com.trimblecars.lease_service.enums.ExportFormat;
+import com.trimblecars.lease_service.repository.LeaseHistoryViewRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseExportServiceTest {
+
+    @Mock
+    private LeaseHistoryViewRepository viewRepository;
+
+    private LeaseExportService exportService;
+
+    private final List<BulkheadService.Compartment> readCompartments = new CopyOnWriteArrayList<>();
+    private final AtomicInteger reading = new AtomicInteger();
+    private final AtomicInteger peakReading = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new LeaseExportService(viewRepository, objectMapper, 3, 10);
+
+        when(viewRepository.findMinLeaseId()).thenReturn(1L);
+        when(viewRepository.findMaxLeaseId()).thenReturn(95L);
+        when(viewRepository.findResponsesInRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            readCompartments.add(BulkheadService.current());
+            peakReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+            try {
+                // Later partitions finish first, so ordering depends on the writer, not on timing
+                Thread.sleep(Math.max(0, 50 - from / 2));
+                return LongStream.rangeClosed(from, to).mapToObj(this::lease).toList();
+            } finally {
+                reading.decrementAndGet();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    @Test
+    void shouldWriteCsvPartitionsInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportFormat.CSV, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(95, rows);
+        assertEquals("LeaseID,CarModel,CustomerEmail,StartDate,EndDate", lines.get(0));
+        assertEquals(96, lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            assertTrue(lines.get(i).startsWith(i + ","), lines.get(i));
+        }
+        assertTrue(lines.get(1).endsWith(",ONGOING"));
+        assertTrue(lines.get(1).contains("\"Tata Nexon, XZ\""));
+        verify(viewRepository, times(10)).findResponsesInRange(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldWriteGzippedNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.NDJSON, true, out);
+
+        String ndjson;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(95, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"leaseId\":1,"));
+        assertTrue(lines.get(94).contains("\"leaseId\":95"));
+        assertTrue(ndjson.endsWith("\n"));
+    }
+
+    @Test
+    void shouldReadInCallersCompartmentWithinItsConnections() throws Exception {
+        Map<Bulkhead, BulkheadService.Limits> limits = new EnumMap<>(Bulkhead.class);
+        limits.put(Bulkhead.ADMIN, new BulkheadService.Limits(4, 8, 5_000, 2, 5_000, 30));
+        BulkheadService bulkheadService = new BulkheadService(limits);
+
+        assertTrue(bulkheadService.enter(Bulkhead.ADMIN));
+        BulkheadService.Compartment admin = BulkheadService.current();
+        long rows;
+        try {
+            rows = exportService.export(ExportFormat.CSV, false, new ByteArrayOutputStream());
+        } finally {
+            bulkheadService.exit();
+        }
+
+        assertEquals(95, rows);
+        assertEquals(10, readCompartments.size());
+        assertTrue(readCompartments.stream().allMatch(compartment -> compartment == admin));
+        // parallelism is 3, but the admin partition only has 2 connections
+        assertTrue(peakReading.get() <= 2, "peak concurrent reads: " + peakReading.get());
+    }
+
+    private LeaseResponseDTO lease(long id) {
+        return new LeaseResponseDTO(id, "Tata Nexon, XZ", "rajesh@trimble.com", LocalDate.of(2025, 1, 1), null);
+    }
+}
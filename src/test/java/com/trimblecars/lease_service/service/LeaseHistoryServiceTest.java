@@ -0,0 +1,77 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.LeaseHistoryView;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.repository.LeaseHistoryViewRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseHistoryServiceTest {
+
+    @Mock private LeaseHistoryViewRepository viewRepository;
+    @Mock private LeaseRepository leaseRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private LeaseHistoryService leaseHistoryService;
+    private Lease lease;
+
+    @BeforeEach
+    void setup() {
+        leaseHistoryService = new LeaseHistoryService(viewRepository, leaseRepository, transactionManager, 2, 100);
+        User customer = new User(7L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+        Car car = new Car(4L, "Tesla Model 3", CarStatus.ON_LEASE, null);
+        lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), null);
+    }
+
+    @Test
+    void shouldStoreFlatRowOnStart() {
+        ArgumentCaptor<LeaseHistoryView> captor = ArgumentCaptor.forClass(LeaseHistoryView.class);
+
+        leaseHistoryService.recordStarted(lease);
+
+        verify(viewRepository).save(captor.capture());
+        LeaseHistoryView view = captor.getValue();
+        assertEquals(1L, view.getLeaseId());
+        assertEquals(4L, view.getCarId());
+        assertEquals(7L, view.getCustomerId());
+        assertEquals("Tesla Model 3", view.getCarModel());
+        assertEquals("rajesh@trimble.com", view.getCustomerEmail());
+        assertNull(view.getEndDate());
+    }
+
+    @Test
+    void shouldPatchEndDateInPlace() {
+        lease.setEndDate(LocalDate.now());
+        when(viewRepository.updateEndDate(1L, lease.getEndDate())).thenReturn(1);
+
+        leaseHistoryService.recordEnded(lease);
+
+        verify(viewRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldInsertRowWhenEndedLeaseIsMissingFromView() {
+        lease.setEndDate(LocalDate.now());
+        when(viewRepository.updateEndDate(1L, lease.getEndDate())).thenReturn(0);
+
+        leaseHistoryService.recordEnded(lease);
+
+        verify(viewRepository).save(any(LeaseHistoryView.class));
+    }
+}
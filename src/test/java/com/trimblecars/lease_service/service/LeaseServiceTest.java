@@ -4,9 +4,13 @@ import com.trimblecars.lease_service.dto.LeaseResponseDTO;
 import com.trimblecars.lease_service.entity.Car;
 import com.trimblecars.lease_service.entity.Lease;
 import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.entity.WaitlistEntry;
 import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.LeaseStatus;
 import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.enums.WaitlistStatus;
 import com.trimblecars.lease_service.exception.BusinessRuleViolationException;
+import com.trimblecars.lease_service.exception.ErrorCode;
 import com.trimblecars.lease_service.exception.ResourceNotFoundException;
 import com.trimblecars.lease_service.model.ResponseModel;
 import com.trimblecars.lease_service.repository.CarRepository;
@@ -16,10 +20,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +43,15 @@ class LeaseServiceTest {
     @Mock private CarRepository carRepository;
     @Mock private LeaseRepository leaseRepository;
     @Mock private UserService userService;
+    @Mock private CollectionVersionService collectionVersionService;
+    @Mock private LeaseHistoryService leaseHistoryService;
+    @Mock private AuditLogService auditLogService;
+    @Mock private CarLocationIndex carLocationIndex;
+    @Mock private WaitlistService waitlistService;
+    @Mock private CustomerLeaseHistoryCache customerLeaseHistoryCache;
+    @Mock private NotificationService notificationService;
+    @Mock private LeaseDeadlineTracker leaseDeadlineTracker;
+    @Spy private ReadCoalescer readCoalescer = new ReadCoalescer(true, 0, 100);
     @InjectMocks private LeaseService leaseService;
 
     private User customer;
@@ -47,7 +69,8 @@ class LeaseServiceTest {
 
         when(userService.getUserById(customer.getId())).thenReturn(customer);  // ✅ Fixed
         when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
-        when(leaseRepository.countByCustomerIdAndEndDateIsNull(customer.getId())).thenReturn(0L);
+        when(leaseRepository.countActiveByCustomerId(customer.getId())).thenReturn(0L);
+        when(carRepository.claimIfIdle(eq(4L), any(LocalDateTime.class))).thenReturn(1);
         when(leaseRepository.save(any(Lease.class))).thenReturn(lease);
 
         ResponseModel<LeaseResponseDTO> initialResult = leaseService.startLease(customer.getId(), car.getId());
@@ -61,17 +84,40 @@ class LeaseServiceTest {
     }
 
 
+    @Test
+    void shouldStartLeaseWithPlannedEndDate() {
+        LocalDate plannedEnd = LocalDate.now().plusDays(7);
+        when(userService.getUserById(customer.getId())).thenReturn(customer);
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
+        when(leaseRepository.countActiveByCustomerId(customer.getId())).thenReturn(0L);
+        when(carRepository.claimIfIdle(eq(4L), any(LocalDateTime.class))).thenReturn(1);
+        when(leaseRepository.save(any(Lease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseModel<LeaseResponseDTO> response = leaseService.startLease(customer.getId(), car.getId(), plannedEnd);
+
+        assertEquals(plannedEnd, response.getData().getPlannedEndDate());
+        verify(leaseDeadlineTracker).leaseStarted(argThat(lease -> plannedEnd.equals(lease.getPlannedEndDate())));
+    }
+
+    @Test
+    void shouldRejectPlannedEndDateInThePast() {
+        assertThrows(BusinessRuleViolationException.class,
+                () -> leaseService.startLease(customer.getId(), car.getId(), LocalDate.now().minusDays(1)));
+
+        verify(leaseRepository, never()).save(any(Lease.class));
+    }
+
     @Test
     void shouldNotStartLeaseIfLimitExceeded() {
         when(userService.getUserById(customer.getId())).thenReturn(customer);  // ✅ Fix
-        when(leaseRepository.countByCustomerIdAndEndDateIsNull(customer.getId())).thenReturn(2L);
+        when(leaseRepository.countActiveByCustomerId(customer.getId())).thenReturn(2L);
 
-        BusinessRuleViolationException ex = assertThrows(
-                BusinessRuleViolationException.class,
-                () -> leaseService.startLease(customer.getId(), car.getId())
-        );
+        ResponseModel<LeaseResponseDTO> response = leaseService.startLease(customer.getId(), car.getId());
 
-        assertEquals("Customer already has 2 active leases.", ex.getMessage());
+        assertEquals("FAILURE", response.getStatus());
+        assertEquals(ErrorCode.ACTIVE_LEASE_LIMIT_REACHED, response.getErrorCode());
+        assertEquals("Customer already has 2 active leases.", response.getMessage());
+        verify(leaseRepository, never()).save(any(Lease.class));
     }
 
     @Test
@@ -80,14 +126,14 @@ class LeaseServiceTest {
 
         when(userService.getUserById(customer.getId())).thenReturn(customer);
         when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
-        when(leaseRepository.countByCustomerIdAndEndDateIsNull(customer.getId())).thenReturn(0L);
+        when(leaseRepository.countActiveByCustomerId(customer.getId())).thenReturn(0L);
 
-        BusinessRuleViolationException ex = assertThrows(
-                BusinessRuleViolationException.class,
-                () -> leaseService.startLease(customer.getId(), car.getId())
-        );
+        ResponseModel<LeaseResponseDTO> response = leaseService.startLease(customer.getId(), car.getId());
 
-        assertEquals("Car is not available for lease.", ex.getMessage());
+        assertEquals("FAILURE", response.getStatus());
+        assertEquals(ErrorCode.CAR_NOT_AVAILABLE, response.getErrorCode());
+        assertEquals("Car is not available for lease.", response.getMessage());
+        verify(carRepository, never()).save(any(Car.class));
     }
 
     @Test
@@ -96,6 +142,7 @@ class LeaseServiceTest {
         Lease lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), null);
 
         when(leaseRepository.findById(1L)).thenReturn(Optional.of(lease));
+        when(leaseRepository.endIfActive(eq(1L), any(LocalDate.class))).thenReturn(1);
         when(leaseRepository.save(any(Lease.class))).thenReturn(lease);
         when(carRepository.save(any(Car.class))).thenReturn(car); // also mock carRepository.save()
 
@@ -103,6 +150,7 @@ class LeaseServiceTest {
         LeaseResponseDTO result = response.getData();
 
         assertNotNull(result.getEndDate());
+        assertEquals(LeaseStatus.ENDED, lease.getStatus());
         assertEquals("Tesla Model 3", result.getCarModel());
         assertEquals("rajesh@trimble.com", result.getCustomerEmail());
     }
@@ -118,5 +166,150 @@ class LeaseServiceTest {
         );
 
         assertEquals("Lease not found with ID: 999", ex.getMessage());
+        assertEquals(ErrorCode.RESOURCE_NOT_FOUND, ex.getErrorCode());
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    void shouldRejectEndingAnotherCustomersLease() {
+        Lease lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), null);
+        when(leaseRepository.findById(1L)).thenReturn(Optional.of(lease));
+
+        ResponseModel<LeaseResponseDTO> response = leaseService.endLease(99L, 1L);
+
+        assertEquals(ErrorCode.NOT_LEASE_OWNER, response.getErrorCode());
+        assertNull(lease.getEndDate());
+    }
+
+    @Test
+    void shouldRejectEndingAnAlreadyEndedLease() {
+        car.setStatus(CarStatus.IDLE);
+        Lease lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), LocalDate.now().minusDays(1));
+        when(leaseRepository.findById(1L)).thenReturn(Optional.of(lease));
+
+        ResponseModel<LeaseResponseDTO> response = leaseService.endLease(7L, 1L);
+
+        assertEquals(ErrorCode.LEASE_ALREADY_ENDED, response.getErrorCode());
+        assertEquals(CarStatus.IDLE, car.getStatus());
+        verify(carRepository, never()).save(any(Car.class));
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void shouldEndLeaseOnceWhenTwoRequestsRace() throws Exception {
+        car.setStatus(CarStatus.ON_LEASE);
+        // Each request loads its own copy of the still-active lease, as two transactions would
+        when(leaseRepository.findById(1L)).thenReturn(
+                Optional.of(new Lease(1L, car, customer, LocalDate.now().minusDays(3), null)),
+                Optional.of(new Lease(1L, car, customer, LocalDate.now().minusDays(3), null)));
+        CyclicBarrier bothChecked = new CyclicBarrier(2);
+        AtomicBoolean active = new AtomicBoolean(true);
+        when(leaseRepository.endIfActive(eq(1L), any(LocalDate.class))).thenAnswer(invocation -> {
+            bothChecked.await(5, TimeUnit.SECONDS);
+            return active.compareAndSet(true, false) ? 1 : 0;
+        });
+        when(leaseRepository.save(any(Lease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseModel<LeaseResponseDTO>> first = pool.submit(() -> leaseService.endLease(7L, 1L));
+            Future<ResponseModel<LeaseResponseDTO>> second = pool.submit(() -> leaseService.endLease(1L));
+            List<String> outcomes = List.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS)).stream()
+                    .map(response -> response.getErrorCode() == null ? "ENDED" : response.getErrorCode().name())
+                    .sorted()
+                    .toList();
+
+            assertEquals(List.of("ENDED", ErrorCode.LEASE_ALREADY_ENDED.name()), outcomes);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(carRepository, times(1)).save(car);
+        verify(waitlistService, times(1)).claimNextWaiter("Tesla Model 3");
+        verify(notificationService, times(1)).leaseEnded(any(Lease.class));
+    }
+
+    @Test
+    void shouldAssignReleasedCarToNextWaiter() {
+        car.setStatus(CarStatus.ON_LEASE);
+        Lease lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), null);
+        User waiter = new User(8L, "Meera", "meera@trimble.com", UserRole.CUSTOMER);
+        WaitlistEntry entry = new WaitlistEntry(30L, "Tesla Model 3", waiter, WaitlistStatus.ASSIGNED,
+                null, null, null);
+
+        when(leaseRepository.findById(1L)).thenReturn(Optional.of(lease));
+        when(leaseRepository.endIfActive(eq(1L), any(LocalDate.class))).thenReturn(1);
+        when(waitlistService.claimNextWaiter("Tesla Model 3")).thenReturn(Optional.of(entry));
+        when(carRepository.claimIfIdle(eq(4L), any(LocalDateTime.class))).thenReturn(1);
+        when(leaseRepository.save(any(Lease.class))).thenAnswer(invocation -> {
+            Lease saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(2L);
+            }
+            return saved;
+        });
+
+        ResponseModel<LeaseResponseDTO> response = leaseService.endLease(7L, 1L);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertNotNull(lease.getEndDate());
+        assertEquals(CarStatus.ON_LEASE, car.getStatus());
+        verify(waitlistService).markAssigned(entry, 2L);
+        verify(leaseHistoryService).recordStarted(argThat(started -> started.getCustomer() == waiter));
+    }
+
+    @Test
+    void shouldStartOneLeaseWhenTwoStartsRaceForOneCar() throws Exception {
+        User other = new User(8L, "Meera", "meera@trimble.com", UserRole.CUSTOMER);
+        when(userService.getUserById(7L)).thenReturn(customer);
+        when(userService.getUserById(8L)).thenReturn(other);
+        when(leaseRepository.countActiveByCustomerId(anyLong())).thenReturn(0L);
+        // Each request loads its own copy of the still-idle car, as two transactions would
+        when(carRepository.findById(4L)).thenReturn(
+                Optional.of(new Car(4L, "Tesla Model 3", CarStatus.IDLE, null)),
+                Optional.of(new Car(4L, "Tesla Model 3", CarStatus.IDLE, null)));
+        CyclicBarrier bothChecked = new CyclicBarrier(2);
+        AtomicBoolean idle = new AtomicBoolean(true);
+        when(carRepository.claimIfIdle(eq(4L), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            bothChecked.await(5, TimeUnit.SECONDS);
+            return idle.compareAndSet(true, false) ? 1 : 0;
+        });
+        when(leaseRepository.save(any(Lease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseModel<LeaseResponseDTO>> first = pool.submit(() -> leaseService.startLease(7L, 4L));
+            Future<ResponseModel<LeaseResponseDTO>> second = pool.submit(() -> leaseService.startLease(8L, 4L));
+            List<String> outcomes = List.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS)).stream()
+                    .map(response -> response.getErrorCode() == null ? "STARTED" : response.getErrorCode().name())
+                    .sorted()
+                    .toList();
+
+            assertEquals(List.of(ErrorCode.CAR_NOT_AVAILABLE.name(), "STARTED"), outcomes);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(leaseRepository, times(1)).save(any(Lease.class));
+        verify(notificationService, times(1)).leaseStarted(any(Lease.class));
+    }
+
+    @Test
+    void shouldRequeueWaiterWhenReleasedCarIsTakenFirst() {
+        car.setStatus(CarStatus.ON_LEASE);
+        Lease lease = new Lease(1L, car, customer, LocalDate.now().minusDays(3), null);
+        User waiter = new User(8L, "Meera", "meera@trimble.com", UserRole.CUSTOMER);
+        WaitlistEntry entry = new WaitlistEntry(30L, "Tesla Model 3", waiter, WaitlistStatus.ASSIGNED,
+                null, null, null);
+
+        when(leaseRepository.findById(1L)).thenReturn(Optional.of(lease));
+        when(leaseRepository.endIfActive(eq(1L), any(LocalDate.class))).thenReturn(1);
+        when(waitlistService.claimNextWaiter("Tesla Model 3")).thenReturn(Optional.of(entry));
+        when(carRepository.claimIfIdle(eq(4L), any(LocalDateTime.class))).thenReturn(0);
+
+        ResponseModel<LeaseResponseDTO> response = leaseService.endLease(7L, 1L);
+
+        assertEquals("SUCCESS", response.getStatus());
+        verify(waitlistService).requeue(entry);
+        verify(waitlistService, never()).markAssigned(any(), any());
+        verify(leaseHistoryService, never()).recordStarted(any());
     }
 }
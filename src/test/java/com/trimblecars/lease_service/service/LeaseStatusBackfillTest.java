@@ -0,0 +1,49 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseStatusBackfillTest {
+
+    @Mock
+    private LeaseRepository leaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("✅ Should backfill status in id-range batches")
+    void shouldBackfillInBatches() {
+        LeaseStatusBackfill backfill = new LeaseStatusBackfill(leaseRepository, transactionManager, 100);
+        when(leaseRepository.findMinId()).thenReturn(1L);
+        when(leaseRepository.findMaxId()).thenReturn(250L);
+        when(leaseRepository.backfillStatus(anyLong(), anyLong())).thenReturn(100, 100, 50);
+
+        assertEquals(250, backfill.backfill());
+
+        verify(leaseRepository).backfillStatus(1L, 100L);
+        verify(leaseRepository).backfillStatus(101L, 200L);
+        verify(leaseRepository).backfillStatus(201L, 250L);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("✅ Should do nothing when there are no leases")
+    void shouldSkipEmptyTable() {
+        LeaseStatusBackfill backfill = new LeaseStatusBackfill(leaseRepository, transactionManager, 100);
+
+        assertEquals(0, backfill.backfill());
+
+        verify(leaseRepository, never()).backfillStatus(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,118 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.entity.DeadLetterNotification;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.repository.DeadLetterNotificationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    @Mock
+    private DeadLetterNotificationRepository deadLetterRepository;
+
+    private final List<List<NotificationMessage>> sent = new ArrayList<>();
+
+    private NotificationService service(NotificationTransport transport, int capacity) {
+        return new NotificationService(transport, deadLetterRepository, true, 500, 100, 3, 0, capacity);
+    }
+
+    @Test
+    @DisplayName("✅ Should coalesce events per recipient into one message and notify the owner")
+    void shouldCoalescePerRecipient() {
+        NotificationService service = service(sent::add, 100);
+        User owner = new User(1L, "Carlos", "carlos@trimble.com", UserRole.OWNER);
+        User customer = new User(2L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+        Car car = new Car(4L, "Tesla Model 3", CarStatus.IDLE, owner);
+
+        service.leaseStarted(new Lease(10L, car, customer, LocalDate.now(), null));
+        service.leaseEnded(new Lease(10L, car, customer, LocalDate.now(), LocalDate.now()));
+        service.dispatchOnce();
+
+        assertEquals(1, sent.size());
+        List<NotificationMessage> batch = sent.get(0);
+        assertEquals(2, batch.size());
+        NotificationMessage toCustomer = batch.stream()
+                .filter(m -> m.recipient().equals("rajesh@trimble.com")).findFirst().orElseThrow();
+        assertEquals("2 lease updates", toCustomer.subject());
+        assertEquals(2, toCustomer.body().lines().count());
+        assertEquals(2, service.getStats().getDelivered());
+        assertEquals(0, service.getStats().getPendingEvents());
+    }
+
+    @Test
+    @DisplayName("✅ Should retry a failed batch and deliver it once the transport recovers")
+    void shouldRetryFailedBatch() {
+        int[] calls = {0};
+        NotificationService service = service(batch -> {
+            if (calls[0]++ == 0) {
+                throw new IOException("connection refused");
+            }
+            sent.add(batch);
+        }, 100);
+
+        service.enqueue("emily@trimble.com", "Lease #1 started.");
+        service.dispatchOnce();
+        assertTrue(sent.isEmpty());
+        assertEquals(1, service.getStats().getPendingRetries());
+
+        service.dispatchOnce();
+
+        assertEquals(1, sent.size());
+        assertEquals(1, service.getStats().getRetried());
+        assertEquals(0, service.getStats().getPendingRetries());
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    @DisplayName("❌ Should dead-letter a message after the last attempt fails")
+    @SuppressWarnings("unchecked")
+    void shouldDeadLetterAfterMaxAttempts() {
+        NotificationService service = service(batch -> {
+            throw new IOException("mailbox unavailable");
+        }, 100);
+
+        service.enqueue("ali@trimble.com", "Lease #2 ended.");
+        for (int attempt = 0; attempt < 3; attempt++) {
+            service.dispatchOnce();
+        }
+
+        ArgumentCaptor<List<DeadLetterNotification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deadLetterRepository).saveAll(captor.capture());
+        DeadLetterNotification dead = captor.getValue().get(0);
+        assertEquals("ali@trimble.com", dead.getRecipient());
+        assertEquals(3, dead.getAttempts());
+        assertEquals("mailbox unavailable", dead.getLastError());
+        assertEquals(1, service.getStats().getDeadLettered());
+    }
+
+    @Test
+    @DisplayName("❌ Should drop events instead of blocking once the queue is full")
+    void shouldDropWhenFull() {
+        NotificationService service = service(sent::add, 2);
+
+        service.enqueue("lina@trimble.com", "one");
+        service.enqueue("lina@trimble.com", "two");
+        service.enqueue("lina@trimble.com", "three");
+
+        assertEquals(1, service.getStats().getDropped());
+        assertEquals(2, service.getStats().getPendingEvents());
+    }
+}
@@ -0,0 +1,118 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.LeaseDeadlineRow;
+import com.trimblecars.lease_service.entity.Car;
+import com.trimblecars.lease_service.entity.Lease;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.enums.AuditAction;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.OverdueAction;
+import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueLeaseServiceTest {
+
+    @Mock
+    private LeaseRepository leaseRepository;
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    private Lease overdueLease(long id) {
+        Car car = new Car(4L, "Tesla Model 3", CarStatus.ON_LEASE, null);
+        User customer = new User(7L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+        Lease lease = new Lease(id, car, customer, LocalDate.now().minusDays(10), null);
+        lease.setPlannedEndDate(LocalDate.now().minusDays(3));
+        return lease;
+    }
+
+    @Test
+    @DisplayName("✅ Should alert on overdue leases loaded at startup and skip ended ones")
+    void shouldAlertOnOverdueLeases() {
+        LeaseDeadlineTracker tracker = new LeaseDeadlineTracker(leaseRepository, 60_000, 0, 100);
+        OverdueLeaseService service = new OverdueLeaseService(tracker, leaseRepository, leaseService,
+                notificationService, auditLogService, OverdueAction.ALERT, 500);
+        Lease lease = overdueLease(1L);
+        tracker.schedule(1L, tracker.deadlineOf(lease.getPlannedEndDate()));
+        tracker.schedule(2L, tracker.deadlineOf(lease.getPlannedEndDate()));
+        tracker.schedule(3L, tracker.deadlineOf(LocalDate.now().plusDays(5)));
+        when(leaseRepository.findActiveByIdIn(List.of(1L, 2L))).thenReturn(List.of(lease));
+
+        assertEquals(2, service.fire(System.currentTimeMillis()));
+
+        verify(notificationService).leaseOverdue(lease);
+        verify(auditLogService).record(AuditAction.LEASE_OVERDUE, null, 1L, 4L);
+        verifyNoInteractions(leaseService);
+        assertEquals(1, service.getStats().getAlerted());
+        assertEquals(1, service.getStats().getSkipped());
+        assertEquals(1, service.getStats().getPending());
+    }
+
+    @Test
+    @DisplayName("✅ Should fire a lease once when the startup load and its start hook both schedule it")
+    void shouldScheduleEachLeaseOnce() {
+        LeaseDeadlineTracker tracker = new LeaseDeadlineTracker(leaseRepository, 60_000, 0, 100);
+        OverdueLeaseService service = new OverdueLeaseService(tracker, leaseRepository, leaseService,
+                notificationService, auditLogService, OverdueAction.ALERT, 500);
+        Lease lease = overdueLease(1L);
+        when(leaseRepository.findOpenDeadlinesAfter(eq(0L), any())).thenReturn(
+                List.of(new LeaseDeadlineRow(1L, lease.getPlannedEndDate())));
+        when(leaseRepository.findOpenDeadlinesAfter(eq(1L), any())).thenReturn(List.of());
+        when(leaseRepository.findActiveByIdIn(List.of(1L))).thenReturn(List.of(lease));
+
+        tracker.leaseStarted(lease);
+        tracker.load();
+
+        assertEquals(1, tracker.pending());
+        assertEquals(1, service.fire(System.currentTimeMillis()));
+        verify(notificationService, times(1)).leaseOverdue(lease);
+    }
+
+    @Test
+    @DisplayName("✅ Should end overdue leases in auto-end mode")
+    void shouldAutoEndOverdueLeases() {
+        LeaseDeadlineTracker tracker = new LeaseDeadlineTracker(leaseRepository, 60_000, 0, 100);
+        OverdueLeaseService service = new OverdueLeaseService(tracker, leaseRepository, leaseService,
+                notificationService, auditLogService, OverdueAction.AUTO_END, 500);
+        Lease lease = overdueLease(1L);
+        tracker.schedule(1L, tracker.deadlineOf(lease.getPlannedEndDate()));
+        when(leaseRepository.findActiveByIdIn(List.of(1L))).thenReturn(List.of(lease));
+
+        service.fire(System.currentTimeMillis());
+
+        verify(leaseService).endLease(1L);
+        verifyNoInteractions(notificationService);
+        assertEquals(1, service.getStats().getAutoEnded());
+    }
+
+    @Test
+    @DisplayName("❌ Should not fire a lease before the day after its planned end")
+    void shouldNotFireBeforeDeadline() {
+        LeaseDeadlineTracker tracker = new LeaseDeadlineTracker(leaseRepository, 60_000, 0, 100);
+        OverdueLeaseService service = new OverdueLeaseService(tracker, leaseRepository, leaseService,
+                notificationService, auditLogService, OverdueAction.ALERT, 500);
+        tracker.schedule(1L, tracker.deadlineOf(LocalDate.now()));
+
+        assertEquals(0, service.fire(System.currentTimeMillis()));
+
+        verifyNoInteractions(leaseRepository);
+    }
+}
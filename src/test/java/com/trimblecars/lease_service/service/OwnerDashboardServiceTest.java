@@ -0,0 +1,79 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarLeasedDaysRow;
+import com.trimblecars.lease_service.dto.OwnerCarLeaseRow;
+import com.trimblecars.lease_service.dto.OwnerDashboardDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerDashboardServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private LeaseRepository leaseRepository;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    private OwnerDashboardService dashboardService;
+
+    @BeforeEach
+    void setup() {
+        dashboardService = new OwnerDashboardService(carRepository, leaseRepository, collectionVersionService, 60_000);
+    }
+
+    @Test
+    @DisplayName("✅ Should combine status counts, current leases and leased days")
+    void shouldBuildDashboard() {
+        LocalDate start = LocalDate.now().minusDays(3);
+        when(collectionVersionService.ownerCarsTag(2L)).thenReturn("v1");
+        when(carRepository.findOwnerCarsWithOpenLease(2L)).thenReturn(List.of(
+                new OwnerCarLeaseRow(1L, "Tata Nexon", CarStatus.ON_LEASE, 10L, "rajesh@trimble.com", start),
+                new OwnerCarLeaseRow(2L, "Honda City", CarStatus.IDLE, null, null, null)));
+        when(leaseRepository.sumLeasedDaysByCarForOwner(eq(2L), any(LocalDate.class)))
+                .thenReturn(List.of(new CarLeasedDaysRow(1L, 12L)));
+
+        OwnerDashboardDTO dashboard = dashboardService.getDashboard(2L).getData();
+
+        assertEquals(1L, dashboard.getStatusCounts().get("ON_LEASE"));
+        assertEquals(1L, dashboard.getStatusCounts().get("IDLE"));
+        assertEquals(0L, dashboard.getStatusCounts().get("ON_SERVICE"));
+        assertEquals("rajesh@trimble.com", dashboard.getCars().get(0).getCurrentCustomerEmail());
+        assertEquals(start, dashboard.getCars().get(0).getCurrentLeaseStartDate());
+        assertEquals(12L, dashboard.getCars().get(0).getTotalLeasedDays());
+        assertNull(dashboard.getCars().get(1).getCurrentLeaseId());
+        assertEquals(0L, dashboard.getCars().get(1).getTotalLeasedDays());
+    }
+
+    @Test
+    @DisplayName("✅ Should serve from cache until the owner's cars change")
+    void shouldCacheUntilVersionChanges() {
+        when(collectionVersionService.ownerCarsTag(2L)).thenReturn("v1", "v1", "v2");
+        when(carRepository.findOwnerCarsWithOpenLease(2L)).thenReturn(List.of());
+        when(leaseRepository.sumLeasedDaysByCarForOwner(eq(2L), any(LocalDate.class))).thenReturn(List.of());
+
+        dashboardService.getDashboard(2L);
+        dashboardService.getDashboard(2L);
+        verify(carRepository, times(1)).findOwnerCarsWithOpenLease(2L);
+
+        dashboardService.getDashboard(2L);
+        verify(carRepository, times(2)).findOwnerCarsWithOpenLease(2L);
+    }
+}
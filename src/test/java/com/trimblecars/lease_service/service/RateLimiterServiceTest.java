@@ -0,0 +1,69 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.enums.RouteClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterServiceTest {
+
+    private RateLimiterService rateLimiterService;
+
+    @BeforeEach
+    void setup() {
+        rateLimiterService = new RateLimiterService(10, 3, 5, 2, 0.1, 1, 2, 0);
+    }
+
+    @Test
+    @DisplayName("✅ Should allow a burst and then report the wait for the next token")
+    void shouldAllowBurstThenThrottle() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiterService.tryAcquire(RouteClass.READ, "/api/customers/7"));
+        }
+
+        long wait = rateLimiterService.tryAcquire(RouteClass.READ, "/api/customers/7");
+
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("✅ Should keep separate budgets per client and per route class")
+    void shouldIsolateClientsAndRouteClasses() {
+        assertEquals(0, rateLimiterService.tryAcquire(RouteClass.EXPORT, "/api/customers/7"));
+        assertTrue(rateLimiterService.tryAcquire(RouteClass.EXPORT, "/api/customers/7") > 0);
+
+        assertEquals(0, rateLimiterService.tryAcquire(RouteClass.EXPORT, "/api/customers/8"));
+        assertEquals(0, rateLimiterService.tryAcquire(RouteClass.READ, "/api/customers/7"));
+    }
+
+    @Test
+    @DisplayName("❌ Should shed load once the global in-flight limit is reached")
+    void shouldLimitInFlightRequests() {
+        assertTrue(rateLimiterService.tryEnter());
+        assertTrue(rateLimiterService.tryEnter());
+        assertFalse(rateLimiterService.tryEnter());
+
+        rateLimiterService.exit();
+
+        assertTrue(rateLimiterService.tryEnter());
+        assertEquals(2, rateLimiterService.inFlight());
+    }
+
+    @Test
+    @DisplayName("✅ Should evict buckets that have been idle past the window")
+    void shouldEvictIdleBuckets() throws InterruptedException {
+        rateLimiterService.tryAcquire(RouteClass.WRITE, "/api/owners/2");
+        assertEquals(1, rateLimiterService.trackedClients());
+
+        // write refills at 5/s, so the bucket is full again after 200ms
+        Thread.sleep(300);
+        rateLimiterService.evictIdleBuckets();
+
+        assertEquals(0, rateLimiterService.trackedClients());
+    }
+}
@@ -0,0 +1,126 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.dto.LeaseResponseDTO;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.SignalType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveBrowseServiceTest {
+
+    private static final String URL = "r2dbc:h2:mem:///reactive-browse-test?options=DB_CLOSE_DELAY=-1";
+
+    private static ReactiveBrowseService service;
+
+    @BeforeAll
+    static void createSchema() {
+        service = new ReactiveBrowseService(URL, "sa", "", 2);
+        DatabaseClient client = DatabaseClient.create(ConnectionFactories.get(ConnectionFactoryOptions.parse(URL).mutate()
+                .option(ConnectionFactoryOptions.USER, "sa")
+                .option(ConnectionFactoryOptions.PASSWORD, "")
+                .build()));
+        for (String sql : List.of(
+                "create table app_user (id bigint primary key, email varchar(255))",
+                "create table car (id bigint primary key, model varchar(255), status varchar(32), " +
+                        "latitude double precision, longitude double precision, owner_id bigint)",
+                "create table lease_history_view (lease_id bigint primary key, car_id bigint, customer_id bigint, " +
+                        "car_model varchar(255), customer_email varchar(255), start_date date, end_date date)",
+                "insert into app_user values (2, 'carlos@trimble.com'), (7, 'rajesh@trimble.com')",
+                "insert into car values (3, 'Honda City', 'IDLE', 12.97, 77.59, 2), " +
+                        "(1, 'Tata Nexon', 'IDLE', null, null, 2), (2, 'Hyundai i20', 'ON_LEASE', null, null, 2)",
+                "insert into lease_history_view values (11, 2, 7, 'Hyundai i20', 'rajesh@trimble.com', '2025-06-01', null), " +
+                        "(10, 1, 7, 'Tata Nexon', 'rajesh@trimble.com', '2025-05-01', '2025-05-10'), " +
+                        "(12, 3, 8, 'Honda City', 'emily@trimble.com', '2025-06-02', null)",
+                "insert into lease_history_view select x, 1, 9, 'Tata Nexon', 'priya@trimble.com', '2025-07-01', null " +
+                        "from system_range(100, 139)")) {
+            client.sql(sql).then().block();
+        }
+    }
+
+    @AfterAll
+    static void closePool() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("✅ Should stream only IDLE cars in id order with their owner")
+    void shouldStreamAvailableCars() {
+        List<CarResponseDTO> cars = service.availableCars().collectList().block();
+
+        assertNotNull(cars);
+        assertEquals(List.of(1L, 3L), cars.stream().map(CarResponseDTO::getId).toList());
+        assertEquals("IDLE", cars.get(1).getStatus());
+        assertEquals("carlos@trimble.com", cars.get(1).getOwnerEmail());
+        assertEquals(12.97, cars.get(1).getLatitude());
+    }
+
+    @Test
+    @DisplayName("✅ Should stream a customer's leases from the history view")
+    void shouldStreamCustomerLeases() {
+        List<LeaseResponseDTO> leases = service.customerLeases(7L).collectList().block();
+
+        assertNotNull(leases);
+        assertEquals(List.of(10L, 11L), leases.stream().map(LeaseResponseDTO::getLeaseId).toList());
+        assertEquals(LocalDate.of(2025, 5, 10), leases.get(0).getEndDate());
+        assertNull(leases.get(1).getEndDate());
+    }
+
+    @Test
+    @DisplayName("✅ Should only read as many rows as the subscriber asks for")
+    void shouldHonourDemand() throws InterruptedException {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        Semaphore arrived = new Semaphore(0);
+        CountDownLatch finished = new CountDownLatch(1);
+        BaseSubscriber<LeaseResponseDTO> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(LeaseResponseDTO lease) {
+                received.add(lease.getLeaseId());
+                arrived.release();
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                finished.countDown();
+            }
+        };
+
+        service.customerLeases(9L).subscribe(subscriber);
+
+        assertTrue(arrived.tryAcquire(2, 5, TimeUnit.SECONDS));
+        assertFalse(arrived.tryAcquire(200, TimeUnit.MILLISECONDS), "rows beyond request(2)");
+        assertEquals(List.of(100L, 101L), received);
+        assertEquals(1, finished.getCount());
+
+        subscriber.request(3);
+        assertTrue(arrived.tryAcquire(3, 5, TimeUnit.SECONDS));
+        assertFalse(arrived.tryAcquire(200, TimeUnit.MILLISECONDS), "rows beyond request(3)");
+        assertEquals(5, received.size());
+        assertEquals(1, finished.getCount());
+
+        subscriber.requestUnbounded();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(40, received.size());
+        assertEquals(139L, received.get(39));
+    }
+}
@@ -0,0 +1,184 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.SingleFlightStatsDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadCoalescerTest {
+
+    @Test
+    @DisplayName("✅ Should run one query for many identical concurrent reads and share its result")
+    void shouldShareOneExecution() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(true, 0, 100);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 50;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("cars-by-status", "IDLE", "v1", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return List.of("Tata Nexon");
+                })));
+            }
+            awaitJoined(coalescer, callers - 1);
+            release.countDown();
+
+            List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<List<String>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        SingleFlightStatsDTO stats = coalescer.getStats().get(0);
+        assertEquals(callers, stats.getCalls());
+        assertEquals(1, stats.getExecutions());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    @DisplayName("❌ Should hand a failure to every waiter and retry on the next call")
+    void shouldShareFailureWithoutCachingIt() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(true, 60_000, 100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(pool.submit(() -> coalescer.<String>execute("leases-by-car", 1L, "v1", () -> {
+                    await(release);
+                    throw new IllegalStateException("database down");
+                })));
+            }
+            awaitJoined(coalescer, 2);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertEquals("database down", ex.getCause().getMessage());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals("ok", coalescer.execute("leases-by-car", 1L, "v1", () -> "ok"));
+        assertEquals(1, coalescer.getStats().get(0).getFailures());
+    }
+
+    @Test
+    @DisplayName("✅ Should reuse a finished result within the cache window, but not across versions")
+    void shouldMicroCachePerVersion() {
+        ReadCoalescer coalescer = new ReadCoalescer(true, 60_000, 100);
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute("all-cars", null, "v1", executions::incrementAndGet);
+        Integer cached = coalescer.execute("all-cars", null, "v1", executions::incrementAndGet);
+        Integer fresh = coalescer.execute("all-cars", null, "v2", executions::incrementAndGet);
+
+        assertEquals(1, cached);
+        assertEquals(2, fresh);
+        assertEquals(1, coalescer.getStats().get(0).getCacheHits());
+    }
+
+    @Test
+    @DisplayName("✅ Should not cache when the window is zero")
+    void shouldNotCacheWithoutWindow() {
+        ReadCoalescer coalescer = new ReadCoalescer(true, 0, 100);
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute("all-cars", null, "v1", executions::incrementAndGet);
+        coalescer.execute("all-cars", null, "v1", executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    @DisplayName("✅ Should let a waiter run the read itself when the leader is interrupted")
+    void shouldRetryWhenLeaderInterrupted() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(true, 0, 100);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        AtomicReference<Throwable> leaderFailure = new AtomicReference<>();
+        AtomicReference<String> waiterResult = new AtomicReference<>();
+
+        Thread leader = new Thread(() -> {
+            try {
+                coalescer.execute("cars-by-owner", 2L, "v1", () -> {
+                    executions.incrementAndGet();
+                    leaderStarted.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("query cancelled");
+                    }
+                    return "stale";
+                });
+            } catch (RuntimeException ex) {
+                leaderFailure.set(ex);
+            }
+        });
+        leader.start();
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        Thread waiter = new Thread(() -> waiterResult.set(coalescer.execute("cars-by-owner", 2L, "v1", () -> {
+            executions.incrementAndGet();
+            return "fresh";
+        })));
+        waiter.start();
+        awaitJoined(coalescer, 1);
+        leader.interrupt();
+
+        leader.join(5_000);
+        waiter.join(5_000);
+        assertEquals("query cancelled", leaderFailure.get().getMessage());
+        assertEquals("fresh", waiterResult.get());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("✅ Should call the loader directly when disabled")
+    void shouldBypassWhenDisabled() {
+        ReadCoalescer coalescer = new ReadCoalescer(false, 60_000, 100);
+
+        assertEquals("ok", coalescer.execute("all-cars", null, "v1", () -> "ok"));
+        assertTrue(coalescer.getStats().isEmpty());
+    }
+
+    private static void awaitJoined(ReadCoalescer coalescer, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (coalescer.getStats().isEmpty() || coalescer.getStats().get(0).getJoined() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "callers did not join the in-flight read");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
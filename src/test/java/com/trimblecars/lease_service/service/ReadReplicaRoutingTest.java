@@ -0,0 +1,45 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.config.ReplicaRouting;
+import com.trimblecars.lease_service.dto.CarResponseDTO;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.model.ResponseModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "trimble.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        // The test drives replication and health checks itself
+        "trimble.replica.stand-in.interval-ms=600000",
+        "trimble.replica.check-interval-ms=600000"})
+@ActiveProfiles("replica")
+class ReadReplicaRoutingTest {
+
+    @Autowired private CarService carService;
+    @Autowired private ReplicaRouting routing;
+    @Autowired private ReplicaHealthMonitor monitor;
+    @Autowired private ReplicationStandIn standIn;
+
+    @Test
+    @DisplayName("✅ Should serve a service list read, outside any service transaction, from the replica")
+    void shouldRouteServiceReadsToReplica() throws Exception {
+        monitor.check();
+        standIn.copyOnce();
+        monitor.check();
+        assertTrue(monitor.replicaReadable());
+
+        long replicaBefore = routing.replicaConnections();
+        ResponseModel<List<CarResponseDTO>> response = carService.getCarsByStatus(CarStatus.IDLE);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertTrue(routing.replicaConnections() > replicaBefore, "the read did not reach the replica");
+    }
+}
@@ -0,0 +1,171 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.config.ReplicaRouting;
+import com.trimblecars.lease_service.dto.ReplicaStatusDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaHealthMonitorTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRouting routing;
+    private CollectionVersionService collectionVersionService;
+    private ReplicaHealthMonitor monitor;
+    private ReplicationStandIn standIn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String id = UUID.randomUUID().toString();
+        primary = new DriverManagerDataSource("jdbc:h2:mem:primary-" + id + ";DB_CLOSE_DELAY=-1", "sa", "");
+        replica = new DriverManagerDataSource("jdbc:h2:mem:replica-" + id + ";DB_CLOSE_DELAY=-1", "sa", "");
+        execute(primary, "create table car (id bigint primary key, model varchar(255), " +
+                "status enum('IDLE', 'ON_LEASE', 'ON_SERVICE'))");
+        execute(primary, "insert into car values (1, 'Tata Nexon', 'ON_LEASE')");
+
+        routing = new ReplicaRouting(primary, replica);
+        collectionVersionService = new CollectionVersionService();
+        monitor = new ReplicaHealthMonitor(routing, collectionVersionService, 2_000, true, 2);
+        monitor.onReadiness(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        standIn = new ReplicationStandIn(routing);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute(primary, "shutdown");
+        execute(replica, "shutdown");
+    }
+
+    @Test
+    @DisplayName("✅ Should serve read-only connections from the replica once it holds a fresh copy")
+    void shouldReadFromReplicaWhenCaughtUp() throws SQLException {
+        monitor.check();
+        assertFalse(monitor.getStatus().isHealthy());
+
+        standIn.copyOnce();
+        monitor.check();
+        execute(primary, "insert into car values (2, 'Hyundai i20', 'IDLE')");
+
+        ReplicaStatusDTO status = monitor.getStatus();
+        assertTrue(status.isHealthy());
+        assertNull(status.getLastError());
+        assertEquals(1, countCars(routing.readOnlyDataSource()));
+        assertEquals("ON_LEASE", query(replica, "select status from car where id = 1"));
+        assertEquals(1, monitor.getStatus().getReplicaConnections());
+    }
+
+    @Test
+    @DisplayName("❌ Should fall back to the primary when the replica lags beyond the limit")
+    void shouldFallBackWhenLagging() throws SQLException {
+        standIn.copyOnce();
+        execute(replica, "merge into replica_heartbeat key (id) values (1, " + (System.currentTimeMillis() - 10_000) + ")");
+        execute(primary, "insert into car values (2, 'Hyundai i20', 'IDLE')");
+
+        monitor.check();
+
+        ReplicaStatusDTO status = monitor.getStatus();
+        assertFalse(status.isHealthy());
+        assertTrue(status.getLagMs() >= 10_000);
+        assertTrue(status.getLastError().contains("behind"));
+        assertEquals(2, countCars(routing.readOnlyDataSource()));
+        assertEquals(1, status.getPrimaryConnections());
+    }
+
+    @Test
+    @DisplayName("✅ Should keep reads on the primary until the replica has caught up with the last write")
+    void shouldWaitForReplicaAfterWrite() throws Exception {
+        monitor.check();
+        standIn.copyOnce();
+        monitor.check();
+        assertTrue(monitor.replicaReadable());
+
+        collectionVersionService.customerLeasesChanged(7L);
+        assertFalse(monitor.replicaReadable());
+
+        Thread.sleep(5);
+        monitor.check();
+        standIn.copyOnce();
+        monitor.check();
+        assertTrue(monitor.replicaReadable());
+    }
+
+    @Test
+    @DisplayName("✅ Should only wait for the replica when the request reads a list that changed")
+    void shouldScopeReadYourWritesToTheListsRead() throws Exception {
+        monitor.check();
+        standIn.copyOnce();
+        monitor.check();
+        assertTrue(monitor.replicaReadable());
+        collectionVersionService.customerLeasesChanged(7L);
+        assertFalse(monitor.replicaReadable());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            collectionVersionService.customerLeasesTag(8L);
+            assertTrue(monitor.replicaReadable());
+
+            collectionVersionService.customerLeasesTag(7L);
+            assertFalse(monitor.replicaReadable());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            collectionVersionService.allCarsTag();
+            assertTrue(monitor.replicaReadable());
+
+            // A write later in the same request must be visible to its own reads
+            collectionVersionService.customerLeasesChanged(9L);
+            assertFalse(monitor.replicaReadable());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @DisplayName("❌ Should not route to the replica before the app accepts traffic")
+    void shouldNotRouteBeforeReady() throws SQLException {
+        monitor.onReadiness(new AvailabilityChangeEvent<>(this, ReadinessState.REFUSING_TRAFFIC));
+        standIn.copyOnce();
+        monitor.check();
+
+        assertTrue(monitor.getStatus().isHealthy());
+        assertFalse(monitor.replicaReadable());
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String query(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private static int countCars(DataSource dataSource) throws SQLException {
+        return Integer.parseInt(query(dataSource, "select count(*) from car"));
+    }
+}
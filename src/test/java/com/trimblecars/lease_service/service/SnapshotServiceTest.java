@@ -0,0 +1,85 @@
+package com.trimblecars.lease_service.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("✅ Should read back the payload and high-water mark that were written")
+    void shouldRoundTrip() throws Exception {
+        SnapshotService service = new SnapshotService(true, directory.toString(), null);
+        service.write(new Counter(1, 1234L, 42));
+
+        Optional<SnapshotService.Snapshot> snapshot = service.read(new Counter(1, 0L, 0));
+
+        assertTrue(snapshot.isPresent());
+        assertEquals(1234L, snapshot.get().highWaterMark());
+        assertEquals(42, snapshot.get().payload().getInt());
+    }
+
+    @Test
+    @DisplayName("❌ Should ignore a snapshot written with another payload version")
+    void shouldIgnoreOtherVersion() throws Exception {
+        SnapshotService service = new SnapshotService(true, directory.toString(), null);
+        service.write(new Counter(1, 1234L, 42));
+
+        assertTrue(service.read(new Counter(2, 0L, 0)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("❌ Should ignore a snapshot whose payload fails the checksum")
+    void shouldIgnoreCorruptedSnapshot() throws Exception {
+        SnapshotService service = new SnapshotService(true, directory.toString(), null);
+        service.write(new Counter(1, 1234L, 42));
+
+        try (FileChannel channel = FileChannel.open(directory.resolve("counter.snap"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), SnapshotService.HEADER_BYTES);
+        }
+
+        assertTrue(service.read(new Counter(1, 0L, 0)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("❌ Should not read snapshots when disabled")
+    void shouldNotReadWhenDisabled() throws Exception {
+        new SnapshotService(true, directory.toString(), null).write(new Counter(1, 1234L, 42));
+
+        SnapshotService disabled = new SnapshotService(false, directory.toString(), null);
+
+        assertTrue(disabled.read(new Counter(1, 0L, 0)).isEmpty());
+    }
+
+    private record Counter(int version, long highWaterMark, int value) implements Snapshottable {
+
+        @Override
+        public String snapshotName() {
+            return "counter";
+        }
+
+        @Override
+        public int snapshotVersion() {
+            return version;
+        }
+
+        @Override
+        public long writeSnapshot(DataOutputStream out) throws IOException {
+            out.writeInt(value);
+            return highWaterMark;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.RequestSqlStatsDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlDiagnosticsServiceTest {
+
+    private final SqlDiagnosticsService diagnosticsService = new SqlDiagnosticsService(2, 1);
+
+    @Test
+    @DisplayName("✅ Should count statements, rows and DB time for the current request only")
+    void shouldCollectStatsForCurrentRequest() {
+        SqlDiagnosticsService.RequestSqlStats stats = diagnosticsService.begin();
+        SqlDiagnosticsService.recordStatement("select * from lease");
+        SqlDiagnosticsService.recordStatement("select * from car where id=?");
+        SqlDiagnosticsService.recordExecution(TimeUnit.MILLISECONDS.toNanos(3));
+        SqlDiagnosticsService.recordRow();
+        SqlDiagnosticsService.recordRow();
+        diagnosticsService.end("GET /api/admin/leases/export", TimeUnit.MILLISECONDS.toNanos(10), stats);
+
+        // Outside a request nothing is recorded
+        SqlDiagnosticsService.recordStatement("select 1");
+
+        assertEquals(2, stats.getStatements());
+        assertEquals(2, stats.getRowsFetched());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), stats.getDbNanos());
+        assertEquals(List.of("select * from lease"), stats.getSql());
+    }
+
+    @Test
+    @DisplayName("✅ Should keep only the slowest requests, slowest first")
+    void shouldKeepSlowestRequests() {
+        record("GET /a", 5);
+        record("GET /b", 50);
+        record("GET /c", 20);
+        record("GET /d", 1);
+
+        List<RequestSqlStatsDTO> slowest = diagnosticsService.getSlowestRequests();
+
+        assertEquals(List.of("GET /b", "GET /c"), slowest.stream().map(RequestSqlStatsDTO::getRequest).toList());
+    }
+
+    private void record(String request, long elapsedMs) {
+        SqlDiagnosticsService.RequestSqlStats stats = diagnosticsService.begin();
+        diagnosticsService.end(request, TimeUnit.MILLISECONDS.toNanos(elapsedMs), stats);
+    }
+}
@@ -0,0 +1,76 @@
+package com.trimblecars.lease_service.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 60_000;
+
+    @Test
+    @DisplayName("✅ Should fire each deadline on its own tick across all wheel levels")
+    void shouldFireOnTime() {
+        long start = 1_000 * TICK;
+        TimingWheel wheel = new TimingWheel(TICK, start);
+        // Level 0, level 1, level 2 and level 3 distances
+        wheel.schedule(1L, start + 5 * TICK);
+        wheel.schedule(2L, start + 100 * TICK);
+        wheel.schedule(3L, start + 5_000 * TICK);
+        wheel.schedule(4L, start + 300_000 * TICK);
+
+        assertArrayEquals(new long[0], wheel.advance(start + 4 * TICK));
+        assertArrayEquals(new long[]{1L}, wheel.advance(start + 5 * TICK));
+        assertArrayEquals(new long[0], wheel.advance(start + 99 * TICK));
+        assertArrayEquals(new long[]{2L}, wheel.advance(start + 100 * TICK + TICK / 2));
+        assertArrayEquals(new long[0], wheel.advance(start + 4_999 * TICK));
+        assertArrayEquals(new long[]{3L}, wheel.advance(start + 5_000 * TICK));
+        assertArrayEquals(new long[0], wheel.advance(start + 299_999 * TICK));
+        assertArrayEquals(new long[]{4L}, wheel.advance(start + 300_000 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("✅ Should fire deadlines that are already due on the next advance")
+    void shouldFireOverdueImmediately() {
+        TimingWheel wheel = new TimingWheel(TICK, 500 * TICK);
+        wheel.schedule(9L, 10 * TICK);
+
+        assertArrayEquals(new long[]{9L}, wheel.advance(500 * TICK));
+    }
+
+    @Test
+    @DisplayName("✅ Should fire a million random deadlines exactly once and never early")
+    void shouldHandleMillionsOfDeadlines() {
+        long start = 0;
+        TimingWheel wheel = new TimingWheel(TICK, start);
+        Random random = new Random(7);
+        long[] deadlines = new long[1_000_001];
+        for (int id = 1; id < deadlines.length; id++) {
+            deadlines[id] = start + (long) (random.nextDouble() * 200_000 * TICK);
+            wheel.schedule(id, deadlines[id]);
+        }
+        assertEquals(1_000_000, wheel.size());
+
+        boolean[] seen = new boolean[deadlines.length];
+        int firedTotal = 0;
+        for (long now = start; now <= start + 201_000 * TICK; now += 1_000 * TICK) {
+            long[] fired = wheel.advance(now);
+            for (long id : fired) {
+                assertFalse(seen[(int) id], "fired twice");
+                seen[(int) id] = true;
+                assertTrue(deadlines[(int) id] <= now, "fired early");
+                assertTrue(deadlines[(int) id] > now - 1_000 * TICK, "fired late");
+            }
+            firedTotal += fired.length;
+        }
+
+        assertEquals(1_000_000, firedTotal);
+        assertEquals(0, wheel.size());
+        assertEquals(0, Arrays.stream(wheel.advance(start + 300_000 * TICK)).count());
+    }
+}
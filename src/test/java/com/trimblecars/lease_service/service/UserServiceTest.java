@@ -24,6 +24,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AuditLogService auditLogService;
+
     // ✅ Test 1: Register user successfully
     @Test
     @DisplayName("Should register user successfully when email is unique")
@@ -0,0 +1,195 @@
+package com.trimblecars.lease_service.service;
+
+import com.trimblecars.lease_service.dto.CustomerCountRow;
+import com.trimblecars.lease_service.dto.WaitlistEntryDTO;
+import com.trimblecars.lease_service.entity.User;
+import com.trimblecars.lease_service.entity.WaitlistEntry;
+import com.trimblecars.lease_service.enums.CarStatus;
+import com.trimblecars.lease_service.enums.UserRole;
+import com.trimblecars.lease_service.enums.WaitlistStatus;
+import com.trimblecars.lease_service.exception.ResourceAlreadyExistsException;
+import com.trimblecars.lease_service.model.ResponseModel;
+import com.trimblecars.lease_service.repository.CarRepository;
+import com.trimblecars.lease_service.repository.LeaseRepository;
+import com.trimblecars.lease_service.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    private static final String MODEL = "Tesla Model 3";
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private LeaseRepository leaseRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    @Test
+    @DisplayName("✅ Should skip waiters at the lease limit and keep their place")
+    void shouldClaimOldestEligibleWaiter() {
+        WaitlistEntry busy = entry(1L, 100L);
+        WaitlistEntry eligible = entry(2L, 101L);
+        when(waitlistRepository.findWaitingAfter(eq(MODEL), eq(0L), any(Pageable.class))).thenReturn(List.of(busy, eligible));
+        when(leaseRepository.countActiveByCustomerIdIn(Set.of(100L, 101L))).thenReturn(List.of(
+                new CustomerCountRow(100L, 2L), new CustomerCountRow(101L, 1L)));
+        when(waitlistRepository.claim(eq(2L), any(LocalDateTime.class))).thenReturn(1);
+
+        Optional<WaitlistEntry> claimed = waitlistService.claimNextWaiter(MODEL);
+
+        assertTrue(claimed.isPresent());
+        assertEquals(2L, claimed.get().getId());
+        assertEquals(WaitlistStatus.ASSIGNED, claimed.get().getStatus());
+        verify(waitlistRepository, never()).claim(eq(1L), any());
+        verify(leaseRepository, never()).countActiveByCustomerId(anyLong());
+    }
+
+    @Test
+    @DisplayName("✅ Should find waiters that joined through another instance")
+    void shouldAlwaysConsultTheQueue() {
+        // This instance never saw the join; the queue table is the only source of truth
+        WaitlistEntry waiter = entry(5L, 105L);
+        when(waitlistRepository.findWaitingAfter(eq(MODEL), eq(0L), any(Pageable.class))).thenReturn(List.of(waiter));
+        when(waitlistRepository.claim(eq(5L), any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals(Optional.of(waiter), waitlistService.claimNextWaiter(MODEL));
+    }
+
+    @Test
+    @DisplayName("✅ Should not count leases when nobody waits for the model")
+    void shouldStopAtEmptyQueue() {
+        assertTrue(waitlistService.claimNextWaiter(MODEL).isEmpty());
+
+        verifyNoInteractions(leaseRepository);
+    }
+
+    @Test
+    @DisplayName("✅ Should hand concurrent releases to distinct waiters in queue order")
+    void shouldServeConcurrentClaimsFairly() throws Exception {
+        int waiters = 2_000;
+        int releases = 500;
+        List<WaitlistEntry> queue = new ArrayList<>();
+        LongStream.rangeClosed(1, waiters).forEach(id -> queue.add(entry(id, 1_000 + id)));
+        Set<Long> claimedIds = ConcurrentHashMap.newKeySet();
+
+        when(waitlistRepository.findWaitingAfter(eq(MODEL), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            return queue.stream()
+                    .filter(e -> e.getId() > afterId && !claimedIds.contains(e.getId()))
+                    .limit(page.getPageSize())
+                    .map(e -> entry(e.getId(), e.getCustomer().getId()))
+                    .toList();
+        });
+        when(waitlistRepository.claim(anyLong(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> claimedIds.add(invocation.getArgument(0)) ? 1 : 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<WaitlistEntry>>> results = new ArrayList<>();
+            for (int i = 0; i < releases; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return waitlistService.claimNextWaiter(MODEL);
+                }));
+            }
+            start.countDown();
+
+            Set<Long> served = ConcurrentHashMap.newKeySet();
+            for (Future<Optional<WaitlistEntry>> result : results) {
+                assertTrue(served.add(result.get().orElseThrow().getId()), "waiter served twice");
+            }
+
+            Set<Long> expected = new HashSet<>();
+            LongStream.rangeClosed(1, releases).forEach(expected::add);
+            assertEquals(expected, served);
+            assertEquals(releases, claimedIds.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Should put a claimed waiter back in the queue when the car went elsewhere")
+    void shouldRequeueClaimedWaiter() {
+        WaitlistEntry claimed = entry(2L, 101L);
+        claimed.setStatus(WaitlistStatus.ASSIGNED);
+        claimed.setAssignedAt(LocalDateTime.now());
+        when(waitlistRepository.unclaim(2L)).thenReturn(1);
+
+        waitlistService.requeue(claimed);
+
+        assertEquals(WaitlistStatus.WAITING, claimed.getStatus());
+        assertNull(claimed.getAssignedAt());
+    }
+
+    @Test
+    @DisplayName("❌ Should reject joining the same model twice")
+    void shouldRejectDuplicateJoin() {
+        User customer = new User(7L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+        when(userService.getUserById(7L)).thenReturn(customer);
+        when(waitlistRepository.existsByCustomerIdAndModelAndStatus(7L, MODEL, WaitlistStatus.WAITING)).thenReturn(true);
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> waitlistService.join(7L, MODEL));
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("✅ Should join with the position in the model's queue")
+    void shouldJoinWaitlist() {
+        User customer = new User(7L, "Rajesh", "rajesh@trimble.com", UserRole.CUSTOMER);
+        when(userService.getUserById(7L)).thenReturn(customer);
+        when(carRepository.existsByModelAndStatus(MODEL, CarStatus.IDLE)).thenReturn(false);
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setId(12L);
+            return saved;
+        });
+        when(waitlistRepository.countByModelAndStatusAndIdLessThan(MODEL, WaitlistStatus.WAITING, 12L)).thenReturn(3L);
+
+        ResponseModel<WaitlistEntryDTO> response = waitlistService.join(7L, MODEL);
+
+        assertEquals("WAITING", response.getData().getStatus());
+        assertEquals(4L, response.getData().getPosition());
+    }
+
+    private static WaitlistEntry entry(long id, long customerId) {
+        User customer = new User(customerId, "Customer " + customerId, customerId + "@trimble.com", UserRole.CUSTOMER);
+        return new WaitlistEntry(id, MODEL, customer, WaitlistStatus.WAITING, LocalDateTime.now(), null, null);
+    }
+}